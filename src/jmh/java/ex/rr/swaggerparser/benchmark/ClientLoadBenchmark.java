@@ -0,0 +1,42 @@
+package ex.rr.swaggerparser.benchmark;
+
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ex.rr.swaggerparser.apiclient.ApiClientProperties;
+import ex.rr.swaggerparser.apiclient.HttpApiClient;
+import ex.rr.swaggerparser.apiclient.StubServer;
+import ex.rr.swaggerparser.benchmark.generated.stubbedpetstore.StubbedPetStoreApiClient;
+import ex.rr.swaggerparser.benchmark.generated.stubbedpetstore.StubbedPetStoreStubServer;
+
+/**
+ * ClientLoadBenchmark
+ *
+ * Load of the petstore client generated for {@link StubbedPetStore} on its
+ * generated stub server, offline, at increasing concurrency. Not a JMH
+ * benchmark, run with {@code mvn -Pbenchmark test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=ex.rr.swaggerparser.benchmark.ClientLoadBenchmark
+ * [-Dexec.args="<latency ms> <error rate>"]}.
+ */
+public class ClientLoadBenchmark {
+
+  private static final int[] CONCURRENCY = { 1, 16, 64, 256 };
+
+  public static void main(String[] args) {
+    Duration latency = Duration.ofMillis(args.length > 0 ? Long.parseLong(args[0]) : 0);
+    double errorRate = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    try (StubServer stub = StubbedPetStoreStubServer.create(StubServer.Settings.DEFAULT.withLatency(latency)
+        .withErrorRate(errorRate), objectMapper).start();
+        HttpApiClient apiClient = HttpApiClient.create(new ApiClientProperties(), objectMapper)) {
+      var client = new StubbedPetStoreApiClient(apiClient);
+      client.setBaseUrl(stub.baseUrl());
+      for (int concurrency : CONCURRENCY) {
+        System.out.println(LoadBenchmark.run(LoadBenchmark.Settings.DEFAULT.withConcurrency(concurrency),
+            () -> client.getPetById("1")));
+      }
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package ex.rr.swaggerparser.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+import ex.rr.swaggerparser.annotation.CacheRule;
+import ex.rr.swaggerparser.annotation.ModelStyle;
+import ex.rr.swaggerparser.annotation.SwaggerClient;
+import ex.rr.swaggerparser.annotation.Type;
+import ex.rr.swaggerparser.annotation.processor.SharedModels;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+
+/**
+ * FakeProcessingEnvironment
+ *
+ * Minimal {@link ProcessingEnvironment} to run the processors outside of
+ * javac. Sources written through its {@link Filer} are rendered and
+ * discarded, only their size is counted. Build files (manifests, cache) go
+ * to {@code workDir}.
+ */
+public final class FakeProcessingEnvironment {
+
+  private FakeProcessingEnvironment() {
+  }
+
+  public static ProcessingEnvironment create(Path workDir, AtomicLong writtenChars) {
+    Filer filer = proxy(Filer.class, (method, args) -> switch (method) {
+      case "createSourceFile", "createClassFile" -> new DiscardingFileObject((CharSequence) args[0], writtenChars);
+      case "getResource", "createResource" -> new DiscardingFileObject(workDir.resolve("classes")
+          .resolve(args[2].toString()).toUri(), writtenChars);
+      default -> throw new UnsupportedOperationException(method);
+    });
+    Messager messager = proxy(Messager.class, (method, args) -> null);
+
+    return proxy(ProcessingEnvironment.class, (method, args) -> switch (method) {
+      case "getFiler" -> filer;
+      case "getMessager" -> messager;
+      case "getOptions" -> Map.of();
+      case "getSourceVersion" -> SourceVersion.latest();
+      default -> throw new UnsupportedOperationException(method);
+    });
+  }
+
+  /**
+   * Target as captured from {@code @SwaggerClient(type = type, location = location)}
+   * on class {@code name}.
+   */
+  public static SpecTarget target(String name, Type type, String location) {
+    TypeElement element = proxy(TypeElement.class, (method, args) -> switch (method) {
+      case "toString" -> name;
+      case "hashCode" -> name.hashCode();
+      default -> throw new UnsupportedOperationException(method);
+    });
+    SwaggerClient annotation = new SwaggerClient() {
+      @Override
+      public Type type() {
+        return type;
+      }
+
+      @Override
+      public String location() {
+        return location;
+      }
+
+      @Override
+      public boolean async() {
+        return false;
+      }
+
+      @Override
+      public boolean streams() {
+        return false;
+      }
+
+      @Override
+      public boolean batching() {
+        return false;
+      }
+
+      @Override
+      public CacheRule[] cache() {
+        return new CacheRule[0];
+      }
+
+      @Override
+      public boolean codecs() {
+        return false;
+      }
+
+      @Override
+      public ModelStyle modelStyle() {
+        return ModelStyle.CLASS;
+      }
+
+      @Override
+      public boolean lazy() {
+        return false;
+      }
+
+      @Override
+      public boolean stubServer() {
+        return false;
+      }
+
+      @Override
+      public Class<? extends Annotation> annotationType() {
+        return SwaggerClient.class;
+      }
+    };
+    String settings = "location=\"" + location + "\",type=" + type;
+    return new SpecTarget(element, annotation, name, "benchmark." + name,
+        "benchmark.generated." + name.toLowerCase(), settings, false, SharedModels.none());
+  }
+
+  private interface Handler {
+    Object invoke(String method, Object[] args);
+  }
+
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+        (proxy, method, args) -> method.getName().equals("equals") ? proxy == args[0]
+            : handler.invoke(method.getName(), args)));
+  }
+
+  private static final class DiscardingFileObject extends SimpleJavaFileObject {
+
+    private final AtomicLong writtenChars;
+
+    DiscardingFileObject(CharSequence name, AtomicLong writtenChars) {
+      this(URI.create("mem:///" + name.toString().replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+          writtenChars);
+    }
+
+    DiscardingFileObject(URI uri, AtomicLong writtenChars) {
+      super(uri, JavaFileObject.Kind.OTHER);
+      this.writtenChars = writtenChars;
+    }
+
+    @Override
+    public Writer openWriter() {
+      return new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+          writtenChars.addAndGet(length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+      };
+    }
+
+    @Override
+    public OutputStream openOutputStream() throws IOException {
+      return OutputStream.nullOutputStream();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package ex.rr.swaggerparser.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.processing.ProcessingEnvironment;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.Type;
+import ex.rr.swaggerparser.annotation.processor.GenerationResult;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator;
+import ex.rr.swaggerparser.annotation.processor.v2.SwaggerProcessor;
+import ex.rr.swaggerparser.annotation.processor.v2.SwaggerSpecReader;
+import ex.rr.swaggerparser.annotation.processor.v3.OpenApiSpecReader;
+import ex.rr.swaggerparser.annotation.processor.v3.OpenApiV3Processor;
+import io.swagger.models.Swagger;
+import io.swagger.v3.oas.models.OpenAPI;
+
+/**
+ * GeneratorBenchmark
+ *
+ * Code generation of synthetic specs with {@code size} schemas and paths,
+ * outside of javac. Specs are parsed once per trial, so only generation (and
+ * rendering the sources for the {@code *Write} benchmarks) is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class GeneratorBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SwaggerSpec {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    public Swagger swagger;
+    public SpecTarget target;
+    public SwaggerProcessor processor;
+
+    @Setup
+    public void setUp() throws IOException {
+      swagger = new SwaggerSpecReader().readContents(SyntheticSpecs.swagger(size), "synthetic.json");
+      target = FakeProcessingEnvironment.target("Synthetic", Type.SWAGGER, "synthetic.json");
+      processor = new SwaggerProcessor(environment());
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class OpenApiSpec {
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    public OpenAPI openApi;
+    public SpecTarget target;
+    public OpenApiV3Processor processor;
+
+    @Setup
+    public void setUp() throws IOException {
+      openApi = new OpenApiSpecReader().readContents(SyntheticSpecs.openApi(size), "synthetic.json");
+      target = FakeProcessingEnvironment.target("Synthetic", Type.OPENAPI3, "synthetic.json");
+      processor = new OpenApiV3Processor(environment());
+    }
+  }
+
+  @Benchmark
+  public GenerationResult swaggerProcessor(SwaggerSpec spec) {
+    return spec.processor.generate(spec.target, spec.swagger);
+  }
+
+  @Benchmark
+  public GenerationResult swaggerProcessorWrite(SwaggerSpec spec) {
+    GenerationResult result = spec.processor.generate(spec.target, spec.swagger);
+    spec.processor.write(result);
+    return result;
+  }
+
+  @Benchmark
+  public TypeSpec clientGenerator(SwaggerSpec spec) {
+    return new ClientGenerator().generateClientDefiinition(spec.target, spec.swagger);
+  }
+
+  @Benchmark
+  public GenerationResult openApiV3Processor(OpenApiSpec spec) {
+    return spec.processor.generate(spec.target, spec.openApi);
+  }
+
+  private static ProcessingEnvironment environment() throws IOException {
+    return FakeProcessingEnvironment.create(Files.createTempDirectory("swaggerparser-benchmark"), new AtomicLong());
+  }
+}
@@ -0,0 +1,95 @@
+package ex.rr.swaggerparser.benchmark;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import ex.rr.swaggerparser.apiclient.LatencyHistograms;
+import ex.rr.swaggerparser.apiclient.StubServer;
+import lombok.With;
+
+/**
+ * LoadBenchmark
+ *
+ * Drives a call, typically an operation of a generated client pointed at a
+ * {@link StubServer}, from {@code concurrency} virtual threads, each calling
+ * again as soon as its previous call returned, and reports the throughput
+ * and latency percentiles. Calls of the warmup are not recorded. Latencies
+ * are recorded into a {@link LatencyHistograms.Histogram}, so percentiles
+ * are bucket bounds within 19%.
+ */
+public final class LoadBenchmark {
+
+  private LoadBenchmark() {
+  }
+
+  /**
+   * @param concurrency calls in flight at any time
+   * @param warmup      time the call is driven before recording
+   * @param duration    time the call is driven while recording
+   */
+  @With
+  public record Settings(int concurrency, Duration warmup, Duration duration) {
+
+    public static final Settings DEFAULT = new Settings(16, Duration.ofSeconds(5), Duration.ofSeconds(30));
+  }
+
+  /**
+   * @param calls   calls completed while recording
+   * @param errors  calls failed while recording, not part of the latency
+   * @param elapsed recording time
+   */
+  public record Report(int concurrency, long calls, long errors, Duration elapsed,
+      LatencyHistograms.Histogram latency) {
+
+    public double throughput() {
+      return calls / (elapsed.toNanos() / 1e9);
+    }
+
+    @Override
+    public String toString() {
+      return "concurrency %d: %.0f calls/s, %d calls, %d errors, p50 %s, p90 %s, p99 %s, p99.9 %s".formatted(
+          concurrency, throughput(), calls, errors, latency.percentile(0.5), latency.percentile(0.9),
+          latency.percentile(0.99), latency.percentile(0.999));
+    }
+  }
+
+  /**
+   * Returns once the last call in flight at the end completed.
+   */
+  public static Report run(Settings settings, Callable<?> call) {
+    LatencyHistograms.Histogram latency = new LatencyHistograms.Histogram();
+    LongAdder calls = new LongAdder();
+    LongAdder errors = new LongAdder();
+    long start = System.nanoTime();
+    long recordFrom = start + settings.warmup().toNanos();
+    long end = recordFrom + settings.duration().toNanos();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < settings.concurrency(); i++) {
+        executor.execute(() -> {
+          for (long callStart = System.nanoTime(); callStart < end; callStart = System.nanoTime()) {
+            boolean failed = false;
+            try {
+              call.call();
+            } catch (Exception e) {
+              failed = true;
+            }
+            long callEnd = System.nanoTime();
+            if (callStart >= recordFrom && callEnd <= end) {
+              if (failed) {
+                errors.increment();
+              } else {
+                calls.increment();
+                latency.record(callEnd - callStart);
+              }
+            }
+          }
+        });
+      }
+    }
+    return new Report(settings.concurrency(), calls.sum(), errors.sum(), settings.duration(), latency);
+  }
+}
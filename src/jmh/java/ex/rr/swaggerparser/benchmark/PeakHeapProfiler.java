@@ -0,0 +1,62 @@
+package ex.rr.swaggerparser.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * PeakHeapProfiler
+ *
+ * Samples used heap every millisecond during each iteration and reports the
+ * highest value as {@code peak.heap}. Enable with
+ * {@code -prof ex.rr.swaggerparser.benchmark.PeakHeapProfiler}.
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+  private static final double MB = 1024 * 1024;
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final AtomicLong peak = new AtomicLong();
+  private ScheduledExecutorService sampler;
+
+  @Override
+  public String getDescription() {
+    return "Peak used heap per iteration";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    peak.set(0);
+    sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "peak-heap-sampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    sampler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+      IterationResult result) {
+    sampler.shutdownNow();
+    sample();
+    return List.of(new ScalarResult("peak.heap", peak.get() / MB, "MB", AggregationPolicy.MAX));
+  }
+
+  private void sample() {
+    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+  }
+}
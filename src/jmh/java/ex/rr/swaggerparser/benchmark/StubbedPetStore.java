@@ -0,0 +1,14 @@
+package ex.rr.swaggerparser.benchmark;
+
+import ex.rr.swaggerparser.annotation.SwaggerClient;
+import ex.rr.swaggerparser.annotation.Type;
+
+/**
+ * StubbedPetStore
+ *
+ * Generates the petstore client of the {@link ClientLoadBenchmark} together
+ * with its stub server, so the stub stays out of the application.
+ */
+@SwaggerClient(type = Type.SWAGGER, location = "http://petstore.swagger.io/v2/swagger.json", stubServer = true)
+public class StubbedPetStore {
+}
@@ -0,0 +1,120 @@
+package ex.rr.swaggerparser.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * SyntheticSpecs
+ *
+ * Generates Swagger 2 and OpenAPI 3 documents with {@code size} schemas and
+ * {@code size} paths. Every schema has scalar, enum and array properties and
+ * refs to two other schemas, every path a GET, POST and PUT operation.
+ */
+public final class SyntheticSpecs {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private SyntheticSpecs() {
+  }
+
+  public static String swagger(int size) {
+    ObjectNode root = MAPPER.createObjectNode()
+        .put("swagger", "2.0")
+        .put("host", "synthetic.example.com")
+        .put("basePath", "/v1");
+    root.putObject("info").put("title", "Synthetic").put("version", "1.0");
+
+    ObjectNode definitions = root.putObject("definitions");
+    for (int i = 0; i < size; i++) {
+      definitions.set(schemaName(i), schema(i, size, "#/definitions/"));
+    }
+
+    ObjectNode paths = root.putObject("paths");
+    for (int i = 0; i < size; i++) {
+      String ref = "#/definitions/" + schemaName(i);
+      ObjectNode path = paths.putObject("/resource" + i + "/{id}");
+
+      ObjectNode get = operation(path.putObject("get"), "get" + i, ref);
+      get.withArray("parameters").addObject()
+          .put("name", "id").put("in", "path").put("required", true).put("type", "string");
+      get.withArray("parameters").addObject()
+          .put("name", "q").put("in", "query").put("type", "string");
+
+      operation(path.putObject("post"), "post" + i, ref).withArray("parameters").addObject()
+          .put("name", "body").put("in", "body").put("required", true)
+          .putObject("schema").put("$ref", ref);
+
+      ObjectNode put = operation(path.putObject("put"), "put" + i, ref);
+      put.withArray("parameters").addObject()
+          .put("name", "body").put("in", "body").put("required", true)
+          .putObject("schema").put("type", "array").putObject("items").put("$ref", ref);
+    }
+    return root.toString();
+  }
+
+  public static String openApi(int size) {
+    ObjectNode root = MAPPER.createObjectNode().put("openapi", "3.0.3");
+    root.putObject("info").put("title", "Synthetic").put("version", "1.0");
+    root.putArray("servers").addObject().put("url", "https://synthetic.example.com/v1");
+
+    ObjectNode schemas = root.putObject("components").putObject("schemas");
+    for (int i = 0; i < size; i++) {
+      schemas.set(schemaName(i), schema(i, size, "#/components/schemas/"));
+    }
+
+    ObjectNode paths = root.putObject("paths");
+    for (int i = 0; i < size; i++) {
+      String ref = "#/components/schemas/" + schemaName(i);
+      ObjectNode path = paths.putObject("/resource" + i + "/{id}");
+      path.putArray("parameters").addObject()
+          .put("name", "id").put("in", "path").put("required", true)
+          .putObject("schema").put("type", "string");
+
+      ObjectNode get = path.putObject("get").put("operationId", "get" + i);
+      get.putArray("parameters").addObject()
+          .put("name", "q").put("in", "query")
+          .putObject("schema").put("type", "string");
+      jsonContent(get.putObject("responses").putObject("200").put("description", "OK"), ref);
+
+      ObjectNode post = path.putObject("post").put("operationId", "post" + i);
+      jsonContent(post.putObject("requestBody").put("required", true), ref);
+      jsonContent(post.putObject("responses").putObject("200").put("description", "OK"), ref);
+    }
+    return root.toString();
+  }
+
+  private static String schemaName(int i) {
+    return "Model" + i;
+  }
+
+  private static ObjectNode schema(int i, int size, String refPrefix) {
+    ObjectNode schema = MAPPER.createObjectNode().put("type", "object");
+    schema.putArray("required").add("id").add("name");
+    ObjectNode properties = schema.putObject("properties");
+    properties.putObject("id").put("type", "integer").put("format", "int64");
+    properties.putObject("name").put("type", "string");
+    properties.putObject("price").put("type", "number").put("format", "double");
+    properties.putObject("active").put("type", "boolean");
+    properties.putObject("created").put("type", "string").put("format", "date-time");
+    ArrayNode values = properties.putObject("status").put("type", "string").putArray("enum");
+    values.add("available").add("pending").add("sold");
+    properties.putObject("tags").put("type", "array").putObject("items").put("type", "string");
+    properties.putObject("parent").put("$ref", refPrefix + schemaName((i + 1) % size));
+    properties.putObject("children").put("type", "array")
+        .putObject("items").put("$ref", refPrefix + schemaName((i + 2) % size));
+    return schema;
+  }
+
+  private static ObjectNode operation(ObjectNode operation, String operationId, String responseRef) {
+    operation.put("operationId", operationId);
+    operation.putArray("produces").add("application/json");
+    operation.putObject("responses").putObject("200").put("description", "OK")
+        .putObject("schema").put("$ref", responseRef);
+    return operation;
+  }
+
+  private static void jsonContent(ObjectNode node, String ref) {
+    node.putObject("content").putObject("application/json").putObject("schema").put("$ref", ref);
+  }
+}
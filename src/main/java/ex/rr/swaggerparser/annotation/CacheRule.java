@@ -0,0 +1,39 @@
+package ex.rr.swaggerparser.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Response caching of {@code GET} operations, see {@link SwaggerClient#cache()}.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target({})
+public @interface CacheRule {
+  /**
+   * Operation ids the rule applies to, all {@code GET} operations when empty.
+   */
+  String[] operations() default {};
+
+  /**
+   * Freshness of responses without {@code Cache-Control} or {@code Expires}.
+   */
+  long ttlSeconds() default 0;
+
+  /**
+   * How long stale responses are returned while being revalidated.
+   */
+  long staleWhileRevalidateSeconds() default 0;
+
+  /**
+   * Request headers which are part of the cache key, e.g.
+   * {@code Accept-Language}. {@code Authorization} always is.
+   */
+  String[] vary() default {};
+
+  /**
+   * Also cache responses marked {@code Cache-Control: private}, only safe
+   * when the client never acts for several users with the same credentials.
+   */
+  boolean cachePrivate() default false;
+}
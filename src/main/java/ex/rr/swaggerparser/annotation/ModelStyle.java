@@ -0,0 +1,14 @@
+package ex.rr.swaggerparser.annotation;
+
+public enum ModelStyle {
+  /**
+   * Mutable Lombok {@code @Data} classes.
+   */
+  CLASS,
+  /**
+   * Immutable records with primitives for required properties, {@code long}
+   * for {@code int64} and unmodifiable {@code copyOf} collections, which do
+   * not permit {@code null} elements.
+   */
+  RECORD
+}
@@ -11,4 +11,61 @@ public @interface SwaggerClient {
   Type type();
 
   String location();
+
+  /**
+   * Also generate {@code <operation>Async} methods returning a
+   * {@code CompletableFuture}, backed by an {@code AsyncApiClient}, and
+   * {@code <operation>Mono} methods when Reactor is on the classpath.
+   */
+  boolean async() default false;
+
+  /**
+   * Also generate {@code <operation>Stream} methods for {@code GET} operations
+   * responding with an array, decoding one element at a time. The returned
+   * {@code Stream} holds the connection until closed.
+   */
+  boolean streams() default false;
+
+  /**
+   * Also generate {@code <operation>Batched} methods for {@code GET}
+   * operations taking a single path parameter, which share in-flight requests
+   * and coalesce concurrent calls through a {@code BatchLoader}.
+   */
+  boolean batching() default false;
+
+  /**
+   * Response caching of {@code GET} operations, the first matching rule
+   * applies. Responses are cached by the {@code ApiClient}, honoring their
+   * caching headers.
+   */
+  CacheRule[] cache() default {};
+
+  /**
+   * Also generate a streaming Jackson serializer and deserializer per model,
+   * registered by a {@code <Name>JsonModule} component, so models are
+   * (de)serialized without reflective bean introspection.
+   */
+  boolean codecs() default false;
+
+  /**
+   * Shape of the generated models, {@link ModelStyle#RECORD} for a smaller
+   * footprint of models held in memory.
+   */
+  ModelStyle modelStyle() default ModelStyle.CLASS;
+
+  /**
+   * Make the generated client a {@code @Lazy} bean, created when first
+   * injected or looked up instead of at startup, for rarely used clients.
+   * Injection points need {@code @Lazy} too to defer it past their own
+   * creation.
+   */
+  boolean lazy() default false;
+
+  /**
+   * Also generate a {@code <Name>StubServer} serving sample responses of
+   * every operation on the JDK {@code HttpServer}, with injected latency and
+   * errors, to load test the client without its upstream. See
+   * {@code StubServer} and the {@code LoadBenchmark} of the benchmark profile.
+   */
+  boolean stubServer() default false;
 }
@@ -1,47 +1,232 @@
 package ex.rr.swaggerparser.annotation.processor;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.Element;
-import javax.lang.model.element.PackageElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.palantir.javapoet.JavaFile;
 import com.palantir.javapoet.TypeSpec;
 
+import ex.rr.swaggerparser.annotation.processor.cache.GenerationManifest;
+import ex.rr.swaggerparser.annotation.processor.cache.SpecCache;
+import ex.rr.swaggerparser.annotation.processor.cache.SpecReader;
+
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 /**
  * AbstractSwaggerProcessor
+ *
+ * Processes a spec in three stages driven by {@link SwaggerClientProcessor}:
+ * {@link #fetch} and {@link #generate} may run concurrently for different
+ * targets and must not use the processing environment, {@link #write} runs on
+ * the processing thread.
  */
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor
-public abstract class AbstractSwaggerProcessor {
+public abstract class AbstractSwaggerProcessor<S> {
+
+  private static final String HINTS_UNIT = "hints";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
 
   private ProcessingEnvironment processingEnv;
   protected Messager messager;
+  protected ProcessorOptions options;
+  protected SpecCache specCache;
+  private Path sourceOutput;
+
+  protected abstract SpecReader<S> specReader();
+
+  /**
+   * Builds all classes of {@code target}. Called from a fork-join pool.
+   */
+  public abstract GenerationResult generate(SpecTarget target, S spec);
+
+  /**
+   * Streams the spec {@code document} of {@code target}, generating and
+   * writing every unit as soon as its entry has been read. Called on the
+   * processing thread instead of {@link #generate} and {@link #write} when
+   * {@link ProcessorOptions#STREAMING} is enabled.
+   *
+   * @return completed result, its profile timing generation and writing
+   */
+  public abstract GenerationResult stream(SpecTarget target, Path document);
 
-  public abstract void process(Element element);
+  /**
+   * Canonical form of every schema of {@code spec}, by name, to find the
+   * models shared with other targets. Called from a fork-join pool.
+   */
+  public abstract Map<String, SharedModels.Node> schemas(S spec);
+
+  /**
+   * Same as {@link #schemas(Object)} reading the spec {@code document} one
+   * schema at a time, used when streaming.
+   */
+  public abstract Map<String, SharedModels.Node> schemas(Path document);
 
   protected void init(ProcessingEnvironment processingEnvironment) {
     this.processingEnv = processingEnvironment;
     this.messager = processingEnv.getMessager();
+    this.options = ProcessorOptions.from(processingEnvironment);
+    this.specCache = new SpecCache(options);
+    this.sourceOutput = resolveSourceOutput();
+  }
+
+  /**
+   * Fetches and parses the spec of {@code target}. Called from a virtual thread.
+   */
+  public SpecCache.Loaded<S> fetch(SpecTarget target) {
+    return specCache.load(target.location(), specReader());
   }
 
-  protected void saveClassDefinitionToFile(Element element, TypeSpec definition) {
+  /**
+   * Fetches the spec document of {@code target} without parsing it, used when
+   * streaming. Called from a virtual thread.
+   *
+   * @return cached document or {@code null} when the location can not be cached
+   */
+  public SpecCache.CachedSpec fetchDocument(SpecTarget target) {
     try {
-      PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(element);
-      String packageName = packageElement.getQualifiedName().toString() + ".generated."
-          + element.getSimpleName().toString().toLowerCase();
+      return specCache.fetch(target.location());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error fetching spec from " + target.location(), e);
+    }
+  }
+
+  /**
+   * Opens the manifest of classes generated for {@code target}, salted with
+   * its {@code @SwaggerClient} settings.
+   */
+  protected GenerationManifest openManifest(SpecTarget target) {
+    return GenerationManifest.load(options.workDir().resolve("manifests").resolve(target.qualifiedName() + ".properties"),
+        target.packageName() + target.settings() + target.sharedSettings());
+  }
+
+  /**
+   * Classes generated for {@code unit} by the previous build, provided its
+   * fingerprint did not change and all of them are still present.
+   */
+  protected Optional<Set<String>> reusableFiles(GenerationManifest manifest, String unit, String fingerprint) {
+    return manifest.reusableFiles(unit, fingerprint)
+        .filter(files -> files.stream().allMatch(name -> generatedSourceFile(name)
+            .map(Files::isRegularFile).orElse(false)));
+  }
+
+  /**
+   * Writes all units of {@code result} and completes it.
+   */
+  public void write(GenerationResult result) {
+    result.units().forEach(unit -> writeUnit(result, unit));
+    complete(result);
+  }
+
+  /**
+   * Writes a single unit. Reused units have their previous sources written
+   * through the {@code Filer} again so they take part in this compilation like
+   * freshly generated ones.
+   */
+  protected void writeUnit(GenerationResult result, GenerationResult.Unit unit) {
+    SpecTarget target = result.target();
+    Set<String> files = result.profile().time(GenerationProfile.Phase.WRITE, () -> unit.isReused()
+        ? unit.reusedFiles().stream().map(name -> rewriteGeneratedFile(target, name)).collect(Collectors.toSet())
+        : unit.types().stream()
+            .map(type -> saveClassDefinitionToFile(target,
+                unit.packageName() == null ? target.packageName() : unit.packageName(), type))
+            .collect(Collectors.toSet()));
+    result.profile().countFiles(files.size());
+    target.shared().written(files);
+    result.manifest().record(unit.name(), unit.fingerprint(), files);
+    result.written(unit);
+  }
+
+  /**
+   * Writes the runtime hints of all classes of {@code result}, reports its
+   * diagnostics, removes classes of units no longer part of the spec, unless
+   * another target wrote them in this round (a shared model), and stores the
+   * manifest for the next build.
+   */
+  protected void complete(GenerationResult result) {
+    GenerationManifest manifest = result.manifest();
+
+    Set<String> types = manifest.currentFiles();
+    String hintsFingerprint = manifest.fingerprint(MAPPER, HINTS_UNIT, types);
+    writeUnit(result, reusableFiles(manifest, HINTS_UNIT, hintsFingerprint)
+        .map(files -> GenerationResult.Unit.reused(HINTS_UNIT, hintsFingerprint, files))
+        .orElseGet(() -> GenerationResult.Unit.generated(HINTS_UNIT, hintsFingerprint,
+            List.of(RuntimeHintsGenerator.generate(result.target(), types)))));
+
+    result.messages().forEach(m -> messager.printMessage(m.kind(), m.text()));
+
+    result.profile().time(GenerationProfile.Phase.WRITE, () -> {
+      manifest.staleFiles().stream().filter(name -> !result.target().shared().isWritten(name))
+          .forEach(name -> generatedSourceFile(name).ifPresent(path -> {
+            try {
+              Files.deleteIfExists(path);
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }));
+      manifest.save();
+    });
 
-      JavaFile javaFile = JavaFile.builder(packageName, definition).build();
-      javaFile.writeTo(this.processingEnv.getFiler());
+    messager.printMessage(Diagnostic.Kind.NOTE, "%s: regenerated %d of %d units %s".formatted(
+        result.target().name(), result.regenerated().size(), result.writtenCount(), result.regenerated()));
+  }
+
+  /**
+   * Writes {@code definition} to {@code packageName} with the annotated class
+   * as its originating element. The source file is created directly rather
+   * than through {@code TypeSpec.toBuilder()}, which drops record components.
+   *
+   * @return qualified name of the written class
+   */
+  protected String saveClassDefinitionToFile(SpecTarget target, String packageName, TypeSpec definition) {
+    String name = packageName + "." + definition.name();
+    try (Writer writer = processingEnv.getFiler().createSourceFile(name, target.element()).openWriter()) {
+      JavaFile.builder(packageName, definition).build().writeTo(writer);
+      return name;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
 
+  private String rewriteGeneratedFile(SpecTarget target, String name) {
+    try {
+      String source = Files.readString(generatedSourceFile(name).orElseThrow());
+      try (Writer writer = processingEnv.getFiler().createSourceFile(name, target.element()).openWriter()) {
+        writer.write(source);
+      }
+      return name;
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
+
+  private Optional<Path> generatedSourceFile(String qualifiedName) {
+    return Optional.ofNullable(sourceOutput)
+        .map(root -> root.resolve(qualifiedName.replace('.', '/') + ".java"));
+  }
+
+  private Path resolveSourceOutput() {
+    try {
+      return Path.of(processingEnv.getFiler().getResource(StandardLocation.SOURCE_OUTPUT, "", "swaggerparser")
+          .toUri()).getParent();
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
 }
@@ -0,0 +1,118 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.tools.Diagnostic;
+
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.processor.cache.GenerationManifest;
+
+/**
+ * GenerationResult
+ *
+ * Output of the generation stage for one {@link SpecTarget}, written through
+ * the {@code Filer} afterwards by {@link AbstractSwaggerProcessor#write}.
+ * When streaming, units are written as soon as they are generated and never
+ * added here, only their names are kept for the summary. Diagnostics may be
+ * reported from any thread, the {@link GenerationProfile} is updated along
+ * the way.
+ */
+public class GenerationResult {
+
+  private final SpecTarget target;
+  private final GenerationManifest manifest;
+  private final List<Unit> units = new ArrayList<>();
+  private final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+  private final List<String> regenerated = new ArrayList<>();
+  private final GenerationProfile profile = new GenerationProfile();
+  private int written;
+
+  /**
+   * One generation unit, either freshly generated {@code types} or the
+   * {@code reusedFiles} of the previous build. Types are written to
+   * {@code packageName}, the package of the target when {@code null}.
+   */
+  public record Unit(String name, String fingerprint, String packageName, List<TypeSpec> types,
+      Set<String> reusedFiles) {
+
+    public static Unit generated(String name, String fingerprint, List<TypeSpec> types) {
+      return generated(name, fingerprint, null, types);
+    }
+
+    public static Unit generated(String name, String fingerprint, String packageName, List<TypeSpec> types) {
+      return new Unit(name, fingerprint, packageName, types, Set.of());
+    }
+
+    public static Unit reused(String name, String fingerprint, Set<String> files) {
+      return new Unit(name, fingerprint, null, List.of(), files);
+    }
+
+    public boolean isReused() {
+      return types.isEmpty();
+    }
+  }
+
+  public record Message(Diagnostic.Kind kind, String text) {
+  }
+
+  public GenerationResult(SpecTarget target, GenerationManifest manifest) {
+    this.target = target;
+    this.manifest = manifest;
+  }
+
+  public SpecTarget target() {
+    return target;
+  }
+
+  public GenerationManifest manifest() {
+    return manifest;
+  }
+
+  public GenerationProfile profile() {
+    return profile;
+  }
+
+  public List<Unit> units() {
+    return units;
+  }
+
+  public Collection<Message> messages() {
+    return messages;
+  }
+
+  public void add(Unit unit) {
+    units.add(unit);
+  }
+
+  public void addAll(Collection<Unit> units) {
+    this.units.addAll(units);
+  }
+
+  /**
+   * Marks {@code unit} as written.
+   */
+  public void written(Unit unit) {
+    written++;
+    if (!unit.isReused()) {
+      regenerated.add(unit.name());
+    }
+  }
+
+  public int writtenCount() {
+    return written;
+  }
+
+  public List<String> regenerated() {
+    return regenerated;
+  }
+
+  public void error(String text) {
+    messages.add(new Message(Diagnostic.Kind.ERROR, text));
+  }
+}
@@ -0,0 +1,58 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.StandardLocation;
+
+/**
+ * ProcessorOptions
+ *
+ * Annotation processor options ({@code -A<key>=<value>}) recognised by
+ * {@link SwaggerClientProcessor}.
+ */
+public record ProcessorOptions(Path workDir, Path cacheDir, boolean offline, boolean streaming, boolean sharedModels,
+    String sharedPackage) {
+
+  /** Directory holding fetched specs and parsed snapshots, defaults to {@code <build>/swaggerparser/cache}. */
+  public static final String CACHE_DIR = "swaggerparser.cacheDir";
+  /** Use cached specs without revalidating them against the remote location. */
+  public static final String OFFLINE = "swaggerparser.offline";
+  /** Read definitions and paths one at a time and write their classes right away, keeping memory use flat. */
+  public static final String STREAMING = "swaggerparser.streaming";
+  /** Generate models found with the same schema in several specs once, defaults to {@code true}. */
+  public static final String SHARED_MODELS = "swaggerparser.sharedModels";
+  /** Package of the shared models, defaults to {@code <common package>.generated.shared}. */
+  public static final String SHARED_PACKAGE = "swaggerparser.sharedPackage";
+
+  public static final Set<String> SUPPORTED = Set.of(CACHE_DIR, OFFLINE, STREAMING, SHARED_MODELS, SHARED_PACKAGE);
+
+  public static ProcessorOptions from(ProcessingEnvironment processingEnv) {
+    Map<String, String> options = processingEnv.getOptions();
+    Path workDir = resolveWorkDir(processingEnv);
+    Path cacheDir = Optional.ofNullable(options.get(CACHE_DIR))
+        .map(Path::of)
+        .orElse(workDir.resolve("cache"));
+    return new ProcessorOptions(workDir, cacheDir, Boolean.parseBoolean(options.get(OFFLINE)),
+        Boolean.parseBoolean(options.get(STREAMING)), !"false".equalsIgnoreCase(options.get(SHARED_MODELS)),
+        options.get(SHARED_PACKAGE));
+  }
+
+  /**
+   * Resolves {@code <build>/swaggerparser} next to the class output directory
+   * (e.g. {@code target/classes} -> {@code target/swaggerparser}).
+   */
+  private static Path resolveWorkDir(ProcessingEnvironment processingEnv) {
+    try {
+      Path classOutput = Path.of(processingEnv.getFiler()
+          .getResource(StandardLocation.CLASS_OUTPUT, "", "swaggerparser").toUri())
+          .getParent();
+      return classOutput.getParent().resolve("swaggerparser");
+    } catch (Exception e) {
+      return Path.of(System.getProperty("java.io.tmpdir"), "swaggerparser");
+    }
+  }
+}
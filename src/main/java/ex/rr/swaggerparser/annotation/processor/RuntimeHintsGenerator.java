@@ -0,0 +1,71 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.lang.model.element.Modifier;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.TypeSpec;
+
+/**
+ * RuntimeHintsGenerator
+ *
+ * Generates the {@code RuntimeHintsRegistrar} of a target, registering
+ * reflection hints for every class written for it, so Spring AOT and native
+ * images need no hand-written configuration. The generated client imports
+ * it with {@code @ImportRuntimeHints}. Shared models are registered by the
+ * registrar of their owner. Classes are referred to by class literals,
+ * registered by methods of {@link #TYPES_PER_METHOD} classes each, so large
+ * specs stay within the method size limit.
+ */
+public final class RuntimeHintsGenerator {
+
+  private static final ClassName REGISTRAR = ClassName.get("org.springframework.aot.hint", "RuntimeHintsRegistrar");
+  private static final ClassName RUNTIME_HINTS = ClassName.get("org.springframework.aot.hint", "RuntimeHints");
+  private static final ClassName GENERATED_HINTS = ClassName.get("ex.rr.swaggerparser.apiclient",
+      "GeneratedRuntimeHints");
+  private static final int TYPES_PER_METHOD = 500;
+
+  private RuntimeHintsGenerator() {
+  }
+
+  /**
+   * Registrar of {@code target}, e.g. {@code PetStoreRuntimeHints}.
+   */
+  public static ClassName registrar(SpecTarget target) {
+    return ClassName.get(target.packageName(), target.name() + "RuntimeHints");
+  }
+
+  /**
+   * @param types qualified names of the top level classes written for
+   *              {@code target}
+   */
+  public static TypeSpec generate(SpecTarget target, Collection<String> types) {
+    List<String> names = new ArrayList<>(types);
+    var registrar = TypeSpec.classBuilder(registrar(target))
+        .addModifiers(Modifier.PUBLIC)
+        .addSuperinterface(REGISTRAR);
+    var registerHints = MethodSpec.methodBuilder("registerHints")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(RUNTIME_HINTS, "hints")
+        .addParameter(ClassLoader.class, "classLoader");
+    for (int from = 0; from < names.size() || from == 0; from += TYPES_PER_METHOD) {
+      var classes = CodeBlock.builder();
+      names.subList(from, Math.min(from + TYPES_PER_METHOD, names.size()))
+          .forEach(name -> classes.add(",\n$T.class", ClassName.bestGuess(name)));
+      MethodSpec register = MethodSpec.methodBuilder("register" + from / TYPES_PER_METHOD)
+          .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+          .addParameter(RUNTIME_HINTS, "hints")
+          .addStatement("$T.register(hints$L)", GENERATED_HINTS, classes.build())
+          .build();
+      registrar.addMethod(register);
+      registerHints.addStatement("$N(hints)", register);
+    }
+    return registrar.addMethod(registerHints.build()).build();
+  }
+}
@@ -0,0 +1,284 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * SharedModels
+ *
+ * Models generated once into a shared package for all {@code @SwaggerClient}
+ * classes of a round whose specs contain the same schema, instead of once per
+ * class. Schemas are compared by a canonical hash covering the schema, every
+ * schema it refers to (directly or not) and the settings shaping the model,
+ * so a shared model only ever refers to other shared models. Documentation
+ * keywords are ignored.
+ *
+ * When schemas of the same name differ between specs, the variant used by the
+ * most classes is shared and the others stay in their own packages. The first
+ * of the sharing classes by name writes the shared model.
+ */
+public class SharedModels {
+
+  private static final Set<String> DOCUMENTATION = Set.of("description", "title", "example", "examples",
+      "externalDocs");
+  private static final Set<String> NAMED_SCHEMAS = Set.of("properties", "patternProperties", "definitions");
+
+  private final String packageName;
+  private final Map<String, Set<String>> names;
+  private final Map<String, String> owners;
+  private final Set<String> written = ConcurrentHashMap.newKeySet();
+
+  private SharedModels(String packageName, Map<String, Set<String>> names, Map<String, String> owners) {
+    this.packageName = packageName;
+    this.names = names;
+    this.owners = owners;
+  }
+
+  /**
+   * Canonical form of a single schema: the digest of its content and the
+   * names of the schemas it refers to.
+   */
+  public record Node(String hash, Set<String> refs) {
+
+    public static Node of(ObjectMapper mapper, Object schema) {
+      StringBuilder canonical = new StringBuilder();
+      Set<String> refs = new TreeSet<>();
+      canonicalize(mapper.valueToTree(schema), true, canonical, refs);
+      return new Node(sha256(canonical.toString()), refs);
+    }
+
+    private static void canonicalize(JsonNode node, boolean schema, StringBuilder out, Set<String> refs) {
+      if (node.isObject()) {
+        Map<String, JsonNode> fields = new TreeMap<>();
+        node.fields().forEachRemaining(field -> fields.put(field.getKey(), field.getValue()));
+        out.append('{');
+        fields.forEach((name, value) -> {
+          if (schema && DOCUMENTATION.contains(name) || value.isNull()) {
+            return;
+          }
+          if (name.equals("$ref") && value.isTextual()) {
+            refs.add(value.asText().substring(value.asText().lastIndexOf('/') + 1));
+          }
+          out.append(new TextNode(name)).append(':');
+          canonicalize(value, !schema || !NAMED_SCHEMAS.contains(name), out, refs);
+          out.append(',');
+        });
+        out.append('}');
+      } else if (node.isArray()) {
+        out.append('[');
+        node.forEach(element -> {
+          canonicalize(element, schema, out, refs);
+          out.append(',');
+        });
+        out.append(']');
+      } else {
+        out.append(node.toString());
+      }
+    }
+  }
+
+  /**
+   * Not sharing anything, e.g. for a round with a single annotated class.
+   */
+  public static SharedModels none() {
+    return new SharedModels(null, Map.of(), Map.of());
+  }
+
+  /**
+   * Plans which schemas of {@code schemas}, by target, are shared.
+   *
+   * @param packageName package receiving the shared models
+   */
+  public static SharedModels plan(String packageName, Map<SpecTarget, Map<String, Node>> schemas) {
+    Map<SpecTarget, Map<String, String>> closures = new HashMap<>();
+    schemas.forEach((target, nodes) -> closures.put(target, closureHashes(salt(target), nodes)));
+
+    Map<String, Map<String, List<SpecTarget>>> variants = new TreeMap<>();
+    closures.forEach((target, hashes) -> hashes.forEach((name, hash) -> variants
+        .computeIfAbsent(name, n -> new TreeMap<>())
+        .computeIfAbsent(hash, h -> new ArrayList<>())
+        .add(target)));
+
+    Map<String, String> sharedHashes = new HashMap<>();
+    Map<String, List<SpecTarget>> groups = new HashMap<>();
+    variants.forEach((name, byHash) -> byHash.entrySet().stream()
+        .filter(variant -> variant.getValue().size() > 1)
+        .max(Comparator.<Map.Entry<String, List<SpecTarget>>>comparingInt(variant -> variant.getValue().size())
+            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()))
+        .ifPresent(variant -> {
+          List<SpecTarget> group = new ArrayList<>(variant.getValue());
+          group.sort(Comparator.comparing(SpecTarget::qualifiedName));
+          sharedHashes.put(name, variant.getKey());
+          groups.put(name, group);
+        }));
+
+    // a shared model must only refer to shared models of the very same variant
+    boolean demoted = true;
+    while (demoted) {
+      demoted = false;
+      for (Iterator<Map.Entry<String, List<SpecTarget>>> it = groups.entrySet().iterator(); it.hasNext();) {
+        Map.Entry<String, List<SpecTarget>> group = it.next();
+        SpecTarget target = group.getValue().get(0);
+        Map<String, String> hashes = closures.get(target);
+        boolean valid = schemas.get(target).get(group.getKey()).refs().stream()
+            .filter(hashes::containsKey)
+            .allMatch(ref -> hashes.get(ref).equals(sharedHashes.get(ref)));
+        if (!valid) {
+          sharedHashes.remove(group.getKey());
+          it.remove();
+          demoted = true;
+        }
+      }
+    }
+
+    Map<String, Set<String>> names = new HashMap<>();
+    Map<String, String> owners = new HashMap<>();
+    groups.forEach((name, group) -> {
+      group.forEach(target -> names.computeIfAbsent(target.qualifiedName(), t -> new TreeSet<>()).add(name));
+      owners.put(name, group.get(0).qualifiedName());
+    });
+    return new SharedModels(packageName, names, owners);
+  }
+
+  public String packageName() {
+    return packageName;
+  }
+
+  /**
+   * Schemas of {@code target} generated into the shared package.
+   */
+  public Set<String> names(SpecTarget target) {
+    return names.getOrDefault(target.qualifiedName(), Set.of());
+  }
+
+  public boolean isShared(SpecTarget target, String schema) {
+    return names(target).contains(schema);
+  }
+
+  /**
+   * Whether {@code target} writes the shared model of {@code schema}.
+   */
+  public boolean isOwner(SpecTarget target, String schema) {
+    return target.qualifiedName().equals(owners.get(schema));
+  }
+
+  /**
+   * Records classes written in this round, so a class moving to another
+   * owner is not deleted as stale by its previous one.
+   */
+  public void written(Collection<String> files) {
+    written.addAll(files);
+  }
+
+  public boolean isWritten(String file) {
+    return written.contains(file);
+  }
+
+  /**
+   * Settings shaping the generated models.
+   */
+  private static String salt(SpecTarget target) {
+    return target.annotation().type() + "|" + target.annotation().modelStyle() + "|" + target.annotation().codecs();
+  }
+
+  /**
+   * Hash of every schema together with all schemas reachable from it. Refs
+   * may form cycles, so the strongly connected components are hashed
+   * instead, children first (Tarjan's algorithm, iteratively so deep
+   * chains of refs do not overflow the stack).
+   */
+  private static Map<String, String> closureHashes(String salt, Map<String, Node> nodes) {
+    Map<String, Integer> index = new HashMap<>();
+    Map<String, Integer> low = new HashMap<>();
+    Deque<String> stack = new ArrayDeque<>();
+    Set<String> onStack = new HashSet<>();
+    Map<String, String> hashes = new HashMap<>();
+    Deque<Map.Entry<String, Iterator<String>>> work = new ArrayDeque<>();
+
+    for (String root : new TreeSet<>(nodes.keySet())) {
+      if (index.containsKey(root)) {
+        continue;
+      }
+      visit(root, nodes, index, low, stack, onStack, work);
+      while (!work.isEmpty()) {
+        Map.Entry<String, Iterator<String>> frame = work.peek();
+        String name = frame.getKey();
+        if (frame.getValue().hasNext()) {
+          String ref = frame.getValue().next();
+          if (!index.containsKey(ref)) {
+            visit(ref, nodes, index, low, stack, onStack, work);
+          } else if (onStack.contains(ref)) {
+            low.put(name, Math.min(low.get(name), index.get(ref)));
+          }
+          continue;
+        }
+        work.pop();
+        if (!work.isEmpty()) {
+          String parent = work.peek().getKey();
+          low.put(parent, Math.min(low.get(parent), low.get(name)));
+        }
+        if (low.get(name).equals(index.get(name))) {
+          Set<String> members = new TreeSet<>();
+          String member;
+          do {
+            member = stack.pop();
+            onStack.remove(member);
+            members.add(member);
+          } while (!member.equals(name));
+
+          StringBuilder component = new StringBuilder(salt);
+          Set<String> children = new TreeSet<>();
+          members.forEach(m -> {
+            component.append('|').append(m).append('=').append(nodes.get(m).hash());
+            nodes.get(m).refs().stream()
+                .filter(ref -> nodes.containsKey(ref) && !members.contains(ref))
+                .forEach(ref -> children.add(hashes.get(ref)));
+          });
+          children.forEach(child -> component.append('>').append(child));
+          String hash = sha256(component.toString());
+          members.forEach(m -> hashes.put(m, hash));
+        }
+      }
+    }
+    return hashes;
+  }
+
+  private static void visit(String name, Map<String, Node> nodes, Map<String, Integer> index,
+      Map<String, Integer> low, Deque<String> stack, Set<String> onStack,
+      Deque<Map.Entry<String, Iterator<String>>> work) {
+    index.put(name, index.size());
+    low.put(name, index.get(name));
+    stack.push(name);
+    onStack.add(name);
+    work.push(Map.entry(name, nodes.get(name).refs().stream().filter(nodes::containsKey).iterator()));
+  }
+
+  private static String sha256(String text) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(text.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
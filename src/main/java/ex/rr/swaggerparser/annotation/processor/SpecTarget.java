@@ -0,0 +1,100 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.util.stream.Collectors;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+import com.palantir.javapoet.ClassName;
+
+import ex.rr.swaggerparser.annotation.SwaggerClient;
+
+/**
+ * SpecTarget
+ *
+ * Everything the processors need to know about one {@code @SwaggerClient}
+ * class, captured up front on the processing thread so fetching and
+ * generation can run concurrently without touching the (not thread safe)
+ * {@code javax.lang.model} API.
+ *
+ * @param element       annotated class, only used as originating element when writing
+ * @param annotation    annotation values
+ * @param name          simple name of the annotated class
+ * @param qualifiedName qualified name of the annotated class
+ * @param packageName   package receiving the generated classes
+ * @param settings      all annotation values including defaults, in a stable order
+ * @param reactive      whether Reactor is on the compile classpath
+ * @param shared        models shared with the other classes of the round
+ */
+public record SpecTarget(Element element, SwaggerClient annotation, String name, String qualifiedName,
+    String packageName, String settings, boolean reactive, SharedModels shared) {
+
+  private static final String MONO = "reactor.core.publisher.Mono";
+
+  public static SpecTarget of(Element element, Elements elements) {
+    PackageElement packageElement = elements.getPackageOf(element);
+    String name = element.getSimpleName().toString();
+    String settings = element.getAnnotationMirrors().stream()
+        .filter(m -> m.getAnnotationType().toString().equals(SwaggerClient.class.getName()))
+        .map(m -> elements.getElementValuesWithDefaults(m).entrySet().stream()
+            .map(e -> e.getKey().getSimpleName() + "=" + e.getValue())
+            .sorted()
+            .collect(Collectors.joining(",")))
+        .findFirst()
+        .orElse("");
+    boolean reactive = elements.getTypeElement(MONO) != null;
+
+    return new SpecTarget(element, element.getAnnotation(SwaggerClient.class), name,
+        ((TypeElement) element).getQualifiedName().toString(),
+        packageElement.getQualifiedName().toString() + ".generated." + name.toLowerCase(),
+        settings + ",reactive=" + reactive, reactive, SharedModels.none());
+  }
+
+  public SpecTarget withShared(SharedModels shared) {
+    return new SpecTarget(element, annotation, name, qualifiedName, packageName, settings, reactive, shared);
+  }
+
+  public String location() {
+    return annotation.location();
+  }
+
+  /**
+   * Class generated for this target, e.g. a model named after a schema.
+   */
+  public ClassName className(String simpleName) {
+    return className(simpleName, simpleName);
+  }
+
+  /**
+   * Class generated along with the model of {@code schema}, e.g. one of its
+   * enums, in the same package.
+   */
+  public ClassName className(String schema, String simpleName) {
+    return ClassName.get(modelPackage(schema), simpleName);
+  }
+
+  /**
+   * Package of the classes generated for {@code schema}, the shared package
+   * when its model is shared.
+   */
+  public String modelPackage(String schema) {
+    return shared.isShared(this, schema) ? shared.packageName() : packageName;
+  }
+
+  /**
+   * Whether this target writes the classes of {@code schema}, i.e. they are
+   * not shared or it is their owner.
+   */
+  public boolean generates(String schema) {
+    return !shared.isShared(this, schema) || shared.isOwner(this, schema);
+  }
+
+  /**
+   * Shared models salting the manifest, as they change the generated code.
+   */
+  public String sharedSettings() {
+    return shared.names(this).isEmpty() ? "" : ",shared=" + shared.packageName() + shared.names(this);
+  }
+}
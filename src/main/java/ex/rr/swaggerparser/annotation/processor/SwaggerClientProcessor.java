@@ -1,6 +1,20 @@
 package ex.rr.swaggerparser.annotation.processor;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -15,17 +29,42 @@ import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 import ex.rr.swaggerparser.annotation.SwaggerClient;
+import ex.rr.swaggerparser.annotation.processor.GenerationProfile.Phase;
+import ex.rr.swaggerparser.annotation.processor.cache.GenerationManifest;
+import ex.rr.swaggerparser.annotation.processor.cache.SpecCache;
 import ex.rr.swaggerparser.annotation.processor.v2.SwaggerProcessor;
 import ex.rr.swaggerparser.annotation.processor.v3.OpenApiV3Processor;
 
+/**
+ * SwaggerClientProcessor
+ *
+ * Runs all {@code @SwaggerClient} classes of a round through a three stage
+ * pipeline: every spec is fetched concurrently on virtual threads, classes
+ * are then built on a fork-join pool (specs and their definitions in
+ * parallel, on a pool created for the round) and finally written through
+ * the {@code Filer} one by one.
+ * With {@link ProcessorOptions#STREAMING} only the raw documents are fetched
+ * concurrently, each one is then streamed through generation and writing on
+ * the processing thread so just a single definition is held at a time.
+ * The time spent fetching, parsing, generating and writing every target is
+ * reported as a note and to {@code <build>/swaggerparser/reports/<class>.json}.
+ * Schemas found in the specs of several classes are generated once into a
+ * shared package, see {@link SharedModels}.
+ */
 @SupportedAnnotationTypes("ex.rr.swaggerparser.annotation.SwaggerClient")
 @SupportedSourceVersion(SourceVersion.RELEASE_17)
 public class SwaggerClientProcessor extends AbstractProcessor {
+  private static final ObjectWriter REPORT_WRITER = new ObjectMapper().writerWithDefaultPrettyPrinter();
+
   protected Messager messager;
   protected Filer filer;
   protected SwaggerProcessor v2Processor;
   protected OpenApiV3Processor v3Processor;
+  protected ProcessorOptions options;
 
   @Override
   public synchronized void init(ProcessingEnvironment pEnv) {
@@ -34,22 +73,206 @@ public class SwaggerClientProcessor extends AbstractProcessor {
     messager = pEnv.getMessager();
     v2Processor = new SwaggerProcessor(pEnv);
     v3Processor = new OpenApiV3Processor(pEnv);
+    options = ProcessorOptions.from(pEnv);
+    GenerationManifest.generatorFingerprintFailure().ifPresent(failure -> messager.printMessage(
+        Diagnostic.Kind.WARNING, "Could not fingerprint the processor classes (%s), classes of unchanged specs "
+            .formatted(failure) + "are only regenerated when the processor version changes"));
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return ProcessorOptions.SUPPORTED;
   }
 
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    List<SpecJob<?>> jobs = new ArrayList<>();
     for (Element element : roundEnv.getElementsAnnotatedWith(SwaggerClient.class)) {
       if (element.getKind() != ElementKind.CLASS) {
         messager.printMessage(Diagnostic.Kind.ERROR, "Can only be applied to class.");
         return true;
       }
-      switch (element.getAnnotation(SwaggerClient.class).type()) {
-        case OPENAPI3 -> v3Processor.process(element);
-        case SWAGGER -> v2Processor.process(element);
+      SpecTarget target = SpecTarget.of(element, processingEnv.getElementUtils());
+      jobs.add(switch (target.annotation().type()) {
+        case OPENAPI3 -> new SpecJob<>(target, v3Processor, options.streaming());
+        case SWAGGER -> new SpecJob<>(target, v2Processor, options.streaming());
         default -> throw new UnsupportedOperationException();
-      }
+      });
     }
+    if (jobs.isEmpty()) {
+      return true;
+    }
+
+    fetch(jobs);
+    try (ForkJoinPool generationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors())) {
+      share(jobs, generationPool);
+      generationPool.submit(() -> jobs.parallelStream().forEach(SpecJob::generate)).join();
+    }
+    jobs.forEach(SpecJob::write);
+    String timestamp = Instant.now().toString();
+    jobs.forEach(job -> job.profile(timestamp));
     return true;
   }
 
+  private void fetch(List<SpecJob<?>> jobs) {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<?>> fetches = jobs.stream().<Future<?>>map(job -> executor.submit(job::fetch)).toList();
+      for (Future<?> fetch : fetches) {
+        try {
+          fetch.get();
+        } catch (ExecutionException e) {
+          messager.printMessage(Diagnostic.Kind.ERROR, "Error fetching Swagger API Metadata.");
+          throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException(e);
+        }
+      }
+    }
+    jobs.forEach(SpecJob::report);
+  }
+
+  /**
+   * Plans the models shared by the classes of this round, the schemas of
+   * their specs are compared on the fork-join pool.
+   */
+  private void share(List<SpecJob<?>> jobs, ForkJoinPool generationPool) {
+    if (!options.sharedModels() || jobs.size() < 2) {
+      return;
+    }
+    String packageName = Optional.ofNullable(options.sharedPackage()).orElseGet(() -> sharedPackage(jobs));
+    if (jobs.stream().anyMatch(job -> job.target.packageName().equals(packageName))) {
+      messager.printMessage(Diagnostic.Kind.WARNING,
+          "Not sharing models, %s is the package of a generated client".formatted(packageName));
+      return;
+    }
+    Map<SpecTarget, Map<String, SharedModels.Node>> schemas = new ConcurrentHashMap<>();
+    generationPool.submit(() -> jobs.parallelStream().forEach(job -> schemas.put(job.target, job.schemas())))
+        .join();
+    SharedModels shared = SharedModels.plan(packageName, schemas);
+    jobs.forEach(job -> {
+      job.target = job.target.withShared(shared);
+      if (!shared.names(job.target).isEmpty()) {
+        messager.printMessage(Diagnostic.Kind.NOTE, "%s: sharing %d models in %s".formatted(job.target.name(),
+            shared.names(job.target).size(), packageName));
+      }
+    });
+  }
+
+  /**
+   * {@code generated.shared} within the package common to all classes.
+   */
+  private static String sharedPackage(List<SpecJob<?>> jobs) {
+    List<String> common = null;
+    for (SpecJob<?> job : jobs) {
+      String packageName = job.target.packageName();
+      List<String> segments = List.of(packageName.substring(0, packageName.lastIndexOf(".generated.")).split("\\."));
+      if (common == null) {
+        common = segments;
+      } else {
+        int length = 0;
+        while (length < Math.min(common.size(), segments.size()) && common.get(length).equals(segments.get(length))) {
+          length++;
+        }
+        common = common.subList(0, length);
+      }
+    }
+    String prefix = common == null ? "" : String.join(".", common);
+    return prefix.isEmpty() ? "generated.shared" : prefix + ".generated.shared";
+  }
+
+  /**
+   * State of one annotated class while it passes through the pipeline.
+   */
+  private final class SpecJob<S> {
+    private SpecTarget target;
+    private final AbstractSwaggerProcessor<S> processor;
+    private final boolean streaming;
+    private SpecCache.CachedSpec document;
+    private SpecCache.Loaded<S> loaded;
+    private GenerationResult result;
+    private long fetchNanos;
+    private long schemasNanos;
+
+    private SpecJob(SpecTarget target, AbstractSwaggerProcessor<S> processor, boolean streaming) {
+      this.target = target;
+      this.processor = processor;
+      this.streaming = streaming;
+    }
+
+    /**
+     * Falls back to loading the whole spec when the location can not be cached.
+     */
+    private void fetch() {
+      if (streaming) {
+        long start = System.nanoTime();
+        document = processor.fetchDocument(target);
+        fetchNanos = System.nanoTime() - start;
+      }
+      if (document == null) {
+        loaded = processor.fetch(target);
+      }
+    }
+
+    private void report() {
+      if (document != null) {
+        messager.printMessage(document.reason() == null ? Diagnostic.Kind.NOTE : Diagnostic.Kind.WARNING,
+            "Streaming spec %s (%s)%s".formatted(target.location(), document.status(),
+                document.reason() == null ? "" : ": " + document.reason()));
+      } else {
+        messager.printMessage(loaded.kind(), loaded.message());
+      }
+    }
+
+    private Map<String, SharedModels.Node> schemas() {
+      long start = System.nanoTime();
+      try {
+        return document != null ? processor.schemas(document.file()) : processor.schemas(loaded.spec());
+      } finally {
+        schemasNanos = System.nanoTime() - start;
+      }
+    }
+
+    private void generate() {
+      if (document == null) {
+        long start = System.nanoTime();
+        result = processor.generate(target, loaded.spec());
+        result.profile().add(Phase.GENERATE, System.nanoTime() - start);
+        result.profile().add(Phase.FETCH, loaded.fetchNanos());
+        result.profile().add(Phase.PARSE, loaded.parseNanos());
+      }
+    }
+
+    /**
+     * When streaming, reading the entries is timed as parsing, i.e. whatever
+     * was not spent generating or writing.
+     */
+    private void write() {
+      if (document != null) {
+        long start = System.nanoTime();
+        result = processor.stream(target, document.file());
+        GenerationProfile profile = result.profile();
+        profile.add(Phase.FETCH, fetchNanos);
+        profile.add(Phase.PARSE, Math.max(0,
+            System.nanoTime() - start - profile.nanos(Phase.GENERATE) - profile.nanos(Phase.WRITE)));
+      } else {
+        processor.write(result);
+      }
+    }
+
+    private void profile(String timestamp) {
+      GenerationProfile profile = result.profile();
+      profile.add(Phase.PARSE, schemasNanos);
+      messager.printMessage(Diagnostic.Kind.NOTE, "%s: %s".formatted(target.name(), profile.summary()));
+      Path report = options.workDir().resolve("reports").resolve(target.qualifiedName() + ".json");
+      try {
+        Files.createDirectories(report.getParent());
+        REPORT_WRITER.writeValue(report.toFile(), profile.report(target, streaming, timestamp,
+            result.writtenCount(), result.regenerated().size()));
+      } catch (IOException e) {
+        messager.printMessage(Diagnostic.Kind.WARNING, "Could not write processor report %s: %s".formatted(report, e));
+      }
+    }
+  }
+
 }
@@ -0,0 +1,223 @@
+package ex.rr.swaggerparser.annotation.processor.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * GenerationManifest
+ *
+ * Records, per annotated element, the fingerprint of every generation unit
+ * (a schema, the api client, ...) together with the classes generated from
+ * it, so unchanged units can be skipped on the next build.
+ *
+ * Fingerprints are salted with the generator fingerprint and the
+ * annotation settings, so any change to either regenerates everything.
+ */
+public class GenerationManifest {
+
+  private static final String FILES_SUFFIX = ".files";
+  private static String generatorFingerprint;
+  private static String generatorFingerprintFailure;
+
+  private final Path file;
+  private final String salt;
+  private final Properties previous;
+  private final Properties current = new Properties();
+
+  private GenerationManifest(Path file, String salt, Properties previous) {
+    this.file = file;
+    this.salt = salt;
+    this.previous = previous;
+  }
+
+  /**
+   * @param file     manifest location
+   * @param settings generation settings of the annotated element
+   */
+  public static GenerationManifest load(Path file, String settings) {
+    Properties previous = new Properties();
+    if (Files.exists(file)) {
+      try (InputStream in = Files.newInputStream(file)) {
+        previous.load(in);
+      } catch (IOException e) {
+        previous.clear();
+      }
+    }
+    return new GenerationManifest(file, generatorFingerprint() + "|" + settings, previous);
+  }
+
+  /**
+   * Fingerprints the canonical JSON form of {@code inputs}.
+   */
+  public String fingerprint(ObjectMapper mapper, Object... inputs) {
+    MessageDigest digest = sha256();
+    digest.update(salt.getBytes(StandardCharsets.UTF_8));
+    ObjectWriter canonical = mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    try {
+      for (Object input : inputs) {
+        digest.update(canonical.writeValueAsBytes(input));
+        digest.update((byte) '\n');
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Fingerprints already computed fingerprints, e.g. of all operations of a client.
+   */
+  public String combine(Collection<String> fingerprints) {
+    return HexFormat.of().formatHex(sha256().digest(
+        String.join(",", fingerprints).getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Classes generated for {@code unit} by the previous build, provided they
+   * were generated from the same fingerprint.
+   */
+  public Optional<Set<String>> reusableFiles(String unit, String fingerprint) {
+    return fingerprint.equals(previous.getProperty(unit))
+        ? Optional.of(files(previous, unit))
+        : Optional.empty();
+  }
+
+  public void record(String unit, String fingerprint, Collection<String> files) {
+    current.setProperty(unit, fingerprint);
+    current.setProperty(unit + FILES_SUFFIX, String.join(",", new TreeSet<>(files)));
+  }
+
+  /**
+   * Classes of all units recorded by this build so far.
+   */
+  public Set<String> currentFiles() {
+    return units(current).stream()
+        .flatMap(unit -> files(current, unit).stream())
+        .collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  /**
+   * Classes generated by the previous build that are no longer generated.
+   */
+  public Set<String> staleFiles() {
+    Set<String> stale = units(previous).stream()
+        .flatMap(unit -> files(previous, unit).stream())
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    units(current).forEach(unit -> stale.removeAll(files(current, unit)));
+    return stale;
+  }
+
+  public void save() {
+    try {
+      Files.createDirectories(file.getParent());
+      try (OutputStream out = Files.newOutputStream(file)) {
+        current.store(out, null);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Set<String> units(Properties properties) {
+    return properties.stringPropertyNames().stream()
+        .filter(key -> !key.endsWith(FILES_SUFFIX))
+        .collect(Collectors.toSet());
+  }
+
+  private static Set<String> files(Properties properties, String unit) {
+    String files = properties.getProperty(unit + FILES_SUFFIX, "");
+    return files.isEmpty() ? Set.of() : new TreeSet<>(Arrays.asList(files.split(",")));
+  }
+
+  /**
+   * Digest of the generator code itself, so a new processor version never
+   * reuses classes generated by an older one.
+   */
+  static synchronized String generatorFingerprint() {
+    if (generatorFingerprint == null) {
+      generatorFingerprint = computeGeneratorFingerprint();
+    }
+    return generatorFingerprint;
+  }
+
+  /**
+   * Why the generator code could not be digested, when {@link #load} fell
+   * back to fingerprinting the processor version instead.
+   */
+  public static synchronized Optional<String> generatorFingerprintFailure() {
+    generatorFingerprint();
+    return Optional.ofNullable(generatorFingerprintFailure);
+  }
+
+  private static String computeGeneratorFingerprint() {
+    MessageDigest digest = sha256();
+    try {
+      Path source = codeSource();
+      List<Path> files;
+      if (Files.isDirectory(source)) {
+        Path processorClasses = source.resolve("ex/rr/swaggerparser/annotation/processor");
+        try (Stream<Path> walk = Files.walk(processorClasses)) {
+          files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+      } else {
+        files = List.of(source);
+      }
+      for (Path path : files) {
+        digest.update(Files.readAllBytes(path));
+      }
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      generatorFingerprintFailure = e.toString();
+      return versionFingerprint();
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Stable fallback: the implementation version of the processor jar and,
+   * when it can be read, its modification time.
+   */
+  private static String versionFingerprint() {
+    String version = Optional.ofNullable(GenerationManifest.class.getPackage().getImplementationVersion())
+        .orElse("unversioned");
+    try {
+      return "version-" + version + "-" + Files.getLastModifiedTime(codeSource()).toMillis();
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      return "version-" + version;
+    }
+  }
+
+  private static Path codeSource() throws URISyntaxException {
+    return Path.of(GenerationManifest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
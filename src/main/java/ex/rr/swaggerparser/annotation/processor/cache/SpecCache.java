@@ -0,0 +1,364 @@
+package ex.rr.swaggerparser.annotation.processor.cache;
+
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic;
+
+import ex.rr.swaggerparser.annotation.processor.ProcessorOptions;
+
+/**
+ * SpecCache
+ *
+ * Content addressed on-disk cache of spec documents. Raw documents are stored
+ * under {@code blobs/<sha256>}, parsed snapshots under
+ * {@code snapshots/<key>-<type>.json} and the last known validators
+ * (ETag/Last-Modified) of every location under {@code index/}. The snapshot
+ * key covers the location, the document and the local files it references
+ * through {@code $ref}, documents referencing remote files are not
+ * snapshotted.
+ *
+ * @see SpecReader
+ */
+public class SpecCache {
+
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  /** {@code $ref} to another document, JSON or YAML, capturing its path without the fragment. */
+  private static final Pattern EXTERNAL_REF = Pattern.compile("\\$ref['\"]?\\s*:\\s*['\"]?([^'\"\\s#,}]+)");
+
+  private static final String HASH = "hash";
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+
+  private final Path directory;
+  private final boolean offline;
+  private HttpClient httpClient;
+
+  public SpecCache(ProcessorOptions options) {
+    this.directory = options.cacheDir();
+    this.offline = options.offline();
+  }
+
+  public enum Status {
+    /** Remote document downloaded, either for the first time or because it changed. */
+    FETCHED("fetched"),
+    /** Remote document revalidated with a conditional request. */
+    NOT_MODIFIED("not modified"),
+    /** Remote document unavailable or revalidation disabled, cached copy used. */
+    OFFLINE("offline"),
+    /** Local document, only its contents hash is used. */
+    LOCAL("local file");
+
+    private final String label;
+
+    Status(String label) {
+      this.label = label;
+    }
+  }
+
+  public record CachedSpec(String location, Path file, String hash, Status status, String reason) {
+  }
+
+  /**
+   * @param fetchNanos time spent making the document available
+   * @param parseNanos time spent parsing it or reading its snapshot
+   */
+  public record Loaded<T>(String location, T spec, CachedSpec source, boolean snapshotHit, long fetchNanos,
+      long parseNanos) {
+
+    public Diagnostic.Kind kind() {
+      return nonNull(source) && nonNull(source.reason()) ? Diagnostic.Kind.WARNING : Diagnostic.Kind.NOTE;
+    }
+
+    public String message() {
+      if (source == null) {
+        return "Spec cache bypassed for %s (location can not be cached)".formatted(location);
+      }
+      String message = "Spec cache %s for %s (%s)".formatted(snapshotHit ? "hit" : "miss", location,
+          source.status().label);
+      return nonNull(source.reason()) ? message + ": " + source.reason() : message;
+    }
+  }
+
+  /**
+   * Loads and parses the spec at {@code location}, reusing the parsed snapshot
+   * when the document contents did not change since the last build.
+   */
+  public <T> Loaded<T> load(String location, SpecReader<T> reader) {
+    try {
+      long start = System.nanoTime();
+      CachedSpec source = fetch(location);
+      long fetched = System.nanoTime();
+      if (source == null) {
+        T spec = reader.readLocation(location);
+        return new Loaded<>(location, spec, null, false, 0, System.nanoTime() - start);
+      }
+
+      String contents = Files.readString(source.file(), StandardCharsets.UTF_8);
+      String key = snapshotKey(source, contents);
+      if (key == null) {
+        T spec = reader.readContents(contents, location);
+        return new Loaded<>(location, spec, source, false, fetched - start, System.nanoTime() - fetched);
+      }
+
+      Path snapshot = directory.resolve("snapshots")
+          .resolve(key + "-" + reader.type().getSimpleName() + ".json");
+      if (Files.exists(snapshot)) {
+        try {
+          T spec = reader.mapper().readValue(snapshot.toFile(), reader.type());
+          return new Loaded<>(location, spec, source, true, fetched - start, System.nanoTime() - fetched);
+        } catch (IOException e) {
+          Files.deleteIfExists(snapshot);
+        }
+      }
+
+      T spec = reader.readContents(contents, location);
+      long parsed = System.nanoTime();
+      if (nonNull(spec)) {
+        writeAtomically(snapshot, out -> reader.mapper().writeValue(out, spec));
+      }
+      return new Loaded<>(location, spec, source, false, fetched - start, parsed - fetched);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error loading spec from " + location, e);
+    }
+  }
+
+  /**
+   * Makes the document at {@code location} available on disk. Remote documents
+   * are revalidated with {@code If-None-Match}/{@code If-Modified-Since} and the
+   * cached copy is used when the remote can not be reached.
+   *
+   * @return cached document or {@code null} when the location can not be cached
+   */
+  public CachedSpec fetch(String location) throws IOException {
+    if (isRemote(location)) {
+      return fetchRemote(location);
+    }
+    Path file = toLocalPath(location);
+    if (file == null || !Files.isRegularFile(file)) {
+      return null;
+    }
+    return new CachedSpec(location, file, hash(file), Status.LOCAL, null);
+  }
+
+  /**
+   * Key of the parsed snapshot of {@code source}: a hash of its location, its
+   * contents and, recursively, the local files it references, so editing a
+   * referenced file invalidates the snapshot.
+   *
+   * @return {@code null} when the document references remote or missing
+   *         files, whose changes the snapshot could not follow
+   */
+  String snapshotKey(CachedSpec source, String contents) throws IOException {
+    MessageDigest digest = sha256();
+    digest.update((source.location() + "\n" + source.hash()).getBytes(StandardCharsets.UTF_8));
+    Path base = source.status() == Status.LOCAL ? source.file().toAbsolutePath().normalize() : null;
+    if (!digestReferences(contents, base, digest, new HashSet<>())) {
+      return null;
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * @param base file relative references resolve against, {@code null} when
+   *             they are remote
+   */
+  private static boolean digestReferences(String contents, Path base, MessageDigest digest, Set<Path> visited)
+      throws IOException {
+    Matcher matcher = EXTERNAL_REF.matcher(contents);
+    while (matcher.find()) {
+      String ref = matcher.group(1);
+      if (base == null || isRemote(ref)) {
+        return false;
+      }
+      Path file;
+      try {
+        file = base.resolveSibling(ref).normalize();
+      } catch (InvalidPathException e) {
+        return false;
+      }
+      if (!Files.isRegularFile(file)) {
+        return false;
+      }
+      if (visited.add(file)) {
+        digest.update(("\n" + file + "\n" + hash(file)).getBytes(StandardCharsets.UTF_8));
+        if (!digestReferences(Files.readString(file, StandardCharsets.UTF_8), file, digest, visited)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private CachedSpec fetchRemote(String location) throws IOException {
+    Path indexFile = directory.resolve("index").resolve(sha256Hex(location) + ".properties");
+    Properties entry = readProperties(indexFile);
+    String cachedHash = entry.getProperty(HASH);
+    Path cachedFile = nonNull(cachedHash) ? blob(cachedHash) : null;
+    boolean hasCopy = nonNull(cachedFile) && Files.exists(cachedFile);
+
+    if (offline && hasCopy) {
+      return new CachedSpec(location, cachedFile, cachedHash, Status.OFFLINE, null);
+    }
+
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(location))
+        .timeout(REQUEST_TIMEOUT)
+        .GET();
+    if (hasCopy) {
+      if (nonNull(entry.getProperty(ETAG))) {
+        request.header("If-None-Match", entry.getProperty(ETAG));
+      }
+      if (nonNull(entry.getProperty(LAST_MODIFIED))) {
+        request.header("If-Modified-Since", entry.getProperty(LAST_MODIFIED));
+      }
+    }
+
+    try {
+      HttpResponse<InputStream> response = httpClient().send(request.build(), BodyHandlers.ofInputStream());
+      try (InputStream body = response.body()) {
+        if (response.statusCode() == 304 && hasCopy) {
+          return new CachedSpec(location, cachedFile, cachedHash, Status.NOT_MODIFIED, null);
+        }
+        if (response.statusCode() / 100 != 2) {
+          throw new IOException("HTTP " + response.statusCode());
+        }
+        String hash = store(body);
+
+        Properties updated = new Properties();
+        updated.setProperty("location", location);
+        updated.setProperty(HASH, hash);
+        response.headers().firstValue("ETag").ifPresent(v -> updated.setProperty(ETAG, v));
+        response.headers().firstValue("Last-Modified").ifPresent(v -> updated.setProperty(LAST_MODIFIED, v));
+        writeAtomically(indexFile, out -> updated.store(out, null));
+
+        return new CachedSpec(location, blob(hash), hash, Status.FETCHED, null);
+      }
+    } catch (IOException e) {
+      if (hasCopy) {
+        return new CachedSpec(location, cachedFile, cachedHash, Status.OFFLINE,
+            "could not revalidate, " + e);
+      }
+      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while fetching " + location, e);
+    }
+  }
+
+  private String store(InputStream body) throws IOException {
+    Path blobs = directory.resolve("blobs");
+    Files.createDirectories(blobs);
+    Path tmp = Files.createTempFile(blobs, "spec", ".tmp");
+    try {
+      MessageDigest digest = sha256();
+      try (InputStream in = new DigestInputStream(body, digest)) {
+        Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+      }
+      String hash = HexFormat.of().formatHex(digest.digest());
+      Files.move(tmp, blob(hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return hash;
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private Path blob(String hash) {
+    return directory.resolve("blobs").resolve(hash);
+  }
+
+  private synchronized HttpClient httpClient() {
+    if (httpClient == null) {
+      httpClient = HttpClient.newBuilder()
+          .connectTimeout(CONNECT_TIMEOUT)
+          .followRedirects(HttpClient.Redirect.NORMAL)
+          .build();
+    }
+    return httpClient;
+  }
+
+  private interface ContentWriter {
+    void write(OutputStream out) throws IOException;
+  }
+
+  private static void writeAtomically(Path target, ContentWriter writer) throws IOException {
+    Files.createDirectories(target.getParent());
+    Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        writer.write(out);
+      }
+      Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static Properties readProperties(Path file) throws IOException {
+    Properties properties = new Properties();
+    if (Files.exists(file)) {
+      try (InputStream in = Files.newInputStream(file)) {
+        properties.load(in);
+      }
+    }
+    return properties;
+  }
+
+  private static boolean isRemote(String location) {
+    String lower = location.toLowerCase();
+    return lower.startsWith("http://") || lower.startsWith("https://");
+  }
+
+  private static Path toLocalPath(String location) {
+    try {
+      return location.startsWith("file:") ? Path.of(URI.create(location)) : Path.of(location);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static String hash(Path file) throws IOException {
+    MessageDigest digest = sha256();
+    try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static String sha256Hex(String value) {
+    return HexFormat.of().formatHex(sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package ex.rr.swaggerparser.annotation.processor.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * SpecReader
+ *
+ * Parses one flavour of spec document and (de)serializes its parsed
+ * snapshot for {@link SpecCache}.
+ */
+public interface SpecReader<T> {
+
+  Class<T> type();
+
+  /** Mapper able to round-trip {@link #type()} as a snapshot. */
+  ObjectMapper mapper();
+
+  /** Parses already fetched contents, resolving relative refs against {@code location}. */
+  T readContents(String contents, String location);
+
+  /** Parses the location directly, used when it can not be cached. */
+  T readLocation(String location);
+}
@@ -0,0 +1,130 @@
+package ex.rr.swaggerparser.annotation.processor.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+/**
+ * SpecStreamReader
+ *
+ * Reads a JSON or YAML spec document with Jackson's streaming parser so only
+ * a single entry of its large sections ({@code definitions},
+ * {@code components/schemas}, {@code paths}) is held in memory at a time.
+ * Each call makes its own pass over the document; sections are addressed by
+ * JSON pointers like {@code /components/schemas}.
+ */
+public class SpecStreamReader {
+
+  private final Path document;
+  private final ObjectMapper mapper;
+
+  private SpecStreamReader(Path document, ObjectMapper mapper) {
+    this.document = document;
+    this.mapper = mapper;
+  }
+
+  /**
+   * Receives one entry of a section, e.g. a single definition.
+   */
+  public interface EntryConsumer {
+    void accept(String name, ObjectNode entry) throws IOException;
+  }
+
+  public static SpecStreamReader open(Path document) throws IOException {
+    return new SpecStreamReader(document, isJson(document) ? new ObjectMapper() : new ObjectMapper(new YAMLFactory()));
+  }
+
+  /**
+   * Reads the whole document except the {@code skipped} sections.
+   */
+  public ObjectNode readHeader(String... skipped) throws IOException {
+    try (JsonParser parser = openRoot()) {
+      return readObject(parser, "", Set.of(skipped));
+    }
+  }
+
+  /**
+   * Passes every object entry of the section at {@code pointer} to
+   * {@code consumer}, in document order. Does nothing when the section is
+   * missing.
+   */
+  public void forEachEntry(String pointer, EntryConsumer consumer) throws IOException {
+    try (JsonParser parser = openRoot()) {
+      for (String field : pointer.substring(1).split("/")) {
+        if (!seek(parser, field)) {
+          return;
+        }
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        if (parser.nextToken() == JsonToken.START_OBJECT) {
+          consumer.accept(name, parser.readValueAsTree());
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private JsonParser openRoot() throws IOException {
+    JsonParser parser = mapper.createParser(document.toFile());
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      parser.close();
+      throw new IOException("Expected an object at the root of " + document);
+    }
+    return parser;
+  }
+
+  private ObjectNode readObject(JsonParser parser, String pointer, Set<String> skipped) throws IOException {
+    ObjectNode node = mapper.createObjectNode();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      String child = pointer + "/" + name;
+      JsonToken token = parser.nextToken();
+      if (skipped.contains(child)) {
+        parser.skipChildren();
+      } else if (token == JsonToken.START_OBJECT && skipped.stream().anyMatch(s -> s.startsWith(child + "/"))) {
+        node.set(name, readObject(parser, child, skipped));
+      } else {
+        node.set(name, parser.<JsonNode>readValueAsTree());
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Advances to the object value of {@code field} within the current object.
+   */
+  private static boolean seek(JsonParser parser, String field) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      JsonToken token = parser.nextToken();
+      if (name.equals(field)) {
+        return token == JsonToken.START_OBJECT;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  private static boolean isJson(Path document) throws IOException {
+    try (InputStream in = Files.newInputStream(document)) {
+      int c;
+      while ((c = in.read()) != -1) {
+        if (!Character.isWhitespace(c) && c != 0xEF && c != 0xBB && c != 0xBF) {
+          return c == '{';
+        }
+      }
+      return false;
+    }
+  }
+}
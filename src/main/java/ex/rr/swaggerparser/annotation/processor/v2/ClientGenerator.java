@@ -1,24 +1,42 @@
 package ex.rr.swaggerparser.annotation.processor.v2;
 
+import static java.util.Objects.nonNull;
+
+import java.math.BigInteger;
 import java.net.URI;
-import java.util.Collection;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import javax.lang.model.element.Element;
+import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Modifier;
 
-import org.apache.commons.lang3.reflect.TypeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.palantir.javapoet.AnnotationSpec;
 import com.palantir.javapoet.ClassName;
 import com.palantir.javapoet.CodeBlock;
@@ -29,174 +47,656 @@ import com.palantir.javapoet.ParameterizedTypeName;
 import com.palantir.javapoet.TypeName;
 import com.palantir.javapoet.TypeSpec;
 
+import ex.rr.swaggerparser.annotation.ModelStyle;
+import ex.rr.swaggerparser.annotation.processor.RuntimeHintsGenerator;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
 import ex.rr.swaggerparser.apiclient.ApiClient;
-import io.swagger.models.ArrayModel;
+import ex.rr.swaggerparser.apiclient.ApiUris;
+import ex.rr.swaggerparser.apiclient.AsyncApiClient;
+import ex.rr.swaggerparser.apiclient.BatchLoader;
 import io.swagger.models.HttpMethod;
 import io.swagger.models.Model;
 import io.swagger.models.Operation;
+import io.swagger.models.Path;
 import io.swagger.models.Response;
+import io.swagger.models.Scheme;
 import io.swagger.models.Swagger;
 import io.swagger.models.parameters.BodyParameter;
+import io.swagger.models.parameters.CookieParameter;
 import io.swagger.models.parameters.FormParameter;
 import io.swagger.models.parameters.HeaderParameter;
 import io.swagger.models.parameters.Parameter;
 import io.swagger.models.parameters.PathParameter;
 import io.swagger.models.parameters.QueryParameter;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.BooleanProperty;
+import io.swagger.models.properties.DateProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.DecimalProperty;
+import io.swagger.models.properties.FloatProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.Property;
 import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.models.properties.UUIDProperty;
+import io.swagger.models.utils.PropertyModelConverter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * ClientGenerator
  * 
+ * Generates the client from spec independent {@link Endpoint}s, Swagger 2
+ * paths are converted by {@link #addPath}.
+ *
  * @see ApiClient
+ * @see AsyncApiClient
  */
 public class ClientGenerator {
 
-  public TypeSpec generateClientDefiinition(Element element, Swagger swagger) {
-    var apiClient = TypeSpec.classBuilder(element.getSimpleName().toString() + "ApiClient");
+  private static final ClassName MONO = ClassName.get("reactor.core.publisher", "Mono");
+  private static final ClassName API_OPERATION = ClassName.get("ex.rr.swaggerparser.apiclient", "ApiOperation");
+  private static final ClassName CACHE_POLICY = ClassName.get("ex.rr.swaggerparser.apiclient", "CachePolicy");
+  static final ClassName JAVA_TYPE_REFERENCE = ClassName.get("ex.rr.swaggerparser.apiclient",
+      "JavaTypeReference");
+  private static final TypeName HEADERS = ParameterizedTypeName.get(Map.class, String.class, String.class);
+  private static final TypeName STRINGS = ParameterizedTypeName.get(List.class, String.class);
+  private static final Pattern PATH_VARIABLE = Pattern.compile("\\{([^}]+)}");
+  /** Delimiters of the collection formats sending a single query parameter, {@code multi} repeats it. */
+  private static final Map<String, String> COLLECTION_DELIMITERS = Map.of("csv", ",", "ssv", " ", "tsv", "\t",
+      "pipes", "|");
+
+  private enum Variant {
+    BLOCKING(""), ASYNC("Async"), STREAM("Stream");
+
+    private final String suffix;
+
+    Variant(String suffix) {
+      this.suffix = suffix;
+    }
+  }
+
+  /** Where an {@link EndpointParameter} is sent. */
+  public enum In {
+    PATH, QUERY, HEADER, COOKIE, FORM, BODY
+  }
+
+  /**
+   * @param type      type of the method parameter, {@code String} or
+   *                  {@code List<String>} unless it is the body
+   * @param array     whether a query parameter takes multiple values
+   * @param delimiter joining the values of an array query parameter,
+   *                  {@code null} to repeat the parameter instead
+   */
+  public record EndpointParameter(In in, String name, TypeName type, boolean array, String delimiter) {
+  }
+
+  /**
+   * One {@code GET}, {@code POST} or {@code PUT} operation of the client.
+   *
+   * @param returnType response body type, {@link HttpStatus} when there is none
+   * @param consumes   media types of the request body declared by the spec
+   * @param produces   media types of the response declared by the spec
+   */
+  public record Endpoint(String path, HttpMethod method, String operationId, List<EndpointParameter> parameters,
+      TypeName returnType, List<String> consumes, List<String> produces) {
+  }
+
+  /** {@code GET} operation taking a single path parameter. */
+  private record ByIdOperation(String operationId, String parameter, TypeName type) {
+  }
+
+  /** {@code GET} operation taking a single array query parameter. */
+  private record ListOperation(String operationId, String parameter, TypeName elementType) {
+  }
+
+  private SpecTarget target;
+  private TypeSpec.Builder apiClient;
+  private final Map<TypeName, FieldSpec> responseTypes = new HashMap<>();
+  private final Map<String, FieldSpec> apiOperations = new HashMap<>();
+  private Map<String, Set<String>> modelProperties = Map.of();
+  private List<String> defaultConsumes = List.of();
+  private List<String> defaultProduces = List.of();
+  private final List<ByIdOperation> byIdOperations = new ArrayList<>();
+  private final List<ListOperation> listOperations = new ArrayList<>();
+  private StubServerGenerator stubServer;
+
+  public TypeSpec generateClientDefiinition(SpecTarget target, Swagger swagger) {
+    return generateClientDefinitions(target, swagger).get(0);
+  }
+
+  /**
+   * The client of {@code swagger}, see {@link #types()}.
+   */
+  public List<TypeSpec> generateClientDefinitions(SpecTarget target, Swagger swagger) {
+    begin(target, swagger, modelProperties(swagger.getDefinitions()));
+    swagger.getPaths().forEach(this::addPath);
+    return types();
+  }
+
+  /**
+   * Starts the client of {@code swagger} without its paths, which are then
+   * added one at a time with {@link #addPath}.
+   *
+   * @param modelProperties property names by model, see {@link #modelProperties(Map)}
+   */
+  public ClientGenerator begin(SpecTarget target, Swagger swagger, Map<String, Set<String>> modelProperties) {
+    begin(target, defaultScheme(swagger) + "://" + swagger.getHost() + Objects.toString(swagger.getBasePath(), ""),
+        modelProperties);
+    defaultConsumes = Objects.requireNonNullElse(swagger.getConsumes(), List.of());
+    defaultProduces = Objects.requireNonNullElse(swagger.getProduces(), List.of());
+    return this;
+  }
+
+  /**
+   * Starts a client whose endpoints are then added one at a time with
+   * {@link #addEndpoint}.
+   *
+   * @param defaultBaseUrl base URL unless {@code <name>-baseUrl} is configured
+   */
+  public ClientGenerator begin(SpecTarget target, String defaultBaseUrl, Map<String, Set<String>> modelProperties) {
+    this.target = target;
+    this.modelProperties = modelProperties;
+    defaultConsumes = List.of();
+    defaultProduces = List.of();
+    String prefix = target.name().toLowerCase();
+    responseTypes.clear();
+    apiOperations.clear();
+    byIdOperations.clear();
+    listOperations.clear();
+    stubServer = target.annotation().stubServer() ? new StubServerGenerator(target, defaultBaseUrl) : null;
+    apiClient = TypeSpec.classBuilder(target.name() + "ApiClient");
     apiClient.addModifiers(Modifier.PUBLIC);
     apiClient.addAnnotation(Slf4j.class);
     apiClient.addAnnotation(Component.class);
     apiClient.addAnnotation(RequiredArgsConstructor.class);
+    apiClient.addAnnotation(AnnotationSpec.builder(ImportRuntimeHints.class)
+        .addMember("value", "$T.class", RuntimeHintsGenerator.registrar(target)).build());
+    if (target.annotation().lazy()) {
+      apiClient.addAnnotation(Lazy.class);
+    }
 
-    apiClient.addField(FieldSpec.builder(TypeName.get(String.class), "baseUrl", Modifier.PRIVATE)
-        .addAnnotation(AnnotationSpec.builder(Value.class).addMember("value",
-            "\"$L{$L-baseUrl:$L$L}\"", "$", element.getSimpleName().toString().toLowerCase(),
-            swagger.getHost(), swagger.getBasePath()).build())
+    apiClient.addField(FieldSpec.builder(TypeName.get(String.class), "baseUrl", Modifier.PRIVATE).build());
+    apiClient.addField(FieldSpec.builder(HEADERS, "defaultHeaders", Modifier.PRIVATE)
+        .addAnnotation(AnnotationSpec.builder(Value.class)
+            .addMember("value", "\"#{$L{$L-defaultHeaders:{:}}}\"", "$", prefix).build())
         .build());
 
-    apiClient.addField(FieldSpec.builder(ApiClient.class, "apiClient", Modifier.PRIVATE, Modifier.FINAL).build());
+    apiClient.addField(FieldSpec.builder(target.annotation().async() ? AsyncApiClient.class : ApiClient.class,
+        "apiClient", Modifier.PRIVATE, Modifier.FINAL).build());
 
-    swagger.getPaths().forEach((pathName, path) -> {
-      path.getOperationMap().forEach((operationType, operation) -> {
-        switch (operationType) {
-          case GET, POST, PUT -> apiClient.addMethod(genDef(pathName, operationType, operation));
-          case PATCH -> {
-          }
-          case DELETE -> {
-          }
-          default -> throw new UnsupportedOperationException();
+    apiClient.addMethod(MethodSpec.methodBuilder("setBaseUrl")
+        .addModifiers(Modifier.PUBLIC)
+        .addAnnotation(AnnotationSpec.builder(Value.class).addMember("value", "\"$L{$L-baseUrl:$L}\"", "$",
+            prefix, defaultBaseUrl).build())
+        .addParameter(String.class, "baseUrl")
+        .addStatement("this.baseUrl = $T.baseUrl(baseUrl)", ApiUris.class)
+        .build());
+    return this;
+  }
+
+  /**
+   * Operations without {@code consumes} or {@code produces} take the ones of
+   * the spec.
+   */
+  public void addPath(String pathName, Path path) {
+    path.getOperationMap().forEach((operationType, operation) -> {
+      switch (operationType) {
+        case GET, POST, PUT -> addEndpoint(new Endpoint(pathName, operationType, operation.getOperationId(),
+            parameters(path, operation).stream().map(this::endpointParameter).filter(Objects::nonNull).toList(),
+            resolveReturnType(operation.getResponses()),
+            Objects.requireNonNullElse(operation.getConsumes(), defaultConsumes),
+            Objects.requireNonNullElse(operation.getProduces(), defaultProduces)));
+        case PATCH -> {
+        }
+        case DELETE -> {
         }
-      });
+        default -> throw new UnsupportedOperationException();
+      }
     });
+  }
 
+  public void addEndpoint(Endpoint endpoint) {
+    addWithDefaultHeaders(genDef(endpoint, Variant.BLOCKING));
+    if (target.annotation().async()) {
+      var asyncMethod = genDef(endpoint, Variant.ASYNC);
+      addWithDefaultHeaders(asyncMethod);
+      if (target.reactive()) {
+        addWithDefaultHeaders(genMonoDef(endpoint, asyncMethod));
+      }
+    }
+    if (target.annotation().streams() && endpoint.method() == HttpMethod.GET
+        && elementType(endpoint.returnType()) != null) {
+      addWithDefaultHeaders(genDef(endpoint, Variant.STREAM));
+    }
+    if (target.annotation().batching() && endpoint.method() == HttpMethod.GET) {
+      collectBatchOperation(endpoint);
+    }
+    if (stubServer != null) {
+      stubServer.addEndpoint(endpoint);
+    }
+  }
+
+  public TypeSpec build() {
+    if (!byIdOperations.isEmpty()) {
+      addBatchLoaders();
+    }
     return apiClient.build();
   }
 
-  private MethodSpec genDef(String pathName, HttpMethod method, Operation operation) {
-
-    var methodSpec = MethodSpec.methodBuilder(operation.getOperationId()).addModifiers(Modifier.PUBLIC)
-        .returns(resolveReturnType(operation.getResponses().values()));
-
-    var methodBody = CodeBlock.builder()
-        .add("return apiClient.$L(", method.name().toLowerCase());
-    methodBody.add("""
-        $T.newInstance().uri($T.create(baseUrl)).path(\"$L\")
-        """,
-        UriComponentsBuilder.class, URI.class, pathName);
-
-    var paramMaps = CodeBlock.builder();
-
-    if (hasQueryParams.test(operation.getParameters())) {
-      paramMaps
-          .addStatement("$T queryParams = new $T<>()",
-              ParameterizedTypeName.get(MultiValueMap.class, String.class, String.class),
-              LinkedMultiValueMap.class);
-      methodBody.add(".queryParams(queryParams)");
-    }
-    methodBody.add(".build()");
-
-    if (hasPathParams.test(operation.getParameters())) {
-      paramMaps
-          .addStatement("$T pathParams = new $T<>()",
-              ParameterizedTypeName.get(Map.class, String.class, String.class),
-              HashMap.class);
-      methodBody.add(".expand(pathParams)");
-    }
-    methodBody.add(".toUri()");
-
-    operation.getParameters()
-        .forEach(param -> {
-          switch (param) {
-            case PathParameter p -> {
-              var field = ParameterSpec.builder(ClassName.get(String.class), param.getName()).build();
-              methodSpec.addParameter(field);
-              paramMaps.addStatement("pathParams.put(\"$1L\", $1L)", param.getName());
-
-            }
-            case BodyParameter p -> {
-              var field = ParameterSpec.builder(getParamClass(p), param.getName()).build();
-              methodSpec.addParameter(field);
-              methodBody.add(", $L", field.name());
-            }
-            case QueryParameter p -> {
-            }
-            case FormParameter p -> {
-            }
-            case HeaderParameter p -> {
-            }
-            default -> {
-            }
-          }
-          ;
+  /**
+   * The client, followed by its stub server with {@code stubServer = true}.
+   */
+  public List<TypeSpec> types() {
+    TypeSpec client = build();
+    return stubServer == null ? List.of(client) : List.of(client, stubServer.build());
+  }
+
+  /**
+   * Property names by model, only used to find the ids of batch loaded models.
+   */
+  public static Map<String, Set<String>> modelProperties(Map<String, Model> definitions) {
+    Map<String, Set<String>> properties = new TreeMap<>();
+    if (definitions != null) {
+      definitions.forEach((name, model) -> properties.put(name, model.getProperties() == null ? Set.of()
+          : new TreeSet<>(model.getProperties().keySet())));
+    }
+    return properties;
+  }
+
+  private void collectBatchOperation(Endpoint endpoint) {
+    List<EndpointParameter> arguments = endpoint.parameters().stream().filter(p -> p.in() != In.HEADER).toList();
+    if (arguments.size() != 1) {
+      return;
+    }
+    EndpointParameter argument = arguments.get(0);
+    TypeName returnType = endpoint.returnType();
+    if (argument.in() == In.PATH && PATH_VARIABLE.matcher(endpoint.path()).results().count() == 1
+        && !returnType.equals(ClassName.get(HttpStatus.class))) {
+      byIdOperations.add(new ByIdOperation(endpoint.operationId(), argument.name(), returnType));
+    } else if (argument.in() == In.QUERY && argument.array() && elementType(returnType) != null) {
+      listOperations.add(new ListOperation(endpoint.operationId(), argument.name(), elementType(returnType)));
+    }
+  }
+
+  /**
+   * Adds a {@link BatchLoader} per by-id operation, batching through a list
+   * operation of the same model whose parameter is named after the id (e.g.
+   * {@code petId}, {@code petIds} or {@code ids}) when there is one. The
+   * window and batch size are configured by {@code <name>-batchWindow} and
+   * {@code <name>-batchSize}.
+   */
+  private void addBatchLoaders() {
+    String prefix = target.name().toLowerCase();
+    var configure = MethodSpec.methodBuilder("configureBatchLoaders")
+        .addAnnotation(Autowired.class)
+        .addParameter(ParameterSpec.builder(Duration.class, "batchWindow")
+            .addAnnotation(AnnotationSpec.builder(Value.class)
+                .addMember("value", "\"$L{$L-batchWindow:2ms}\"", "$", prefix).build())
+            .build())
+        .addParameter(ParameterSpec.builder(TypeName.INT, "batchSize")
+            .addAnnotation(AnnotationSpec.builder(Value.class)
+                .addMember("value", "\"$L{$L-batchSize:100}\"", "$", prefix).build())
+            .build());
+
+    byIdOperations.forEach(operation -> {
+      String loader = operation.operationId() + "Loader";
+      String parameter = javaName(operation.parameter());
+      apiClient.addField(ParameterizedTypeName.get(ClassName.get(BatchLoader.class), ClassName.get(String.class),
+          operation.type()), loader, Modifier.PRIVATE);
+      configure.addStatement("$L = new $T<>(this::$L, $L, batchWindow, batchSize)", loader, BatchLoader.class,
+          operation.operationId(), loadAll(operation));
+
+      apiClient.addMethod(MethodSpec.methodBuilder(operation.operationId() + "Batched")
+          .addModifiers(Modifier.PUBLIC)
+          .returns(operation.type())
+          .addParameter(String.class, parameter)
+          .addStatement("return $L.get($L)", loader, parameter)
+          .build());
+      if (target.annotation().async()) {
+        apiClient.addMethod(MethodSpec.methodBuilder(operation.operationId() + "BatchedAsync")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), operation.type()))
+            .addParameter(String.class, parameter)
+            .addStatement("return $L.load($L)", loader, parameter)
+            .build());
+      }
+    });
+    apiClient.addMethod(configure.build());
+  }
+
+  private CodeBlock loadAll(ByIdOperation operation) {
+    if (!(operation.type() instanceof ClassName model)) {
+      return CodeBlock.of("null");
+    }
+    Set<String> properties = modelProperties.getOrDefault(model.simpleName(), Set.of());
+    String id = properties.contains(operation.parameter()) ? operation.parameter()
+        : properties.contains("id") ? "id" : null;
+    String name = operation.parameter().toLowerCase();
+    Set<String> names = Stream.of(name, name + "s", "id", "ids").collect(Collectors.toSet());
+    return listOperations.stream()
+        .filter(list -> id != null && list.elementType().equals(model)
+            && names.contains(list.parameter().toLowerCase()))
+        .findFirst()
+        .map(list -> CodeBlock.of("ids -> $T.index($L(ids), v -> $T.valueOf(v.$L()))", BatchLoader.class,
+            list.operationId(), String.class, target.annotation().modelStyle() == ModelStyle.RECORD ? id
+                : "get" + StringUtils.capitalize(id)))
+        .orElse(CodeBlock.of("null"));
+  }
+
+  /**
+   * Adds {@code method} along with an overload sending the client's default
+   * headers.
+   */
+  private void addWithDefaultHeaders(MethodSpec method) {
+    apiClient.addMethod(method);
+    var parameters = method.parameters().subList(0, method.parameters().size() - 1);
+    apiClient.addMethod(MethodSpec.methodBuilder(method.name()).addModifiers(Modifier.PUBLIC)
+        .returns(method.returnType())
+        .addParameters(parameters)
+        .addStatement("return $N($L)", method, parameters.stream()
+            .map(ParameterSpec::name).collect(Collectors.joining(", ", "", parameters.isEmpty() ? "defaultHeaders"
+                : ", defaultHeaders")))
+        .build());
+  }
+
+  /**
+   * @param variant {@link AsyncApiClient} variant returning a
+   *                {@link CompletableFuture}, or the {@code Stream} of the
+   *                elements of an array response
+   */
+  private MethodSpec genDef(Endpoint endpoint, Variant variant) {
+    String pathName = endpoint.path();
+    TypeName returnType = endpoint.returnType();
+    FieldSpec responseType = responseType(variant == Variant.STREAM ? elementType(returnType) : returnType);
+    FieldSpec apiOperation = apiOperation(endpoint);
+    String suffix = variant.suffix;
+
+    var methodSpec = MethodSpec.methodBuilder(endpoint.operationId() + suffix).addModifiers(Modifier.PUBLIC)
+        .returns(switch (variant) {
+          case BLOCKING -> returnType;
+          case ASYNC -> ParameterizedTypeName.get(ClassName.get(CompletableFuture.class), returnType);
+          case STREAM -> ParameterizedTypeName.get(ClassName.get(Stream.class), elementType(returnType));
         });
 
-    if (hasFormParams.test(operation.getParameters())) {
-      methodBody.add(", formData");
+    var arguments = CodeBlock.builder();
+    var query = CodeBlock.builder();
+    Set<String> pathVariables = new HashSet<>();
+
+    endpoint.parameters().forEach(param -> {
+      switch (param.in()) {
+        case PATH -> {
+          methodSpec.addParameter(param.type(), javaName(param.name()));
+          pathVariables.add(param.name());
+        }
+        case BODY -> {
+          var field = ParameterSpec.builder(param.type(), javaName(param.name())).build();
+          methodSpec.addParameter(field);
+          arguments.add(", $N", field);
+        }
+        case QUERY -> {
+          String name = javaName(param.name());
+          methodSpec.addParameter(param.type(), name);
+          if (param.array() && param.delimiter() != null) {
+            query.addStatement("$T.query(uri, $S, $L, $S)", ApiUris.class, param.name(), name, param.delimiter());
+          } else {
+            query.addStatement("$T.query(uri, $S, $L)", ApiUris.class, param.name(), name);
+          }
+        }
+        case HEADER, COOKIE, FORM -> {
+        }
+      }
+    });
+
+    var uri = CodeBlock.builder().add("baseUrl");
+    Matcher variable = PATH_VARIABLE.matcher(pathName);
+    int literalStart = 0;
+    while (variable.find()) {
+      if (variable.start() > literalStart) {
+        uri.add(" + $S", pathName.substring(literalStart, variable.start()));
+      }
+      if (pathVariables.add(variable.group(1))) {
+        methodSpec.addParameter(String.class, javaName(variable.group(1)));
+      }
+      uri.add(" + $T.encodePath($L)", ApiUris.class, javaName(variable.group(1)));
+      literalStart = variable.end();
+    }
+    if (literalStart < pathName.length()) {
+      uri.add(" + $S", pathName.substring(literalStart));
+    }
+
+    if (endpoint.parameters().stream().anyMatch(p -> p.in() == In.FORM)) {
+      arguments.add(", formData");
       methodSpec.addParameter(ParameterSpec
           .builder(ParameterizedTypeName.get(Map.class, String.class, Object.class), "formData").build());
     }
+    methodSpec.addParameter(ParameterSpec.builder(HEADERS, "headers").build());
 
-    methodBody.addStatement(", headers, new $T<$L>(){})", TypeReference.class,
-        resolveReturnType(operation.getResponses().values()));
-
-    methodSpec.addParameter(ParameterSpec
-        .builder(ParameterizedTypeName.get(Map.class, String.class, String.class), "headers").build());
-    paramMaps.add("\n");
-    methodSpec.addCode(paramMaps.build());
-    methodSpec.addCode(methodBody.build());
+    String call = endpoint.method().name().toLowerCase() + suffix;
+    if (query.isEmpty()) {
+      methodSpec.addStatement("return apiClient.$L($T.create($L)$L, headers, $N, $N)", call, URI.class,
+          uri.build(), arguments.build(), responseType, apiOperation);
+    } else {
+      methodSpec.addStatement("var uri = new $T($L)", StringBuilder.class, uri.build());
+      methodSpec.addCode(query.build());
+      methodSpec.addStatement("return apiClient.$L($T.create(uri.toString())$L, headers, $N, $N)", call,
+          URI.class, arguments.build(), responseType, apiOperation);
+    }
     return methodSpec.build();
   }
 
-  private TypeName getParamClass(BodyParameter p) {
+  /**
+   * {@code Mono} variant deferring to {@code asyncMethod} until subscribed.
+   */
+  private MethodSpec genMonoDef(Endpoint endpoint, MethodSpec asyncMethod) {
+    TypeName returnType = ((ParameterizedTypeName) asyncMethod.returnType()).typeArguments().get(0);
+    return MethodSpec.methodBuilder(endpoint.operationId() + "Mono").addModifiers(Modifier.PUBLIC)
+        .returns(ParameterizedTypeName.get(MONO, returnType))
+        .addParameters(asyncMethod.parameters())
+        .addStatement("return $T.fromFuture(() -> $N($L))", MONO, asyncMethod, asyncMethod.parameters().stream()
+            .map(ParameterSpec::name).collect(Collectors.joining(", ")))
+        .build();
+  }
 
-    return switch (p.getSchema()) {
-      case ArrayModel m -> {
-        yield ParameterizedTypeName.get(ClassName.get("java.util", "List"), ClassName.get("", resolveModelRef(m)));
-      }
-      default -> ClassName.get("", resolveModelRef(p.getSchema()));
+  /**
+   * Operation parameters followed by the ones declared on the path which the
+   * operation does not override.
+   */
+  private static List<Parameter> parameters(Path path, Operation operation) {
+    List<Parameter> parameters = new ArrayList<>(operation.getParameters());
+    if (path.getParameters() != null) {
+      path.getParameters().stream()
+          .filter(p -> parameters.stream().noneMatch(o -> o.getIn().equals(p.getIn()) && o.getName().equals(p.getName())))
+          .forEach(parameters::add);
+    }
+    return parameters;
+  }
+
+  private EndpointParameter endpointParameter(Parameter parameter) {
+    return switch (parameter) {
+      case PathParameter p -> new EndpointParameter(In.PATH, p.getName(), ClassName.get(String.class), false, null);
+      case BodyParameter p -> new EndpointParameter(In.BODY, p.getName(), modelType(p.getSchema()), false, null);
+      case QueryParameter p when "array".equals(p.getType()) -> new EndpointParameter(In.QUERY, p.getName(), STRINGS,
+          true, COLLECTION_DELIMITERS.get(Objects.toString(p.getCollectionFormat(), "csv")));
+      case QueryParameter p -> new EndpointParameter(In.QUERY, p.getName(), ClassName.get(String.class), false, null);
+      case FormParameter p -> new EndpointParameter(In.FORM, p.getName(), ClassName.get(String.class), false, null);
+      case HeaderParameter p -> new EndpointParameter(In.HEADER, p.getName(), ClassName.get(String.class), false, null);
+      case CookieParameter p -> new EndpointParameter(In.COOKIE, p.getName(), ClassName.get(String.class), false, null);
+      default -> null;
     };
   }
 
-  private ClassName resolveReturnType(Collection<Response> responses) {
-    return responses.stream()
-        .filter(r -> Objects.nonNull(r.getResponseSchema()) && Objects.nonNull(r.getResponseSchema().getReference()))
-        .findFirst()
-        .map(r -> ClassName.get("", resolveReferenceClassName(r.getResponseSchema().getReference())))
-        .orElse(ClassName.get(HttpStatus.class));
+  private static String defaultScheme(Swagger swagger) {
+    List<Scheme> schemes = swagger.getSchemes();
+    if (schemes == null || schemes.isEmpty() || schemes.contains(Scheme.HTTPS)) {
+      return "https";
+    }
+    return schemes.get(0).toValue();
+  }
+
+  /**
+   * Parameter name usable as Java identifier, e.g. {@code api_key} stays,
+   * {@code X-Request-Id} becomes {@code xRequestId}.
+   */
+  private static String javaName(String name) {
+    StringBuilder out = new StringBuilder();
+    boolean upper = false;
+    for (char c : name.toCharArray()) {
+      if (Character.isJavaIdentifierPart(c)) {
+        out.append(upper ? Character.toUpperCase(c) : out.isEmpty() ? Character.toLowerCase(c) : c);
+        upper = false;
+      } else {
+        upper = !out.isEmpty();
+      }
+    }
+    String javaName = out.isEmpty() || !Character.isJavaIdentifierStart(out.charAt(0)) ? "_" + out : out.toString();
+    return SourceVersion.isKeyword(javaName) ? javaName + "_" : javaName;
+  }
+
+  /**
+   * Constant holding the resolved response type, shared by all operations
+   * returning {@code type}, so it is created once instead of on every call.
+   */
+  private FieldSpec responseType(TypeName type) {
+    return responseTypes.computeIfAbsent(type, t -> {
+      var field = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(TypeReference.class), t),
+          constantName(t) + "_TYPE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+          .initializer(typeReference(t))
+          .build();
+      apiClient.addField(field);
+      return field;
+    });
+  }
+
+  /**
+   * Constant describing {@code operation} to the {@link ApiClient}, shared by
+   * all its variants.
+   */
+  private FieldSpec apiOperation(Endpoint endpoint) {
+    HttpMethod method = endpoint.method();
+    return apiOperations.computeIfAbsent(endpoint.operationId(), id -> {
+      var initializer = CodeBlock.builder()
+          .add("$T.builder()", API_OPERATION)
+          .add("\n$>$>.client($S)", target.name().toLowerCase())
+          .add("\n.id($S)", id)
+          .add("\n.method($S)", method.name())
+          .add("\n.path($S)", endpoint.path());
+      if (!endpoint.consumes().isEmpty()) {
+        initializer.add("\n.consumes($L)", mediaTypes(endpoint.consumes()));
+      }
+      if (!endpoint.produces().isEmpty()) {
+        initializer.add("\n.produces($L)", mediaTypes(endpoint.produces()));
+      }
+      if (method == HttpMethod.GET) {
+        initializer.add("\n.hedgeable(true)");
+        Arrays.stream(target.annotation().cache())
+            .filter(rule -> rule.operations().length == 0 || Arrays.asList(rule.operations()).contains(id))
+            .findFirst()
+            .ifPresent(rule -> initializer.add("\n.cache($T.of($L, $L$L)$L)", CACHE_POLICY, rule.ttlSeconds(),
+                rule.staleWhileRevalidateSeconds(), Arrays.stream(rule.vary())
+                    .map(header -> CodeBlock.of(", $S", header).toString())
+                    .collect(Collectors.joining()), rule.cachePrivate() ? ".withCachePrivate(true)" : ""));
+      }
+      var field = FieldSpec.builder(API_OPERATION,
+          id.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("\\W", "_").toUpperCase() + "_OPERATION",
+          Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+          .initializer(initializer.add("\n.build()$<$<").build())
+          .build();
+      apiClient.addField(field);
+      return field;
+    });
+  }
+
+  private static CodeBlock mediaTypes(List<String> mediaTypes) {
+    return CodeBlock.of("$T.of($L)", List.class, mediaTypes.stream()
+        .map(mediaType -> CodeBlock.of("$S", mediaType).toString())
+        .collect(Collectors.joining(", ")));
   }
 
-  private String resolveReferenceClassName(String reference) {
-    String[] arr = reference.split("/");
-    return arr[arr.length - 1];
+  /**
+   * {@code JavaTypeReference} of {@code type}, built from its class or from
+   * a {@code TypeFactory} constructed {@code JavaType} rather than an
+   * anonymous {@code TypeReference} subclass per constant.
+   */
+  static CodeBlock typeReference(TypeName type) {
+    return type instanceof ParameterizedTypeName ? CodeBlock.of("$T.of($L)", JAVA_TYPE_REFERENCE, javaType(type))
+        : CodeBlock.of("$T.of($T.class)", JAVA_TYPE_REFERENCE, type.box());
   }
 
-  private String resolveModelRef(Model model) {
-    var ref = switch (model) {
-      case ArrayModel m -> ((RefProperty) m.getItems()).get$ref();
-      default -> model.getReference();
+  /**
+   * {@code List<Pet>} -> {@code TypeFactory.defaultInstance().constructParametricType(List.class, Pet.class)}
+   */
+  static CodeBlock javaType(TypeName type) {
+    if (type instanceof ParameterizedTypeName p) {
+      boolean nested = p.typeArguments().stream().anyMatch(ParameterizedTypeName.class::isInstance);
+      return CodeBlock.of("$T.defaultInstance().constructParametricType($T.class, $L)", TypeFactory.class,
+          p.rawType(), CodeBlock.join(p.typeArguments().stream()
+              .map(argument -> nested ? javaType(argument) : CodeBlock.of("$T.class", argument.box()))
+              .toList(), ", "));
+    }
+    return CodeBlock.of("$T.defaultInstance().constructType($T.class)", TypeFactory.class, type.box());
+  }
+
+  /**
+   * {@code List<Pet>} -> {@code LIST_OF_PET}
+   */
+  static String constantName(TypeName type) {
+    return switch (type) {
+      case ParameterizedTypeName p -> constantName(p.rawType()) + "_OF_" + p.typeArguments().stream()
+          .map(ClientGenerator::constantName).collect(Collectors.joining("_"));
+      case ClassName c -> c.simpleName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+      default -> type.toString().replaceAll("\\W", "_").toUpperCase();
     };
-    String[] arr = ref.split("/");
-    return arr[arr.length - 1];
   }
 
-  private Predicate<Collection<Parameter>> hasPathParams = it -> it.stream()
-      .anyMatch(p -> TypeUtils.isInstance(p, PathParameter.class));
+  /**
+   * Schema of the first successful response, falling back to the default
+   * response. Operations without one return the response status.
+   */
+  private TypeName resolveReturnType(Map<String, Response> responses) {
+    return responses.entrySet().stream()
+        .filter(r -> r.getKey().startsWith("2") || r.getKey().equals("default"))
+        .sorted(Map.Entry.comparingByKey())
+        .map(Map.Entry::getValue)
+        .filter(r -> Objects.nonNull(r.getResponseSchema()))
+        .findFirst()
+        .map(r -> modelType(r.getResponseSchema()))
+        .orElse(ClassName.get(HttpStatus.class));
+  }
+
+  /**
+   * Element type of a {@code List} or {@code Set}, {@code null} otherwise.
+   */
+  private static TypeName elementType(TypeName type) {
+    return type instanceof ParameterizedTypeName p && (p.rawType().equals(ClassName.get(List.class))
+        || p.rawType().equals(ClassName.get(Set.class))) ? p.typeArguments().get(0) : null;
+  }
 
-  private Predicate<Collection<Parameter>> hasQueryParams = it -> it.stream()
-      .anyMatch(p -> TypeUtils.isInstance(p, QueryParameter.class));
+  private TypeName modelType(Model model) {
+    return propertyType(new PropertyModelConverter().modelToProperty(model));
+  }
 
-  private Predicate<Collection<Parameter>> hasFormParams = it -> it.stream()
-      .anyMatch(p -> TypeUtils.isInstance(p, FormParameter.class));
+  private TypeName propertyType(Property property) {
+    return switch (property) {
+      case null -> ClassName.get(Object.class);
+      case RefProperty p -> target.className(p.getSimpleRef());
+      case ArrayProperty p -> ParameterizedTypeName.get(ClassName.get(nonNull(p.getUniqueItems())
+          && p.getUniqueItems() ? Set.class : List.class), propertyType(p.getItems()));
+      case MapProperty p -> ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class),
+          propertyType(p.getAdditionalProperties()));
+      case DateTimeProperty p -> ClassName.get(LocalDateTime.class);
+      case DateProperty p -> ClassName.get(LocalDate.class);
+      case BooleanProperty p -> ClassName.get(Boolean.class);
+      case FloatProperty p -> ClassName.get(Float.class);
+      case DecimalProperty p -> ClassName.get(Double.class);
+      case IntegerProperty p -> "int64".equals(p.getFormat()) ? ClassName.get(BigInteger.class)
+          : ClassName.get(Integer.class);
+      case LongProperty p -> ClassName.get(Long.class);
+      case UUIDProperty p -> ClassName.get(UUID.class);
+      case StringProperty p -> ClassName.get(String.class);
+      default -> ClassName.get(Object.class);
+    };
+  }
 }
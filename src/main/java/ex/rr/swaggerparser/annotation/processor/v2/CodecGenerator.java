@@ -0,0 +1,229 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.lang.model.element.Modifier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+
+/**
+ * CodecGenerator
+ *
+ * Generates {@code <Model>JsonCodec}, a streaming Jackson serializer and
+ * deserializer of a generated model, and the {@code <Name>JsonModule}
+ * registering them. Scalars are read and written directly, anything else
+ * (enums, dates, collections, other models) is delegated to the mapper.
+ *
+ * @see ex.rr.swaggerparser.apiclient.JsonCodecs
+ */
+public class CodecGenerator {
+
+  private static final ClassName JSON_CODECS = ClassName.get("ex.rr.swaggerparser.apiclient", "JsonCodecs");
+  /** Readers of boxed types, primitives are read boxed and default to zero. */
+  private static final Map<TypeName, String> READERS = Map.of(
+      TypeName.get(String.class), "readString",
+      TypeName.get(Integer.class), "readInteger",
+      TypeName.get(Long.class), "readLong",
+      TypeName.get(BigInteger.class), "readBigInteger",
+      TypeName.get(Boolean.class), "readBoolean",
+      TypeName.get(Float.class), "readFloat",
+      TypeName.get(Double.class), "readDouble");
+  private static final Map<TypeName, String> DEFAULTS = Map.of(TypeName.INT, "0", TypeName.LONG, "0L",
+      TypeName.FLOAT, "0F", TypeName.DOUBLE, "0D", TypeName.BOOLEAN, "false");
+
+  private final SpecTarget target;
+
+  public CodecGenerator(SpecTarget target) {
+    this.target = target;
+  }
+
+  public static String codecName(String modelName) {
+    return modelName + "JsonCodec";
+  }
+
+  /**
+   * @param record whether the model is a record, read through its accessors
+   *               rather than getters
+   */
+  public TypeSpec generateCodec(String modelName, boolean record, List<FieldSpec> fields) {
+    ClassName modelType = target.className(modelName);
+    ClassName codecType = target.className(modelName, codecName(modelName));
+    var codec = TypeSpec.classBuilder(codecType)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+    Map<FieldSpec, String> names = new LinkedHashMap<>();
+    Set<String> used = new HashSet<>();
+    for (FieldSpec field : fields) {
+      String name = constantName(field.name());
+      while (!used.add(name)) {
+        name += "_";
+      }
+      names.put(field, name);
+      codec.addField(FieldSpec.builder(SerializedString.class, name, Modifier.PRIVATE, Modifier.STATIC,
+          Modifier.FINAL).initializer("new $T($S)", SerializedString.class, field.name()).build());
+      if (field.type() instanceof ParameterizedTypeName) {
+        codec.addField(FieldSpec.builder(JavaType.class, name + "_TYPE", Modifier.PRIVATE, Modifier.STATIC,
+            Modifier.FINAL).initializer(ClientGenerator.javaType(field.type())).build());
+      }
+    }
+
+    codec.addType(serializer(modelType, record, names));
+    codec.addType(deserializer(modelType, names));
+    return codec.build();
+  }
+
+  /**
+   * Module registering the codecs of all {@code models}, picked up by the
+   * Spring Boot configured {@code ObjectMapper}.
+   */
+  public TypeSpec generateModule(Collection<String> models) {
+    String name = target.name() + "JsonModule";
+    var constructor = MethodSpec.constructorBuilder()
+        .addModifiers(Modifier.PUBLIC)
+        .addStatement("super($S)", name);
+    models.stream().sorted().forEach(model -> {
+      ClassName codec = target.className(model, codecName(model));
+      constructor.addStatement("addSerializer($T.class, new $T())", target.className(model),
+          codec.nestedClass("Serializer"));
+      constructor.addStatement("addDeserializer($T.class, new $T())", target.className(model),
+          codec.nestedClass("Deserializer"));
+    });
+    return TypeSpec.classBuilder(name)
+        .addModifiers(Modifier.PUBLIC)
+        .addAnnotation(Component.class)
+        .superclass(SimpleModule.class)
+        .addMethod(constructor.build())
+        .build();
+  }
+
+  private TypeSpec serializer(ClassName modelType, boolean record, Map<FieldSpec, String> names) {
+    var serialize = MethodSpec.methodBuilder("serialize")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(modelType, "value")
+        .addParameter(JsonGenerator.class, "gen")
+        .addParameter(SerializerProvider.class, "provider")
+        .addException(IOException.class)
+        .addStatement("boolean writeNulls = $T.writeNulls(provider)", JSON_CODECS)
+        .addStatement("gen.writeStartObject(value)");
+    names.forEach((field, name) -> {
+      String getter = record ? field.name() : "get" + StringUtils.capitalize(field.name());
+      CodeBlock write = READERS.containsKey(field.type().box())
+          ? CodeBlock.of("gen.$L(value.$L())", writer(field.type()), getter)
+          : CodeBlock.of("provider.defaultSerializeValue(value.$L(), gen)", getter);
+      if (field.type().isPrimitive()) {
+        serialize.addStatement("gen.writeFieldName($L)", name).addStatement(write);
+      } else {
+        serialize.beginControlFlow("if (value.$L() != null)", getter)
+            .addStatement("gen.writeFieldName($L)", name)
+            .addStatement(write)
+            .nextControlFlow("else if (writeNulls)")
+            .addStatement("gen.writeFieldName($L)", name)
+            .addStatement("gen.writeNull()")
+            .endControlFlow();
+      }
+    });
+    serialize.addStatement("gen.writeEndObject()");
+
+    return TypeSpec.classBuilder("Serializer")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .superclass(ParameterizedTypeName.get(ClassName.get(StdSerializer.class), modelType))
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("super($T.class)", modelType)
+            .build())
+        .addMethod(serialize.build())
+        .build();
+  }
+
+  private TypeSpec deserializer(ClassName modelType, Map<FieldSpec, String> names) {
+    var deserialize = MethodSpec.methodBuilder("deserialize")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(modelType)
+        .addParameter(JsonParser.class, "p")
+        .addParameter(DeserializationContext.class, "ctxt")
+        .addException(IOException.class)
+        .addStatement("$T token = p.currentToken()", JsonToken.class)
+        .beginControlFlow("if (token == $T.START_OBJECT)", JsonToken.class)
+        .addStatement("token = p.nextToken()")
+        .nextControlFlow("else if (token != $T.FIELD_NAME)", JsonToken.class)
+        .addStatement("return ($T) ctxt.handleUnexpectedToken(handledType(), p)", modelType)
+        .endControlFlow()
+        .addStatement("var builder = $T.builder()", modelType)
+        .beginControlFlow("for (; token == $T.FIELD_NAME; token = p.nextToken())", JsonToken.class)
+        .addStatement("String name = p.currentName()")
+        .addStatement("p.nextToken()")
+        .beginControlFlow("switch (name)");
+    names.forEach((field, name) -> deserialize.addStatement("case $S -> builder.$L($L)", field.name(), field.name(),
+        read(field, name)));
+    deserialize.addStatement("default -> ctxt.handleUnknownProperty(p, this, handledType(), name)")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return builder.build()");
+
+    return TypeSpec.classBuilder("Deserializer")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .superclass(ParameterizedTypeName.get(ClassName.get(StdDeserializer.class), modelType))
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("super($T.class)", modelType)
+            .build())
+        .addMethod(deserialize.build())
+        .build();
+  }
+
+  private CodeBlock read(FieldSpec field, String name) {
+    TypeName type = field.type();
+    if (READERS.containsKey(type.box())) {
+      CodeBlock read = CodeBlock.of("$T.$L(p, ctxt)", JSON_CODECS, READERS.get(type.box()));
+      return type.isPrimitive()
+          ? CodeBlock.of("$T.requireNonNullElse($L, $L)", Objects.class, read, DEFAULTS.get(type))
+          : read;
+    }
+    CodeBlock javaType = type instanceof ParameterizedTypeName ? CodeBlock.of("$L_TYPE", name)
+        : CodeBlock.of("$T.class", type);
+    return CodeBlock.of("p.currentToken() == $T.VALUE_NULL ? null : ctxt.readValue(p, $L)", JsonToken.class, javaType);
+  }
+
+  private static String writer(TypeName type) {
+    if (type.equals(TypeName.get(String.class))) {
+      return "writeString";
+    }
+    return type.box().equals(TypeName.get(Boolean.class)) ? "writeBoolean" : "writeNumber";
+  }
+
+  private static String constantName(String name) {
+    return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("\\W", "_").toUpperCase();
+  }
+}
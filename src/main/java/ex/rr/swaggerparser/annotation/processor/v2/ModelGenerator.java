@@ -0,0 +1,237 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import static java.util.Objects.nonNull;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.lang.model.element.Modifier;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.palantir.javapoet.AnnotationSpec;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.ParameterSpec;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.ModelStyle;
+import ex.rr.swaggerparser.annotation.processor.GenerationResult;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import io.swagger.models.Model;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.BooleanProperty;
+import io.swagger.models.properties.DateProperty;
+import io.swagger.models.properties.DateTimeProperty;
+import io.swagger.models.properties.DecimalProperty;
+import io.swagger.models.properties.FloatProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import io.swagger.models.properties.StringProperty;
+import io.swagger.models.properties.UUIDProperty;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * ModelGenerator
+ *
+ * Generates the model class, or record, of a single definition along with the enums of
+ * its properties. A new instance is used per definition, so definitions can
+ * be generated concurrently. OpenAPI 3 models are built from their fields with
+ * {@link #field} and {@link #generateModel}.
+ */
+public class ModelGenerator {
+
+  private static final ClassName LIST = ClassName.get(List.class);
+  private static final ClassName SET = ClassName.get(Set.class);
+  private static final ClassName MAP = ClassName.get(Map.class);
+
+  private final SpecTarget target;
+  private final GenerationResult result;
+  private final String parentName;
+  private final List<TypeSpec> types = new ArrayList<>();
+
+  public ModelGenerator(SpecTarget target, GenerationResult result, String parentName) {
+    this.target = target;
+    this.result = result;
+    this.parentName = parentName;
+  }
+
+  public List<TypeSpec> generateModelDefinitions(Model model) {
+    List<FieldSpec> fields = new ArrayList<>();
+    model.getProperties().forEach((k, v) -> fields.add(field(k, resolveType(v, k), v.getRequired())));
+    return generateModel(fields);
+  }
+
+  /**
+   * Field of property {@code name}, records use primitives for required
+   * properties only, so absent values stay {@code null} otherwise.
+   */
+  public FieldSpec field(String name, TypeName type, boolean required) {
+    var fieldAnnotation = AnnotationSpec.builder(JsonProperty.class).addMember("value", "\"$L\"", name);
+    if (required) {
+      fieldAnnotation.addMember("required", "$L", required);
+    }
+    TypeName fieldType = !records() ? type : required && type.isBoxedPrimitive() ? type.unbox()
+        : required ? type : type.box();
+    return FieldSpec.builder(fieldType, name, Modifier.PRIVATE)
+        .addAnnotation(fieldAnnotation.build())
+        .build();
+  }
+
+  /**
+   * @return generated enums followed by the model class and, with
+   *         {@code codecs} enabled, its {@link CodecGenerator codec}
+   */
+  public List<TypeSpec> generateModel(List<FieldSpec> fields) {
+    TypeSpec modelDef = records() ? generateRecord(fields) : generateClass(fields);
+    types.add(modelDef);
+    if (target.annotation().codecs()) {
+      types.add(new CodecGenerator(target).generateCodec(modelDef.name(), records(), fields));
+    }
+    return types;
+  }
+
+  private TypeSpec generateClass(List<FieldSpec> fields) {
+    return TypeSpec.classBuilder(parentName)
+        .addModifiers(Modifier.PUBLIC)
+        .addSuperinterface(ClassName.get(Serializable.class))
+        .addAnnotation(Data.class)
+        .addAnnotation(Builder.class)
+        .addFields(fields)
+        .build();
+  }
+
+  /**
+   * Components are declared by the canonical constructor, which copies
+   * collections into unmodifiable ones, keeping {@code null} elements.
+   */
+  private TypeSpec generateRecord(List<FieldSpec> fields) {
+    var constructor = MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC);
+    fields.forEach(field -> {
+      constructor.addParameter(ParameterSpec.builder(field.type(), field.name())
+          .addAnnotations(field.annotations())
+          .build());
+      TypeName raw = field.type() instanceof ParameterizedTypeName p ? p.rawType() : field.type();
+      CodeBlock copy = unmodifiableCopy(raw, field);
+      if (copy != null) {
+        constructor.addStatement("this.$N = $N == null ? null : $L", field, field, copy);
+      } else {
+        constructor.addStatement("this.$N = $N", field, field);
+      }
+    });
+    return TypeSpec.recordBuilder(parentName)
+        .addModifiers(Modifier.PUBLIC)
+        .addSuperinterface(ClassName.get(Serializable.class))
+        .addAnnotation(Builder.class)
+        .recordConstructor(constructor.build())
+        .build();
+  }
+
+  /**
+   * Copy of a collection {@code field}, {@code null} for other types. Unlike
+   * {@code List.copyOf} and the like it keeps {@code null} elements, which
+   * responses may hold.
+   */
+  private static CodeBlock unmodifiableCopy(TypeName raw, FieldSpec field) {
+    if (raw.equals(LIST)) {
+      return CodeBlock.of("$T.unmodifiableList(new $T<>($N))", Collections.class, ArrayList.class, field);
+    }
+    if (raw.equals(SET)) {
+      return CodeBlock.of("$T.unmodifiableSet(new $T<>($N))", Collections.class, LinkedHashSet.class, field);
+    }
+    if (raw.equals(MAP)) {
+      return CodeBlock.of("$T.unmodifiableMap(new $T<>($N))", Collections.class, LinkedHashMap.class, field);
+    }
+    return null;
+  }
+
+  private boolean records() {
+    return target.annotation().modelStyle() == ModelStyle.RECORD;
+  }
+
+  private TypeName resolveType(Property property, String name) {
+    return switch (property) {
+
+      case ArrayProperty p -> {
+        if (nonNull(p.getUniqueItems()) && p.getUniqueItems()) {
+          yield ParameterizedTypeName.get(ClassName.get("java.util", "Set"),
+              resolveType(p.getItems(), name));
+        } else {
+          yield ParameterizedTypeName.get(ClassName.get("java.util", "List"),
+              resolveType(p.getItems(), name));
+        }
+      }
+      case RefProperty p -> target.className(resolveReferenceClassName(p));
+      case DateTimeProperty p -> TypeName.get(LocalDateTime.class);
+
+      case BooleanProperty p -> TypeName.get(Boolean.class);
+      case DateProperty p -> TypeName.get(LocalDate.class);
+      case FloatProperty p -> TypeName.FLOAT;
+      case DecimalProperty p -> TypeName.DOUBLE;
+      case IntegerProperty p -> switch (p.getFormat()) {
+        case "int64" -> records() ? TypeName.LONG.box() : TypeName.get(BigInteger.class);
+        case "int32" -> TypeName.get(Integer.class);
+        default -> TypeName.get(Integer.class);
+      };
+      case LongProperty p -> TypeName.LONG;
+      case MapProperty p -> TypeName.get(Map.class); // TODO: fix types
+      case UUIDProperty p -> TypeName.get(UUID.class);
+      case StringProperty p -> {
+        if (CollectionUtils.isNotEmpty(p.getEnum())) {
+          yield generateEnumDefinition(name, p.getEnum());
+        } else {
+          yield TypeName.get(String.class);
+        }
+      }
+      default -> {
+        String format = String.format("%s | %s | %s", property.getName(), property.getFormat(), property.getType());
+        result.error(format);
+        yield TypeName.get(String.class);
+      }
+    };
+  }
+
+  private String resolveReferenceClassName(RefProperty property) {
+    String[] arr = property.get$ref().split("/");
+    return arr[arr.length - 1];
+  }
+
+  /**
+   * Adds the enum of property {@code name}, named after the model and the
+   * property.
+   */
+  public ClassName generateEnumDefinition(String name, Collection<String> values) {
+    String enumName = String.format("%s%s", StringUtils.capitalize(parentName), StringUtils.capitalize(name));
+    types.add(enumDefinition(enumName, values));
+    return target.className(parentName, enumName);
+  }
+
+  public static TypeSpec enumDefinition(String enumName, Collection<String> values) {
+    TypeSpec.Builder enumDef = TypeSpec.enumBuilder(enumName)
+        .addModifiers(Modifier.PUBLIC);
+    values.forEach(v -> enumDef.addEnumConstant(v));
+    return enumDef.build();
+  }
+
+}
@@ -0,0 +1,116 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.lang.model.element.Modifier;
+
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.Endpoint;
+
+/**
+ * StubServerGenerator
+ *
+ * Generates {@code <Name>StubServer}, creating a {@code StubServer} that
+ * answers every operation of the client with a sample of its response type,
+ * under the base path of the spec. Routes are registered by methods of
+ * {@link #ROUTES_PER_METHOD} operations each, so large specs stay within the
+ * method size limit.
+ */
+public class StubServerGenerator {
+
+  private static final ClassName STUB_SERVER = ClassName.get("ex.rr.swaggerparser.apiclient", "StubServer");
+  private static final int ROUTES_PER_METHOD = 200;
+
+  private final String basePath;
+  private final TypeSpec.Builder stubServer;
+  private final Map<TypeName, FieldSpec> responseTypes = new HashMap<>();
+  private final List<CodeBlock> routes = new ArrayList<>();
+
+  /**
+   * @param defaultBaseUrl base URL of the client, its path is the base path
+   *                       of the stub
+   */
+  public StubServerGenerator(SpecTarget target, String defaultBaseUrl) {
+    this.basePath = basePath(defaultBaseUrl);
+    this.stubServer = TypeSpec.classBuilder(target.name() + "StubServer")
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+  }
+
+  public void addEndpoint(Endpoint endpoint) {
+    CodeBlock type = endpoint.returnType().equals(ClassName.get(HttpStatus.class)) ? CodeBlock.of("null")
+        : CodeBlock.of("$N", responseType(endpoint.returnType()));
+    CodeBlock produces = CodeBlock.of("$T.of($L)", List.class, endpoint.produces().stream()
+        .map(mediaType -> CodeBlock.of("$S", mediaType).toString())
+        .collect(Collectors.joining(", ")));
+    routes.add(CodeBlock.of("server.route($S, $S, $L, $L)", endpoint.method().name(), endpoint.path(), type,
+        produces));
+  }
+
+  public TypeSpec build() {
+    var create = MethodSpec.methodBuilder("create")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(STUB_SERVER)
+        .addParameter(STUB_SERVER.nestedClass("Settings"), "settings")
+        .addParameter(ObjectMapper.class, "objectMapper")
+        .addStatement("var server = new $T(settings, objectMapper, $S)", STUB_SERVER, basePath);
+    for (int from = 0; from < routes.size(); from += ROUTES_PER_METHOD) {
+      var addRoutes = MethodSpec.methodBuilder("addRoutes" + from / ROUTES_PER_METHOD)
+          .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+          .addParameter(STUB_SERVER, "server");
+      routes.subList(from, Math.min(from + ROUTES_PER_METHOD, routes.size()))
+          .forEach(route -> addRoutes.addStatement("$L", route));
+      MethodSpec method = addRoutes.build();
+      stubServer.addMethod(method);
+      create.addStatement("$N(server)", method);
+    }
+    create.addStatement("return server");
+
+    return stubServer
+        .addMethod(create.build())
+        .addMethod(MethodSpec.methodBuilder("create")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(STUB_SERVER)
+            .addParameter(STUB_SERVER.nestedClass("Settings"), "settings")
+            .addStatement("return create(settings, new $T().findAndRegisterModules())", ObjectMapper.class)
+            .build())
+        .build();
+  }
+
+  private FieldSpec responseType(TypeName type) {
+    return responseTypes.computeIfAbsent(type, t -> {
+      var field = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(TypeReference.class), t),
+          ClientGenerator.constantName(t) + "_TYPE", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+          .initializer(ClientGenerator.typeReference(t))
+          .build();
+      stubServer.addField(field);
+      return field;
+    });
+  }
+
+  private static String basePath(String baseUrl) {
+    try {
+      String path = URI.create(baseUrl).getPath();
+      return path == null ? "" : path;
+    } catch (IllegalArgumentException e) {
+      return "";
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.swagger.models.Model;
+import io.swagger.models.Path;
+import io.swagger.parser.util.SwaggerDeserializer;
+
+/**
+ * SwaggerEntryDeserializer
+ *
+ * Deserializes single entries of a streamed Swagger 2 document.
+ */
+class SwaggerEntryDeserializer extends SwaggerDeserializer {
+
+  Model definition(String name, ObjectNode entry) {
+    return definition(entry, "definitions." + name, new ParseResult());
+  }
+
+  Path path(String name, ObjectNode entry) {
+    return path(entry, "paths." + name, new ParseResult());
+  }
+}
@@ -1,58 +1,43 @@
 package ex.rr.swaggerparser.annotation.processor.v2;
 
-import static java.util.Objects.nonNull;
-
-import java.io.Serializable;
-import java.math.BigInteger;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.Element;
-import javax.lang.model.element.Modifier;
-
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.palantir.javapoet.AnnotationSpec;
-import com.palantir.javapoet.ClassName;
-import com.palantir.javapoet.FieldSpec;
-import com.palantir.javapoet.ParameterizedTypeName;
-import com.palantir.javapoet.TypeName;
-import com.palantir.javapoet.TypeSpec;
 
-import ex.rr.swaggerparser.annotation.SwaggerClient;
 import ex.rr.swaggerparser.annotation.processor.AbstractSwaggerProcessor;
+import ex.rr.swaggerparser.annotation.processor.GenerationProfile;
+import ex.rr.swaggerparser.annotation.processor.GenerationProfile.Phase;
+import ex.rr.swaggerparser.annotation.processor.GenerationResult;
+import ex.rr.swaggerparser.annotation.processor.SharedModels;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.cache.GenerationManifest;
+import ex.rr.swaggerparser.annotation.processor.cache.SpecReader;
+import ex.rr.swaggerparser.annotation.processor.stream.SpecStreamReader;
 import io.swagger.models.Model;
+import io.swagger.models.Path;
 import io.swagger.models.Swagger;
-import io.swagger.models.properties.ArrayProperty;
-import io.swagger.models.properties.BooleanProperty;
-import io.swagger.models.properties.DateProperty;
-import io.swagger.models.properties.DateTimeProperty;
-import io.swagger.models.properties.DecimalProperty;
-import io.swagger.models.properties.FloatProperty;
-import io.swagger.models.properties.IntegerProperty;
-import io.swagger.models.properties.LongProperty;
-import io.swagger.models.properties.MapProperty;
-import io.swagger.models.properties.Property;
-import io.swagger.models.properties.RefProperty;
-import io.swagger.models.properties.StringProperty;
-import io.swagger.models.properties.UUIDProperty;
-import io.swagger.parser.SwaggerParser;
-import lombok.Builder;
-import lombok.Data;
+import io.swagger.models.parameters.RefParameter;
+import io.swagger.util.Json;
 
 /**
  * SwaggerProcessor
  */
-public class SwaggerProcessor extends AbstractSwaggerProcessor {
+public class SwaggerProcessor extends AbstractSwaggerProcessor<Swagger> {
 
-  private Element element;
-  private String parentName;
+  private static final String CLIENT_UNIT = "client";
+  private static final String CODECS_UNIT = "codecs";
+  private static final String DEFINITIONS = "/definitions";
+  private static final String PATHS = "/paths";
 
   public SwaggerProcessor(ProcessingEnvironment processingEnvironment) {
     super();
@@ -60,93 +45,170 @@ public class SwaggerProcessor extends AbstractSwaggerProcessor {
   }
 
   @Override
-  public void process(Element element) {
-    this.element = element;
-    final String location = element.getAnnotation(SwaggerClient.class).location();
-    Swagger swagger = new SwaggerParser().read(location);
+  protected SpecReader<Swagger> specReader() {
+    return new SwaggerSpecReader();
+  }
+
+  @Override
+  public GenerationResult generate(SpecTarget target, Swagger swagger) {
+    var result = new GenerationResult(target, openManifest(target));
+    result.profile().countSchemas(swagger.getDefinitions().size());
+    swagger.getPaths().values().forEach(path -> result.profile().countOperations(path.getOperations().size()));
+
+    result.addAll(swagger.getDefinitions().entrySet().parallelStream()
+        .filter(definition -> target.generates(definition.getKey()))
+        .map(definition -> generateModelDefinitions(target, result, definition.getKey(), definition.getValue()))
+        .toList());
+    if (target.annotation().codecs()) {
+      result.add(codecModule(target, result, swagger.getDefinitions().keySet()));
+    }
+
+    String clientFingerprint = clientFingerprint(target, result.manifest(), swagger);
+    result.add(reusableFiles(result.manifest(), CLIENT_UNIT, clientFingerprint)
+        .map(files -> GenerationResult.Unit.reused(CLIENT_UNIT, clientFingerprint, files))
+        .orElseGet(() -> GenerationResult.Unit.generated(CLIENT_UNIT, clientFingerprint,
+            new ClientGenerator().generateClientDefinitions(target, swagger))));
+
+    return result;
+  }
 
-    swagger.getDefinitions()
-        .forEach(this::generateModelDefinitions);
+  @Override
+  public Map<String, SharedModels.Node> schemas(Swagger swagger) {
+    Map<String, SharedModels.Node> schemas = new HashMap<>();
+    if (swagger.getDefinitions() != null) {
+      swagger.getDefinitions().forEach((name, model) -> schemas.put(name, SharedModels.Node.of(Json.mapper(), model)));
+    }
+    return schemas;
+  }
 
-    TypeSpec clientDefiinition = new ClientGenerator().generateClientDefiinition(element, swagger);
-    saveClassDefinitionToFile(element, clientDefiinition);
+  @Override
+  public Map<String, SharedModels.Node> schemas(java.nio.file.Path document) {
+    try {
+      var deserializer = new SwaggerEntryDeserializer();
+      Map<String, SharedModels.Node> schemas = new HashMap<>();
+      SpecStreamReader.open(document).forEachEntry(DEFINITIONS, (name, entry) -> schemas.put(name,
+          SharedModels.Node.of(Json.mapper(), deserializer.definition(name, entry))));
+      return schemas;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error streaming spec " + document, e);
+    }
   }
 
-  private void generateModelDefinitions(String name, Model model) {
-    this.parentName = name;
-    var def = TypeSpec.classBuilder(name)
-        .addModifiers(Modifier.PUBLIC)
-        .addSuperinterface(ClassName.get(Serializable.class))
-        .addAnnotation(Data.class)
-        .addAnnotation(Builder.class);
-    model.getProperties().forEach((k, v) -> {
-      var fieldAnnotation = AnnotationSpec.builder(JsonProperty.class).addMember("value", "\"$L\"", k);
-      if (v.getRequired()) {
-        fieldAnnotation.addMember("required", "$L", v.getRequired());
+  /**
+   * Reads the document in three passes: everything but definitions and paths
+   * first, then one definition at a time and finally one path at a time. Only
+   * local {@code #/parameters} refs are resolved, like the generated client
+   * needs them.
+   */
+  @Override
+  public GenerationResult stream(SpecTarget target, java.nio.file.Path document) {
+    try {
+      var reader = SpecStreamReader.open(document);
+      var deserializer = new SwaggerEntryDeserializer();
+      Swagger swagger = deserializer.deserialize(reader.readHeader(DEFINITIONS, PATHS)).getSwagger();
+      var result = new GenerationResult(target, openManifest(target));
+      GenerationManifest manifest = result.manifest();
+      GenerationProfile profile = result.profile();
+
+      List<String> models = new ArrayList<>();
+      Map<String, Set<String>> modelProperties = new TreeMap<>();
+      reader.forEachEntry(DEFINITIONS, (name, entry) -> {
+        Model model = deserializer.definition(name, entry);
+        models.add(name);
+        profile.countSchemas(1);
+        modelProperties.putAll(ClientGenerator.modelProperties(Map.of(name, model)));
+        if (target.generates(name)) {
+          writeUnit(result, profile.time(Phase.GENERATE, () -> generateModelDefinitions(target, result, name, model)));
+        }
+      });
+      if (target.annotation().codecs()) {
+        writeUnit(result, profile.time(Phase.GENERATE, () -> codecModule(target, result, models)));
       }
-      var field = FieldSpec.builder(resolveType(v, k), k, Modifier.PRIVATE)
-          .addAnnotation(fieldAnnotation.build());
-      def.addField(field.build());
-    });
 
-    saveClassDefinitionToFile(element, def.build());
+      var client = new ClientGenerator().begin(target, swagger, modelProperties);
+      List<String> fingerprints = new ArrayList<>();
+      fingerprints.add(clientSettingsFingerprint(target, manifest, swagger, modelProperties));
+      reader.forEachEntry(PATHS, (pathName, entry) -> {
+        Path path = deserializer.path(pathName, entry);
+        resolveParameterRefs(swagger, path);
+        profile.countOperations(path.getOperations().size());
+        profile.time(Phase.GENERATE, () -> {
+          fingerprints.addAll(operationFingerprints(manifest, pathName, path));
+          client.addPath(pathName, path);
+        });
+      });
+
+      String clientFingerprint = manifest.combine(fingerprints);
+      writeUnit(result, profile.time(Phase.GENERATE, () -> reusableFiles(manifest, CLIENT_UNIT, clientFingerprint)
+          .map(files -> GenerationResult.Unit.reused(CLIENT_UNIT, clientFingerprint, files))
+          .orElseGet(() -> GenerationResult.Unit.generated(CLIENT_UNIT, clientFingerprint, client.types()))));
+
+      complete(result);
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error streaming spec " + document, e);
+    }
   }
 
-  private TypeName resolveType(Property property, String name) {
-    return switch (property) {
+  /**
+   * Combines the fingerprints of every single operation with the settings
+   * shared by all of them.
+   */
+  private String clientFingerprint(SpecTarget target, GenerationManifest manifest, Swagger swagger) {
+    List<String> fingerprints = new ArrayList<>();
+    fingerprints.add(clientSettingsFingerprint(target, manifest, swagger,
+        ClientGenerator.modelProperties(swagger.getDefinitions())));
+    swagger.getPaths().forEach((pathName, path) -> fingerprints.addAll(operationFingerprints(manifest, pathName, path)));
+    return manifest.combine(fingerprints);
+  }
 
-      case ArrayProperty p -> {
-        if (nonNull(p.getUniqueItems()) && p.getUniqueItems()) {
-          yield ParameterizedTypeName.get(ClassName.get("java.util", "Set"),
-              resolveType(p.getItems(), name));
-        } else {
-          yield ParameterizedTypeName.get(ClassName.get("java.util", "List"),
-              resolveType(p.getItems(), name));
-        }
-      }
-      case RefProperty p -> ClassName.get("", resolveReferenceClassName(p));
-      case DateTimeProperty p -> TypeName.get(LocalDateTime.class);
-
-      case BooleanProperty p -> TypeName.get(Boolean.class);
-      case DateProperty p -> TypeName.get(LocalDate.class);
-      case FloatProperty p -> TypeName.FLOAT;
-      case DecimalProperty p -> TypeName.DOUBLE;
-      case IntegerProperty p -> switch (p.getFormat()) {
-        case "int64" -> TypeName.get(BigInteger.class);
-        case "int32" -> TypeName.get(Integer.class);
-        default -> TypeName.get(Integer.class);
-      };
-      case LongProperty p -> TypeName.LONG;
-      case MapProperty p -> TypeName.get(Map.class); // TODO: fix types
-      case UUIDProperty p -> TypeName.get(UUID.class);
-      case StringProperty p -> {
-        if (CollectionUtils.isNotEmpty(p.getEnum())) {
-          yield generateEnumDefinition(name, p.getEnum());
-        } else {
-          yield TypeName.get(String.class);
-        }
-      }
-      default -> {
-        String format = String.format("%s | %s | %s", property.getName(), property.getFormat(), property.getType());
-        messager.printError(format);
-        System.out.println(format);
-        yield TypeName.get(String.class);
-      }
-    };
+  /**
+   * Model properties only matter to the client when batch loaders look up
+   * model ids.
+   */
+  private String clientSettingsFingerprint(SpecTarget target, GenerationManifest manifest, Swagger swagger,
+      Map<String, Set<String>> modelProperties) {
+    return target.annotation().batching()
+        ? manifest.fingerprint(Json.mapper(), swagger.getHost(), swagger.getBasePath(), swagger.getParameters(),
+            swagger.getConsumes(), swagger.getProduces(), modelProperties)
+        : manifest.fingerprint(Json.mapper(), swagger.getHost(), swagger.getBasePath(), swagger.getParameters(),
+            swagger.getConsumes(), swagger.getProduces());
   }
 
-  private String resolveReferenceClassName(RefProperty property) {
-    String[] arr = property.get$ref().split("/");
-    return arr[arr.length - 1];
+  private List<String> operationFingerprints(GenerationManifest manifest, String pathName, Path path) {
+    return path.getOperationMap().entrySet().stream()
+        .map(operation -> manifest.fingerprint(Json.mapper(), pathName, operation.getKey(), operation.getValue()))
+        .toList();
   }
 
-  private ClassName generateEnumDefinition(String name, Collection<String> values) {
-    String enumName = String.format("%s%s", StringUtils.capitalize(parentName), StringUtils.capitalize(name));
-    TypeSpec.Builder enumDef = TypeSpec.enumBuilder(enumName)
-        .addModifiers(Modifier.PUBLIC);
-    values.forEach(v -> enumDef.addEnumConstant(v));
-    saveClassDefinitionToFile(this.element, enumDef.build());
-    return ClassName.get("", enumName);
+  private void resolveParameterRefs(Swagger swagger, Path path) {
+    if (swagger.getParameters() == null) {
+      return;
+    }
+    path.getOperations().forEach(operation -> operation.setParameters(operation.getParameters().stream()
+        .map(parameter -> parameter instanceof RefParameter ref && swagger.getParameters().containsKey(ref.getSimpleRef())
+            ? swagger.getParameter(ref.getSimpleRef())
+            : parameter)
+        .collect(Collectors.toList())));
+  }
+
+  private GenerationResult.Unit codecModule(SpecTarget target, GenerationResult result, Collection<String> models) {
+    String fingerprint = result.manifest().fingerprint(Json.mapper(), new TreeSet<>(models));
+    return reusableFiles(result.manifest(), CODECS_UNIT, fingerprint)
+        .map(files -> GenerationResult.Unit.reused(CODECS_UNIT, fingerprint, files))
+        .orElseGet(() -> GenerationResult.Unit.generated(CODECS_UNIT, fingerprint,
+            List.of(new CodecGenerator(target).generateModule(models))));
+  }
+
+  private GenerationResult.Unit generateModelDefinitions(SpecTarget target, GenerationResult result, String name,
+      Model model) {
+    String unit = "model:" + name;
+    String fingerprint = result.manifest().fingerprint(Json.mapper(), name, model);
+
+    return reusableFiles(result.manifest(), unit, fingerprint)
+        .map(files -> GenerationResult.Unit.reused(unit, fingerprint, files))
+        .orElseGet(() -> GenerationResult.Unit.generated(unit, fingerprint, target.modelPackage(name),
+            new ModelGenerator(target, result, name).generateModelDefinitions(model)));
   }
 
 }
@@ -0,0 +1,44 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ex.rr.swaggerparser.annotation.processor.cache.SpecReader;
+import io.swagger.models.Swagger;
+import io.swagger.parser.Swagger20Parser;
+import io.swagger.parser.SwaggerParser;
+import io.swagger.parser.SwaggerResolver;
+import io.swagger.util.Json;
+
+/**
+ * SwaggerSpecReader
+ */
+public class SwaggerSpecReader implements SpecReader<Swagger> {
+
+  @Override
+  public Class<Swagger> type() {
+    return Swagger.class;
+  }
+
+  @Override
+  public ObjectMapper mapper() {
+    return Json.mapper();
+  }
+
+  @Override
+  public Swagger readContents(String contents, String location) {
+    try {
+      Swagger swagger = new Swagger20Parser().parse(contents);
+      return swagger == null ? null : new SwaggerResolver(swagger, null, location).resolve();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Swagger readLocation(String location) {
+    return new SwaggerParser().read(location);
+  }
+}
@@ -0,0 +1,245 @@
+package ex.rr.swaggerparser.annotation.processor.v3;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpStatus;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.Endpoint;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.EndpointParameter;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.In;
+import io.swagger.models.HttpMethod;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.servers.Server;
+
+/**
+ * EndpointResolver
+ *
+ * Converts the operations of OpenAPI 3 paths into the {@link Endpoint}s the
+ * client is generated from. Schemas resolve through {@link SchemaTypes},
+ * refs to component parameters, request bodies and responses are looked up
+ * by name.
+ */
+public class EndpointResolver {
+
+  private static final TypeName STRINGS = ParameterizedTypeName.get(List.class, String.class);
+  private static final String FORM = "application/x-www-form-urlencoded";
+  private static final String MULTIPART = "multipart/form-data";
+
+  private final SchemaTypes types;
+  private final Components components;
+
+  public EndpointResolver(SchemaTypes types, Components components) {
+    this.types = types;
+    this.components = components == null ? new Components() : components;
+  }
+
+  /**
+   * First server of {@code openApi} with its variables set to their defaults,
+   * relative to {@code location} when it is a relative URL.
+   */
+  public static String baseUrl(OpenAPI openApi, String location) {
+    Server server = openApi.getServers() == null || openApi.getServers().isEmpty() ? null
+        : openApi.getServers().get(0);
+    String url = server == null || server.getUrl() == null ? "/" : server.getUrl();
+    if (server != null && server.getVariables() != null) {
+      for (var variable : server.getVariables().entrySet()) {
+        url = url.replace("{" + variable.getKey() + "}", Objects.toString(variable.getValue().getDefault(), ""));
+      }
+    }
+    if (!URI.create(url).isAbsolute() && StringUtils.startsWithAny(location.toLowerCase(), "http://", "https://")) {
+      url = URI.create(location).resolve(url).toString();
+    }
+    return StringUtils.removeEnd(url, "/");
+  }
+
+  /**
+   * {@code GET}, {@code POST} and {@code PUT} operations of {@code path},
+   * others are not supported by the client.
+   */
+  public List<Endpoint> endpoints(String pathName, PathItem path) {
+    List<Endpoint> endpoints = new ArrayList<>();
+    path.readOperationsMap().forEach((method, operation) -> {
+      switch (method) {
+        case GET, POST, PUT -> endpoints.add(new Endpoint(pathName, HttpMethod.valueOf(method.name()),
+            operationId(pathName, method, operation), parameters(path, operation), returnType(operation),
+            consumes(operation), produces(operation)));
+        default -> {
+        }
+      }
+    });
+    return endpoints;
+  }
+
+  /**
+   * Operation parameters followed by the ones declared on the path which the
+   * operation does not override, and the request body.
+   */
+  private List<EndpointParameter> parameters(PathItem path, Operation operation) {
+    List<Parameter> parameters = new ArrayList<>();
+    if (operation.getParameters() != null) {
+      operation.getParameters().stream().map(this::resolve).forEach(parameters::add);
+    }
+    if (path.getParameters() != null) {
+      path.getParameters().stream().map(this::resolve)
+          .filter(p -> parameters.stream().noneMatch(o -> Objects.equals(o.getIn(), p.getIn())
+              && Objects.equals(o.getName(), p.getName())))
+          .forEach(parameters::add);
+    }
+
+    List<EndpointParameter> endpointParameters = new ArrayList<>();
+    parameters.forEach(p -> {
+      String type = p.getSchema() == null ? null : p.getSchema().getType();
+      switch (Objects.toString(p.getIn(), "")) {
+        case "path" -> endpointParameters.add(new EndpointParameter(In.PATH, p.getName(), ClassName.get(String.class),
+            false, null));
+        case "query" -> endpointParameters.add("array".equals(type)
+            ? new EndpointParameter(In.QUERY, p.getName(), STRINGS, true, delimiter(p))
+            : new EndpointParameter(In.QUERY, p.getName(), ClassName.get(String.class), false, null));
+        case "header" -> endpointParameters.add(new EndpointParameter(In.HEADER, p.getName(),
+            ClassName.get(String.class), false, null));
+        case "cookie" -> endpointParameters.add(new EndpointParameter(In.COOKIE, p.getName(),
+            ClassName.get(String.class), false, null));
+        default -> {
+        }
+      }
+    });
+
+    RequestBody body = resolve(operation.getRequestBody());
+    if (body != null && body.getContent() != null) {
+      MediaType json = json(body.getContent());
+      if (json != null) {
+        endpointParameters.add(new EndpointParameter(In.BODY, "body", types.resolve(json.getSchema()), false, null));
+      } else if (body.getContent().containsKey(FORM) || body.getContent().containsKey(MULTIPART)) {
+        endpointParameters.add(new EndpointParameter(In.FORM, "formData", ClassName.get(String.class), false, null));
+      }
+    }
+    return endpointParameters;
+  }
+
+  /**
+   * Schema of the first successful JSON response, falling back to the default
+   * response. Operations without one return the response status.
+   */
+  private TypeName returnType(Operation operation) {
+    if (operation.getResponses() == null) {
+      return ClassName.get(HttpStatus.class);
+    }
+    return operation.getResponses().entrySet().stream()
+        .filter(r -> r.getKey().startsWith("2") || r.getKey().equals("default"))
+        .sorted(Map.Entry.comparingByKey())
+        .map(r -> resolve(r.getValue()))
+        .map(r -> r == null || r.getContent() == null ? null : json(r.getContent()))
+        .filter(m -> m != null && m.getSchema() != null)
+        .findFirst()
+        .map(m -> types.resolve(m.getSchema()))
+        .orElse(ClassName.get(HttpStatus.class));
+  }
+
+  /**
+   * Media types of the request body.
+   */
+  private List<String> consumes(Operation operation) {
+    RequestBody body = resolve(operation.getRequestBody());
+    return body == null || body.getContent() == null ? List.of() : List.copyOf(body.getContent().keySet());
+  }
+
+  /**
+   * Media types of the successful and default responses.
+   */
+  private List<String> produces(Operation operation) {
+    if (operation.getResponses() == null) {
+      return List.of();
+    }
+    return operation.getResponses().entrySet().stream()
+        .filter(r -> r.getKey().startsWith("2") || r.getKey().equals("default"))
+        .sorted(Map.Entry.comparingByKey())
+        .map(r -> resolve(r.getValue()))
+        .filter(r -> r != null && r.getContent() != null)
+        .flatMap(r -> r.getContent().keySet().stream())
+        .distinct()
+        .toList();
+  }
+
+  /**
+   * {@code form} arrays are repeated unless {@code explode} is off.
+   */
+  private static String delimiter(Parameter parameter) {
+    return switch (parameter.getStyle() == null ? Parameter.StyleEnum.FORM : parameter.getStyle()) {
+      case SPACEDELIMITED -> " ";
+      case PIPEDELIMITED -> "|";
+      default -> Boolean.FALSE.equals(parameter.getExplode()) ? "," : null;
+    };
+  }
+
+  private static MediaType json(Content content) {
+    return content.entrySet().stream()
+        .filter(e -> e.getKey().equals("application/json") || e.getKey().endsWith("+json")
+            || e.getKey().equals("*/*"))
+        .map(Map.Entry::getValue)
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Operations without an id are named after their method and path, e.g.
+   * {@code GET /pet/{petId}} becomes {@code getPetPetId}.
+   */
+  private static String operationId(String pathName, PathItem.HttpMethod method, Operation operation) {
+    if (operation.getOperationId() != null) {
+      return operation.getOperationId();
+    }
+    StringBuilder id = new StringBuilder(method.name().toLowerCase());
+    for (String part : pathName.split("[^A-Za-z0-9]+")) {
+      id.append(StringUtils.capitalize(part));
+    }
+    return id.toString();
+  }
+
+  private Parameter resolve(Parameter parameter) {
+    Parameter resolved = parameter;
+    for (int hops = 0; resolved.get$ref() != null && hops < 8; hops++) {
+      Parameter target = components.getParameters() == null ? null
+          : components.getParameters().get(SchemaTypes.refName(resolved.get$ref()));
+      if (target == null) {
+        break;
+      }
+      resolved = target;
+    }
+    return resolved;
+  }
+
+  private RequestBody resolve(RequestBody body) {
+    RequestBody resolved = body;
+    for (int hops = 0; resolved != null && resolved.get$ref() != null && hops < 8; hops++) {
+      resolved = components.getRequestBodies() == null ? null
+          : components.getRequestBodies().get(SchemaTypes.refName(resolved.get$ref()));
+    }
+    return resolved;
+  }
+
+  private ApiResponse resolve(ApiResponse response) {
+    ApiResponse resolved = response;
+    for (int hops = 0; resolved != null && resolved.get$ref() != null && hops < 8; hops++) {
+      resolved = components.getResponses() == null ? null
+          : components.getResponses().get(SchemaTypes.refName(resolved.get$ref()));
+    }
+    return resolved;
+  }
+}
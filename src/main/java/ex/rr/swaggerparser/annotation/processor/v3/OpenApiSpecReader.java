@@ -0,0 +1,44 @@
+package ex.rr.swaggerparser.annotation.processor.v3;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ex.rr.swaggerparser.annotation.processor.cache.SpecReader;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+
+/**
+ * OpenApiSpecReader
+ *
+ * Resolves external refs into the document but keeps local ones, they are
+ * resolved by name through {@link SchemaTypes} instead of being inlined.
+ */
+public class OpenApiSpecReader implements SpecReader<OpenAPI> {
+
+  @Override
+  public Class<OpenAPI> type() {
+    return OpenAPI.class;
+  }
+
+  @Override
+  public ObjectMapper mapper() {
+    return Json.mapper();
+  }
+
+  @Override
+  public OpenAPI readContents(String contents, String location) {
+    return new OpenAPIV3Parser().readContents(contents, null, parseOptions(), location).getOpenAPI();
+  }
+
+  @Override
+  public OpenAPI readLocation(String location) {
+    return new OpenAPIV3Parser().read(location, null, parseOptions());
+  }
+
+  private ParseOptions parseOptions() {
+    ParseOptions parseOptions = new ParseOptions();
+    parseOptions.setResolve(true);
+    return parseOptions;
+  }
+}
@@ -1,24 +1,53 @@
 package ex.rr.swaggerparser.annotation.processor.v3;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
 import javax.annotation.processing.ProcessingEnvironment;
-import javax.lang.model.element.Element;
-import javax.lang.model.element.Modifier;
-import javax.tools.Diagnostic;
 
 import com.palantir.javapoet.FieldSpec;
 import com.palantir.javapoet.TypeName;
 import com.palantir.javapoet.TypeSpec;
 
-import ex.rr.swaggerparser.annotation.SwaggerClient;
 import ex.rr.swaggerparser.annotation.processor.AbstractSwaggerProcessor;
+import ex.rr.swaggerparser.annotation.processor.GenerationProfile;
+import ex.rr.swaggerparser.annotation.processor.GenerationProfile.Phase;
+import ex.rr.swaggerparser.annotation.processor.GenerationResult;
+import ex.rr.swaggerparser.annotation.processor.SharedModels;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.cache.GenerationManifest;
+import ex.rr.swaggerparser.annotation.processor.cache.SpecReader;
+import ex.rr.swaggerparser.annotation.processor.stream.SpecStreamReader;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator;
+import ex.rr.swaggerparser.annotation.processor.v2.CodecGenerator;
+import ex.rr.swaggerparser.annotation.processor.v2.ModelGenerator;
+import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.parser.OpenAPIV3Parser;
-import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.util.OpenAPIDeserializer;
 
 /**
  * OpenApiV3Processor
+ *
+ * Generates models and the client of an OpenAPI 3 document with the
+ * generators shared with Swagger 2. Refs are not inlined, every component is
+ * resolved once through {@link SchemaTypes} and refs to it are just its
+ * class, so recursive and widely shared components cost no more than others.
  */
-public class OpenApiV3Processor extends AbstractSwaggerProcessor {
+public class OpenApiV3Processor extends AbstractSwaggerProcessor<OpenAPI> {
+
+  private static final String CLIENT_UNIT = "client";
+  private static final String CODECS_UNIT = "codecs";
+  private static final String PATHS = "/paths";
 
   public OpenApiV3Processor(ProcessingEnvironment processingEnvironment) {
     super();
@@ -26,32 +55,203 @@ public class OpenApiV3Processor extends AbstractSwaggerProcessor {
   }
 
   @Override
-  public void process(Element element) {
-    OpenAPI openApi;
+  protected SpecReader<OpenAPI> specReader() {
+    return new OpenApiSpecReader();
+  }
 
-    try {
-      final String location = element.getAnnotation(SwaggerClient.class).location();
-      ParseOptions parseOptions = new ParseOptions();
-      parseOptions.setResolve(true); // implicit
-      parseOptions.setResolveFully(true);
-      openApi = new OpenAPIV3Parser().read(location, null, parseOptions);
+  @Override
+  public GenerationResult generate(SpecTarget target, OpenAPI openApi) {
+    var result = new GenerationResult(target, openManifest(target));
+    var types = schemaTypes(target, openApi);
+    result.profile().countSchemas(types.names().size());
+    if (openApi.getPaths() != null) {
+      openApi.getPaths().values().forEach(path -> result.profile().countOperations(path.readOperations().size()));
+    }
 
-      openApi.getComponents().getSchemas().forEach((k, v) -> {
+    result.addAll(models(target, types).parallelStream()
+        .map(name -> generateSchema(target, result, types, name))
+        .toList());
+    if (target.annotation().codecs()) {
+      result.add(codecModule(target, result, types));
+    }
 
-        TypeSpec helloWorld = TypeSpec.classBuilder(k)
-            .addModifiers(Modifier.PUBLIC)
-            .addField(FieldSpec.builder(TypeName.get(String.class), "test", Modifier.PUBLIC).build())
-            .build();
+    GenerationManifest manifest = result.manifest();
+    List<String> fingerprints = new ArrayList<>();
+    fingerprints.add(clientSettingsFingerprint(target, manifest, openApi, types));
+    if (openApi.getPaths() != null) {
+      openApi.getPaths().forEach((pathName, path) -> fingerprints.add(manifest.fingerprint(Json.mapper(), pathName,
+          path)));
+    }
+    String clientFingerprint = manifest.combine(fingerprints);
+    result.add(reusableFiles(manifest, CLIENT_UNIT, clientFingerprint)
+        .map(files -> GenerationResult.Unit.reused(CLIENT_UNIT, clientFingerprint, files))
+        .orElseGet(() -> {
+          var client = beginClient(target, openApi, types);
+          var endpoints = new EndpointResolver(types, openApi.getComponents());
+          if (openApi.getPaths() != null) {
+            openApi.getPaths().forEach((pathName, path) -> endpoints.endpoints(pathName, path)
+                .forEach(client::addEndpoint));
+          }
+          return GenerationResult.Unit.generated(CLIENT_UNIT, clientFingerprint, client.types());
+        }));
 
-        saveClassDefinitionToFile(element, helloWorld);
+    return result;
+  }
+
+  @Override
+  public Map<String, SharedModels.Node> schemas(OpenAPI openApi) {
+    Map<String, SharedModels.Node> schemas = new HashMap<>();
+    if (openApi.getComponents() != null && openApi.getComponents().getSchemas() != null) {
+      openApi.getComponents().getSchemas().forEach((name, schema) -> schemas.put(name,
+          SharedModels.Node.of(Json.mapper(), schema)));
+    }
+    return schemas;
+  }
+
+  @Override
+  public Map<String, SharedModels.Node> schemas(Path document) {
+    try {
+      var header = SpecStreamReader.open(document).readHeader(PATHS);
+      return schemas(new OpenAPIDeserializer().deserialize(header, document.toString()).getOpenAPI());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error streaming spec " + document, e);
+    }
+  }
+
+  /**
+   * Reads everything but the paths first, components included, then one path
+   * at a time.
+   */
+  @Override
+  public GenerationResult stream(SpecTarget target, Path document) {
+    try {
+      var reader = SpecStreamReader.open(document);
+      var deserializer = new OpenAPIDeserializer();
+      OpenAPI openApi = deserializer.deserialize(reader.readHeader(PATHS), target.location()).getOpenAPI();
+      var result = new GenerationResult(target, openManifest(target));
+      GenerationManifest manifest = result.manifest();
+      GenerationProfile profile = result.profile();
 
-        System.out.println(k);
+      var types = schemaTypes(target, openApi);
+      profile.countSchemas(types.names().size());
+      models(target, types).forEach(name -> writeUnit(result,
+          profile.time(Phase.GENERATE, () -> generateSchema(target, result, types, name))));
+      if (target.annotation().codecs()) {
+        writeUnit(result, profile.time(Phase.GENERATE, () -> codecModule(target, result, types)));
+      }
+
+      var client = beginClient(target, openApi, types);
+      var endpoints = new EndpointResolver(types, openApi.getComponents());
+      List<String> fingerprints = new ArrayList<>();
+      fingerprints.add(clientSettingsFingerprint(target, manifest, openApi, types));
+      reader.forEachEntry(PATHS, (pathName, entry) -> {
+        PathItem path = deserializer.getPathItem(entry, "paths." + pathName, new OpenAPIDeserializer.ParseResult());
+        profile.countOperations(path.readOperations().size());
+        profile.time(Phase.GENERATE, () -> {
+          fingerprints.add(manifest.fingerprint(Json.mapper(), pathName, path));
+          endpoints.endpoints(pathName, path).forEach(client::addEndpoint);
+        });
       });
-    } catch (Exception e) {
-      messager.printMessage(Diagnostic.Kind.ERROR, "Error fetching Swagger API Metadata.");
-      throw e;
+
+      String clientFingerprint = manifest.combine(fingerprints);
+      writeUnit(result, profile.time(Phase.GENERATE, () -> reusableFiles(manifest, CLIENT_UNIT, clientFingerprint)
+          .map(files -> GenerationResult.Unit.reused(CLIENT_UNIT, clientFingerprint, files))
+          .orElseGet(() -> GenerationResult.Unit.generated(CLIENT_UNIT, clientFingerprint, client.types()))));
+
+      complete(result);
+      return result;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error streaming spec " + document, e);
+    }
+  }
+
+  private static SchemaTypes schemaTypes(SpecTarget target, OpenAPI openApi) {
+    return new SchemaTypes(target, openApi.getComponents() == null ? null : openApi.getComponents().getSchemas());
+  }
+
+  /**
+   * Components generating a class, aliases only exist in the table. Shared
+   * models are only generated by their owner.
+   */
+  private static List<String> models(SpecTarget target, SchemaTypes types) {
+    return types.names().stream()
+        .filter(name -> types.kind(name) != SchemaTypes.Kind.ALIAS && target.generates(name))
+        .toList();
+  }
+
+  private ClientGenerator beginClient(SpecTarget target, OpenAPI openApi, SchemaTypes types) {
+    return new ClientGenerator().begin(target, EndpointResolver.baseUrl(openApi, target.location()),
+        types.modelProperties());
+  }
+
+  /**
+   * Covers the component parameters, bodies and responses paths may refer to
+   * and the types of all schema components. Model properties only matter
+   * when batch loaders look up model ids.
+   */
+  private String clientSettingsFingerprint(SpecTarget target, GenerationManifest manifest, OpenAPI openApi,
+      SchemaTypes types) {
+    var components = openApi.getComponents();
+    List<Object> parts = new ArrayList<>(List.of(EndpointResolver.baseUrl(openApi, target.location()),
+        types.table()));
+    if (components != null) {
+      parts.add(new TreeMap<>(components.getParameters() == null ? Map.of() : components.getParameters()));
+      parts.add(new TreeMap<>(components.getRequestBodies() == null ? Map.of() : components.getRequestBodies()));
+      parts.add(new TreeMap<>(components.getResponses() == null ? Map.of() : components.getResponses()));
+    }
+    if (target.annotation().batching()) {
+      parts.add(types.modelProperties());
     }
+    return manifest.fingerprint(Json.mapper(), parts.toArray());
+  }
+
+  private GenerationResult.Unit codecModule(SpecTarget target, GenerationResult result, SchemaTypes types) {
+    Collection<String> models = types.modelProperties().keySet();
+    String fingerprint = result.manifest().fingerprint(Json.mapper(), new TreeSet<>(models));
+    return reusableFiles(result.manifest(), CODECS_UNIT, fingerprint)
+        .map(files -> GenerationResult.Unit.reused(CODECS_UNIT, fingerprint, files))
+        .orElseGet(() -> GenerationResult.Unit.generated(CODECS_UNIT, fingerprint,
+            List.of(new CodecGenerator(target).generateModule(models))));
+  }
+
+  /**
+   * Model of an object component, fingerprinted with the resolved types of
+   * its properties so it is regenerated when an alias it uses changes, or the
+   * enum of an enum component.
+   */
+  private GenerationResult.Unit generateSchema(SpecTarget target, GenerationResult result, SchemaTypes types,
+      String name) {
+    String unit = "schema:" + name;
+    Schema<?> schema = types.schema(name);
+    SchemaTypes.Shape shape = types.shape(name);
+    String fingerprint = shape == null
+        ? result.manifest().fingerprint(Json.mapper(), name, SchemaTypes.enumValues(schema))
+        : result.manifest().fingerprint(Json.mapper(), name, shape.properties(), shape.required(),
+            propertyTypes(types, shape));
 
+    return reusableFiles(result.manifest(), unit, fingerprint)
+        .map(files -> GenerationResult.Unit.reused(unit, fingerprint, files))
+        .orElseGet(() -> GenerationResult.Unit.generated(unit, fingerprint, target.modelPackage(name),
+            shape == null
+                ? List.of(ModelGenerator.enumDefinition(name, SchemaTypes.enumValues(schema)))
+                : generateModel(target, result, types, name, shape)));
   }
 
+  private List<TypeSpec> generateModel(SpecTarget target, GenerationResult result, SchemaTypes types, String name,
+      SchemaTypes.Shape shape) {
+    var generator = new ModelGenerator(target, result, name);
+    List<FieldSpec> fields = new ArrayList<>();
+    shape.properties().forEach((property, schema) -> {
+      List<String> values = SchemaTypes.enumValues(schema);
+      TypeName type = values != null ? generator.generateEnumDefinition(property, values) : types.resolve(schema);
+      fields.add(generator.field(property, type, shape.required().contains(property)));
+    });
+    return generator.generateModel(fields);
+  }
+
+  private static Map<String, String> propertyTypes(SchemaTypes types, SchemaTypes.Shape shape) {
+    Map<String, String> propertyTypes = new TreeMap<>();
+    shape.properties().forEach((property, schema) -> propertyTypes.put(property, types.resolve(schema).toString()));
+    return propertyTypes;
+  }
 }
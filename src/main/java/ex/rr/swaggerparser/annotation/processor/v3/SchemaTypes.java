@@ -0,0 +1,239 @@
+package ex.rr.swaggerparser.annotation.processor.v3;
+
+import static java.util.Objects.nonNull;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import com.palantir.javapoet.ArrayTypeName;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+
+import ex.rr.swaggerparser.annotation.ModelStyle;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import io.swagger.v3.oas.models.media.Schema;
+
+/**
+ * SchemaTypes
+ *
+ * Resolution table of the component schemas of an OpenAPI 3 document. Refs
+ * are kept as edges instead of being inlined: a ref to an object or enum
+ * component is the class generated for it, other components (arrays, maps,
+ * scalars) are aliases of the type they resolve to. Every component is
+ * resolved exactly once, up front, so the table can then be read from any
+ * thread. A component taking part in a cycle of aliases, e.g. an array of
+ * itself, resolves to {@code Object}.
+ */
+public class SchemaTypes {
+
+  private static final String COMPONENTS = "#/components/schemas/";
+
+  public enum Kind {
+    /** Generated class, with the properties of its {@code allOf} parts. */
+    MODEL,
+    /** Generated enum. */
+    ENUM,
+    /** No class, refs resolve to the aliased type. */
+    ALIAS
+  }
+
+  /**
+   * Properties of a model including the ones of its {@code allOf} parts.
+   */
+  public record Shape(Map<String, Schema<?>> properties, Set<String> required) {
+  }
+
+  private final SpecTarget target;
+  private final Map<String, Schema<?>> schemas;
+  private final Map<String, Kind> kinds = new LinkedHashMap<>();
+  private final Map<String, TypeName> types = new LinkedHashMap<>();
+  private final Map<String, Shape> shapes = new LinkedHashMap<>();
+  private final Set<String> resolving = new HashSet<>();
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public SchemaTypes(SpecTarget target, Map<String, Schema> schemas) {
+    this.target = target;
+    this.schemas = schemas == null ? Map.of() : (Map) schemas;
+    this.schemas.keySet().forEach(this::component);
+    this.schemas.keySet().forEach(this::shape);
+  }
+
+  public Kind kind(String name) {
+    return kinds.get(name);
+  }
+
+  public Set<String> names() {
+    return kinds.keySet();
+  }
+
+  public Schema<?> schema(String name) {
+    return schemas.get(name);
+  }
+
+  /**
+   * Properties of model {@code name}, {@code null} for other kinds.
+   */
+  public Shape shape(String name) {
+    if (kinds.get(name) != Kind.MODEL) {
+      return null;
+    }
+    Shape shape = shapes.get(name);
+    if (shape != null || !resolving.add("shape:" + name)) {
+      return shape;
+    }
+    Map<String, Schema<?>> properties = new LinkedHashMap<>();
+    Set<String> required = new TreeSet<>();
+    Schema<?> schema = schemas.get(name);
+    if (schema.getAllOf() != null) {
+      for (Schema<?> part : schema.getAllOf()) {
+        Shape inherited = part.get$ref() != null ? shape(refName(part.get$ref())) : ownShape(part);
+        if (inherited != null) {
+          properties.putAll(inherited.properties());
+          required.addAll(inherited.required());
+        }
+      }
+    }
+    Shape own = ownShape(schema);
+    properties.putAll(own.properties());
+    required.addAll(own.required());
+    resolving.remove("shape:" + name);
+    shape = new Shape(properties, required);
+    shapes.put(name, shape);
+    return shape;
+  }
+
+  /**
+   * Property names by model, see
+   * {@link ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator#modelProperties}.
+   */
+  public Map<String, Set<String>> modelProperties() {
+    Map<String, Set<String>> properties = new TreeMap<>();
+    shapes.forEach((name, shape) -> properties.put(name, new TreeSet<>(shape.properties().keySet())));
+    return properties;
+  }
+
+  /**
+   * Resolved type of every component, e.g. for fingerprinting.
+   */
+  public Map<String, String> table() {
+    Map<String, String> table = new TreeMap<>();
+    types.forEach((name, type) -> table.put(name, kinds.get(name) + " " + type));
+    return table;
+  }
+
+  /**
+   * Type of an inline schema, refs resolve through the table.
+   */
+  public TypeName resolve(Schema<?> schema) {
+    if (schema == null) {
+      return ClassName.get(Object.class);
+    }
+    if (schema.get$ref() != null) {
+      TypeName type = component(refName(schema.get$ref()));
+      return type == null ? ClassName.get(Object.class) : type;
+    }
+    String type = type(schema);
+    String format = schema.getFormat();
+    return switch (type == null ? "" : type) {
+      case "array" -> ParameterizedTypeName.get(ClassName.get(Boolean.TRUE.equals(schema.getUniqueItems()) ? Set.class
+          : List.class), resolve(schema.getItems()).box());
+      case "object" -> schema.getAdditionalProperties() instanceof Schema<?> values
+          ? ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), resolve(values).box())
+          : schema.getAdditionalProperties() != null || schema.getProperties() == null
+              ? ParameterizedTypeName.get(Map.class, String.class, Object.class)
+              : ClassName.get(Object.class);
+      case "string" -> switch (format == null ? "" : format) {
+        case "date-time" -> ClassName.get(LocalDateTime.class);
+        case "date" -> ClassName.get(LocalDate.class);
+        case "uuid" -> ClassName.get(UUID.class);
+        case "byte", "binary" -> ArrayTypeName.of(TypeName.BYTE);
+        default -> ClassName.get(String.class);
+      };
+      case "integer" -> "int64".equals(format)
+          ? target.annotation().modelStyle() == ModelStyle.RECORD ? ClassName.get(Long.class)
+              : ClassName.get(BigInteger.class)
+          : ClassName.get(Integer.class);
+      case "number" -> "float".equals(format) ? ClassName.get(Float.class) : ClassName.get(Double.class);
+      case "boolean" -> ClassName.get(Boolean.class);
+      default -> ClassName.get(Object.class);
+    };
+  }
+
+  /**
+   * Values of a string enum declared inline, {@code null} otherwise.
+   */
+  public static List<String> enumValues(Schema<?> schema) {
+    if (schema == null || schema.get$ref() != null || schema.getEnum() == null || schema.getEnum().isEmpty()
+        || !"string".equals(type(schema))) {
+      return null;
+    }
+    return schema.getEnum().stream().map(String::valueOf).toList();
+  }
+
+  public static String refName(String ref) {
+    return ref.startsWith(COMPONENTS) ? ref.substring(COMPONENTS.length()) : ref.substring(ref.lastIndexOf('/') + 1);
+  }
+
+  /**
+   * Type of component {@code name}, resolved on first use.
+   */
+  private TypeName component(String name) {
+    TypeName type = types.get(name);
+    if (type != null) {
+      return type;
+    }
+    Schema<?> schema = schemas.get(name);
+    if (schema == null) {
+      return null;
+    }
+    if (!resolving.add(name)) {
+      return ClassName.get(Object.class);
+    }
+    Kind kind;
+    if (enumValues(schema) != null) {
+      kind = Kind.ENUM;
+      type = target.className(name);
+    } else if (schema.get$ref() == null && (nonNull(schema.getProperties()) || nonNull(schema.getAllOf()))) {
+      kind = Kind.MODEL;
+      type = target.className(name);
+    } else {
+      kind = Kind.ALIAS;
+      type = resolve(schema);
+    }
+    resolving.remove(name);
+    kinds.put(name, kind);
+    types.put(name, type);
+    return type;
+  }
+
+  private static Shape ownShape(Schema<?> schema) {
+    Map<String, Schema<?>> properties = new LinkedHashMap<>();
+    if (schema.getProperties() != null) {
+      schema.getProperties().forEach(properties::put);
+    }
+    return new Shape(properties, schema.getRequired() == null ? Set.of() : new TreeSet<>(schema.getRequired()));
+  }
+
+  /**
+   * Declared type, OpenAPI 3.1 documents declare it in {@code types}.
+   */
+  private static String type(Schema<?> schema) {
+    if (schema.getType() != null) {
+      return schema.getType();
+    }
+    if (schema.getTypes() != null) {
+      return schema.getTypes().stream().filter(t -> !"null".equals(t)).findFirst().orElse(null);
+    }
+    return schema.getProperties() != null || schema.getAdditionalProperties() != null ? "object" : null;
+  }
+}
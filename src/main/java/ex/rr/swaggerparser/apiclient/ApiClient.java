@@ -2,11 +2,15 @@ package ex.rr.swaggerparser.apiclient;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 
 /**
  * ApiClient
+ *
+ * The generated clients call the overloads taking the {@link ApiOperation}
+ * being executed, which ignore it unless overridden.
  */
 public interface ApiClient {
 
@@ -14,7 +18,48 @@ public interface ApiClient {
 
   <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type);
 
+  /**
+   * @param formData fields of the form, {@link FormPart},
+   *                 {@link java.nio.file.Path}, {@link java.io.InputStream}
+   *                 and {@code byte[]} values make it a
+   *                 {@code multipart/form-data} upload, read while sent
+   */
   <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type);
 
   <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type);
+
+  /**
+   * Elements of the array responded to a {@code GET}, decoded one at a time
+   * while the stream is consumed. The stream must be closed to release the
+   * connection.
+   *
+   * @param elementType type of the array elements
+   */
+  default <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType) {
+    throw new UnsupportedOperationException(getClass().getName() + " does not support streaming responses");
+  }
+
+  default <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type, ApiOperation operation) {
+    return get(uri, headers, type);
+  }
+
+  default <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return post(uri, body, headers, type);
+  }
+
+  default <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return post(uri, formData, headers, type);
+  }
+
+  default <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return put(uri, body, headers, type);
+  }
+
+  default <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType,
+      ApiOperation operation) {
+    return getStream(uri, headers, elementType);
+  }
 }
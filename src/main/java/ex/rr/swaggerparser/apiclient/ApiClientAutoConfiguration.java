@@ -0,0 +1,73 @@
+package ex.rr.swaggerparser.apiclient;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * ApiClientAutoConfiguration
+ *
+ * Provides {@link HttpApiClient} to the generated clients unless the
+ * application defines its own {@link ApiClient}, behind a
+ * {@link ConcurrencyLimitingApiClient} and a {@link HedgingApiClient} when
+ * enabled, and wrapped in an {@link ObservedApiClient} when there is
+ * something observing it. Latency histograms, when enabled, are published
+ * by {@link LatencyHistogramMetrics}.
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class,
+    afterName = "org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration")
+@EnableConfigurationProperties(ApiClientProperties.class)
+public class ApiClientAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean(ApiClient.class)
+  public AsyncApiClient apiClient(ApiClientProperties properties, ObjectProvider<ObjectMapper> objectMapper,
+      ObjectProvider<ObservationRegistry> observationRegistry, ObjectProvider<LatencyHistograms> latencyHistograms) {
+    AsyncApiClient apiClient = HttpApiClient.create(properties,
+        objectMapper.getIfAvailable(() -> new ObjectMapper().findAndRegisterModules()));
+    if (properties.getConcurrencyLimit().isEnabled()) {
+      apiClient = new ConcurrencyLimitingApiClient(apiClient, properties.getConcurrencyLimit());
+    }
+    if (properties.getHedging().isEnabled()) {
+      apiClient = new HedgingApiClient(apiClient, properties.getHedging());
+    }
+    ObservationRegistry registry = properties.isObservations()
+        ? observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP)
+        : ObservationRegistry.NOOP;
+    LatencyHistograms histograms = latencyHistograms.getIfAvailable();
+    return registry.isNoop() && histograms == null ? apiClient
+        : new ObservedApiClient(apiClient, registry, histograms);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  @ConditionalOnProperty(prefix = "swaggerparser.client", name = "latency-histograms", havingValue = "true")
+  public LatencyHistograms latencyHistograms() {
+    return new LatencyHistograms();
+  }
+
+  /**
+   * Publishes the latency histograms when Micrometer is present.
+   */
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(name = "io.micrometer.core.instrument.binder.MeterBinder")
+  @ConditionalOnProperty(prefix = "swaggerparser.client", name = "latency-histograms", havingValue = "true")
+  static class LatencyHistogramMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LatencyHistogramMetrics latencyHistogramMetrics(LatencyHistograms latencyHistograms) {
+      return new LatencyHistogramMetrics(latencyHistograms);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * ApiClientProperties
+ *
+ * Settings of the bundled {@link HttpApiClient}, bound from
+ * {@code swaggerparser.client.*}.
+ */
+@Data
+@ConfigurationProperties("swaggerparser.client")
+public class ApiClientProperties {
+
+  /** Preferred protocol, HTTP/2 falls back to HTTP/1.1 when the server does not support it. */
+  private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+  private Duration connectTimeout = Duration.ofSeconds(10);
+
+  /** Time until the response headers are received. */
+  private Duration requestTimeout = Duration.ofSeconds(30);
+
+  private boolean followRedirects = true;
+
+  /** Size of the response cache shared by all cached operations, zero disables caching. */
+  private DataSize cacheSize = DataSize.ofMegabytes(16);
+
+  /** Observe the generated operations when an {@code ObservationRegistry} is configured, see {@link ObservedApiClient}. */
+  private boolean observations = true;
+
+  /** Record the latency of the generated operations into {@link LatencyHistograms}, published by {@link LatencyHistogramMetrics}. */
+  private boolean latencyHistograms = false;
+
+  private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+  private Hedging hedging = new Hedging();
+
+  private Encoding encoding = new Encoding();
+
+  /**
+   * Adaptive limit of the concurrent requests per base URL, see
+   * {@link ConcurrencyLimitingApiClient}.
+   */
+  @Data
+  public static class ConcurrencyLimit {
+
+    private boolean enabled = false;
+
+    private int initialLimit = 20;
+
+    private int minLimit = 1;
+
+    private int maxLimit = 200;
+
+    /** Factor the limit is multiplied with when a request is dropped or slow. */
+    private double backoffRatio = 0.9;
+
+    /** Latency, relative to the average, above which a request counts as slow. */
+    private double latencyTolerance = 2.0;
+  }
+
+  /**
+   * Hedged requests of idempotent {@code GET} operations, see
+   * {@link HedgingApiClient}.
+   */
+  @Data
+  public static class Hedging {
+
+    private boolean enabled = false;
+
+    /** Latency percentile of the operation after which the second request is sent. */
+    private double percentile = 0.95;
+
+    /** Shortest delay before hedging, so fast operations are not hedged all the time. */
+    private Duration minDelay = Duration.ofMillis(5);
+
+    /** Calls of an operation needed before its latency percentile is trusted. */
+    private int minSamples = 100;
+  }
+
+  /**
+   * Compression and binary formats of the bodies, see {@link HttpApiClient}.
+   */
+  @Data
+  public static class Encoding {
+
+    /** Ask for gzip or deflate compressed responses. */
+    private boolean compressResponses = true;
+
+    /** Send request bodies gzip compressed, only when the server is known to accept it. */
+    private boolean compressRequests = false;
+
+    /** Size of a request body from which it is compressed. */
+    private DataSize requestCompressionThreshold = DataSize.ofKilobytes(2);
+
+    /** Use Jackson Smile or CBOR, when on the class path, for operations whose spec lists them. */
+    private boolean binaryFormats = true;
+  }
+}
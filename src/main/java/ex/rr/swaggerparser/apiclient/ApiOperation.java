@@ -0,0 +1,28 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.util.List;
+
+import lombok.Builder;
+
+/**
+ * ApiOperation
+ *
+ * Static description of a generated operation, passed along with every call
+ * so {@link ApiClient} implementations can apply per-operation behaviour.
+ *
+ * @param client    name of the generated client, e.g. {@code petstore}
+ * @param id        operation id of the spec
+ * @param method    HTTP method
+ * @param path      path template of the spec, e.g. {@code /pet/{petId}}
+ * @param cache     response caching of a {@code GET}, {@code null} when not cached
+ * @param hedgeable whether a slow call may be repeated, i.e. the operation is
+ *                  an idempotent {@code GET}, see {@link HedgingApiClient}
+ * @param consumes  media types of the request body declared by the spec,
+ *                  {@code null} when there are none
+ * @param produces  media types of the response declared by the spec,
+ *                  {@code null} when there are none
+ */
+@Builder
+public record ApiOperation(String client, String id, String method, String path, CachePolicy cache,
+    boolean hedgeable, List<String> consumes, List<String> produces) {
+}
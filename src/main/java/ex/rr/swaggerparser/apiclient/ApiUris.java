@@ -0,0 +1,145 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+
+/**
+ * ApiUris
+ *
+ * Request URI building used by the generated clients. Values are percent
+ * encoded as UTF-8 per RFC 3986; values which need no encoding are returned
+ * as is, without allocating.
+ */
+public final class ApiUris {
+
+  private static final boolean[] PATH_SAFE = safe("!$&'()*+,;=:@");
+  private static final boolean[] QUERY_SAFE = safe("!$'()*,;:@/?");
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private ApiUris() {
+  }
+
+  /**
+   * Validates {@code baseUrl} and removes trailing slashes, so paths starting
+   * with a slash can be appended directly.
+   */
+  public static String baseUrl(String baseUrl) {
+    String normalized = baseUrl.strip();
+    while (normalized.endsWith("/")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    URI uri = URI.create(normalized);
+    if (!uri.isAbsolute()) {
+      throw new IllegalArgumentException("Base URL must be absolute: " + baseUrl);
+    }
+    return normalized;
+  }
+
+  /**
+   * Encodes {@code value} as a single path segment, slashes included.
+   */
+  public static String encodePath(Object value) {
+    return encode(String.valueOf(value), PATH_SAFE);
+  }
+
+  public static String encodeQuery(Object value) {
+    return encode(String.valueOf(value), QUERY_SAFE);
+  }
+
+  /**
+   * Appends {@code name=value} to the query of {@code uri}, once per element
+   * when {@code value} is {@link Iterable}. Nothing is appended for
+   * {@code null}.
+   */
+  public static StringBuilder query(StringBuilder uri, String name, Object value) {
+    if (value instanceof Iterable<?> values) {
+      values.forEach(v -> query(uri, name, v));
+    } else if (value != null) {
+      appendName(uri, name);
+      encode(uri, value.toString(), QUERY_SAFE);
+    }
+    return uri;
+  }
+
+  /**
+   * Appends {@code values} as a single {@code delimiter} separated parameter,
+   * like the {@code csv}/{@code ssv}/{@code tsv}/{@code pipes} collection formats.
+   */
+  public static StringBuilder query(StringBuilder uri, String name, Iterable<?> values, String delimiter) {
+    if (values == null) {
+      return uri;
+    }
+    appendName(uri, name);
+    boolean first = true;
+    for (Object value : values) {
+      if (!first) {
+        encode(uri, delimiter, QUERY_SAFE);
+      }
+      encode(uri, String.valueOf(value), QUERY_SAFE);
+      first = false;
+    }
+    return uri;
+  }
+
+  private static void appendName(StringBuilder uri, String name) {
+    uri.append(uri.indexOf("?") < 0 ? '?' : '&');
+    encode(uri, name, QUERY_SAFE);
+    uri.append('=');
+  }
+
+  private static String encode(String value, boolean[] safe) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 128 || !safe[c]) {
+        StringBuilder out = new StringBuilder(value.length() + 16).append(value, 0, i);
+        encode(out, value.substring(i), safe);
+        return out.toString();
+      }
+    }
+    return value;
+  }
+
+  private static void encode(StringBuilder out, String value, boolean[] safe) {
+    for (int i = 0; i < value.length();) {
+      int cp = value.codePointAt(i);
+      i += Character.charCount(cp);
+      if (cp < 128 && safe[cp]) {
+        out.append((char) cp);
+      } else if (cp < 0x80) {
+        percent(out, cp);
+      } else if (cp < 0x800) {
+        percent(out, 0xC0 | cp >> 6);
+        percent(out, 0x80 | cp & 0x3F);
+      } else if (cp < 0x10000) {
+        percent(out, 0xE0 | cp >> 12);
+        percent(out, 0x80 | cp >> 6 & 0x3F);
+        percent(out, 0x80 | cp & 0x3F);
+      } else {
+        percent(out, 0xF0 | cp >> 18);
+        percent(out, 0x80 | cp >> 12 & 0x3F);
+        percent(out, 0x80 | cp >> 6 & 0x3F);
+        percent(out, 0x80 | cp & 0x3F);
+      }
+    }
+  }
+
+  private static void percent(StringBuilder out, int b) {
+    out.append('%').append(HEX[b >> 4 & 0xF]).append(HEX[b & 0xF]);
+  }
+
+  private static boolean[] safe(String subDelims) {
+    boolean[] safe = new boolean[128];
+    for (char c = 'a'; c <= 'z'; c++) {
+      safe[c] = true;
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      safe[c] = true;
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      safe[c] = true;
+    }
+    for (char c : ("-._~" + subDelims).toCharArray()) {
+      safe[c] = true;
+    }
+    return safe;
+  }
+}
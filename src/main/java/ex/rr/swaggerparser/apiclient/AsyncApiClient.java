@@ -0,0 +1,45 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * AsyncApiClient
+ *
+ * Non-blocking variant of {@link ApiClient}, used by clients generated with
+ * {@code @SwaggerClient(async = true)}.
+ */
+public interface AsyncApiClient extends ApiClient {
+
+  <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type);
+
+  <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type);
+
+  <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type);
+
+  <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type);
+
+  default <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return getAsync(uri, headers, type);
+  }
+
+  default <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return postAsync(uri, body, headers, type);
+  }
+
+  default <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type, ApiOperation operation) {
+    return postAsync(uri, formData, headers, type);
+  }
+
+  default <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return putAsync(uri, body, headers, type);
+  }
+}
@@ -0,0 +1,145 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * BatchLoader
+ *
+ * Coalesces loads of single values by key, used by the generated
+ * {@code <operation>Batched} methods. Loads of a key already in flight share
+ * its result. New keys are collected for {@code window}, or until
+ * {@code maxBatchSize} are pending, and then loaded with a single
+ * {@code loadAll} call, or one {@code load} call each when there is no batch
+ * operation. Keys missing from a batch result are loaded one by one, so they
+ * fail like a single load would. Loads run on virtual threads.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BatchLoader<K, V> {
+
+  private static final Executor DISPATCHER = Executors.newVirtualThreadPerTaskExecutor();
+
+  private final Function<K, V> load;
+  private final Function<List<K>, Map<K, V>> loadAll;
+  private final Duration window;
+  private final int maxBatchSize;
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private List<Pending<K, V>> pending = new ArrayList<>();
+
+  private record Pending<K, V>(K key, CompletableFuture<V> future) {
+  }
+
+  /**
+   * @param loadAll batch load, {@code null} to load keys one by one
+   */
+  public BatchLoader(Function<K, V> load, Function<List<K>, Map<K, V>> loadAll, Duration window,
+      int maxBatchSize) {
+    this.load = load;
+    this.loadAll = loadAll;
+    this.window = window;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+  }
+
+  /**
+   * {@code values} by the key {@code keyOf} extracts, for building
+   * {@code loadAll} from a list operation.
+   */
+  public static <K, V> Map<K, V> index(Collection<V> values, Function<V, K> keyOf) {
+    Map<K, V> index = new HashMap<>();
+    if (values != null) {
+      values.forEach(value -> index.put(keyOf.apply(value), value));
+    }
+    return index;
+  }
+
+  public CompletableFuture<V> load(K key) {
+    CompletableFuture<V> future = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      return existing;
+    }
+    future.whenComplete((value, e) -> inFlight.remove(key, future));
+
+    List<Pending<K, V>> batch = null;
+    synchronized (this) {
+      pending.add(new Pending<>(key, future));
+      if (pending.size() >= maxBatchSize || window.isZero()) {
+        batch = pending;
+        pending = new ArrayList<>();
+      } else if (pending.size() == 1) {
+        CompletableFuture.runAsync(this::flush,
+            CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, DISPATCHER));
+      }
+    }
+    if (batch != null) {
+      dispatch(batch);
+    }
+    return future;
+  }
+
+  /**
+   * Blocking {@link #load}, failures are rethrown as thrown by the load.
+   */
+  public V get(K key) {
+    try {
+      return load(key).join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  private void flush() {
+    List<Pending<K, V>> batch;
+    synchronized (this) {
+      batch = pending;
+      pending = new ArrayList<>();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  private void dispatch(List<Pending<K, V>> batch) {
+    if (loadAll == null || batch.size() == 1) {
+      batch.forEach(p -> DISPATCHER.execute(() -> loadOne(p)));
+      return;
+    }
+    DISPATCHER.execute(() -> {
+      Map<K, V> values;
+      try {
+        values = loadAll.apply(batch.stream().map(Pending::key).toList());
+      } catch (RuntimeException e) {
+        batch.forEach(p -> p.future().completeExceptionally(e));
+        return;
+      }
+      batch.forEach(p -> {
+        if (values.containsKey(p.key())) {
+          p.future().complete(values.get(p.key()));
+        } else {
+          DISPATCHER.execute(() -> loadOne(p));
+        }
+      });
+    });
+  }
+
+  private void loadOne(Pending<K, V> p) {
+    try {
+      p.future().complete(load.apply(p.key()));
+    } catch (RuntimeException e) {
+      p.future().completeExceptionally(e);
+    }
+  }
+}
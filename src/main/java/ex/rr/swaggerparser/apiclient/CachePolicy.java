@@ -0,0 +1,34 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.time.Duration;
+import java.util.List;
+
+import lombok.With;
+
+/**
+ * CachePolicy
+ *
+ * Response caching of an {@link ApiOperation}. Responses are cached as long
+ * as their {@code Cache-Control}/{@code Expires} headers allow, {@code ttl}
+ * only applies when the response has neither.
+ *
+ * @param ttl                  freshness of responses without caching headers
+ * @param staleWhileRevalidate how long a stale response is still returned
+ *                             while it is revalidated in the background, the
+ *                             response's {@code stale-while-revalidate} wins
+ *                             when longer
+ * @param vary                 request headers which are part of the cache key,
+ *                             besides {@code Authorization}
+ * @param cachePrivate         whether {@code Cache-Control: private} responses
+ *                             are cached, only safe when one client instance
+ *                             never acts for several users with the same
+ *                             credentials
+ */
+@With
+public record CachePolicy(Duration ttl, Duration staleWhileRevalidate, List<String> vary, boolean cachePrivate) {
+
+  public static CachePolicy of(long ttlSeconds, long staleWhileRevalidateSeconds, String... vary) {
+    return new CachePolicy(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(staleWhileRevalidateSeconds),
+        List.of(vary), false);
+  }
+}
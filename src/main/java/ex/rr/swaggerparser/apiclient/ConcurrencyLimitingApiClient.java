@@ -0,0 +1,352 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * ConcurrencyLimitingApiClient
+ *
+ * Limits the requests in flight per base URL (scheme, host and port) so
+ * callers fail fast with a {@link LimitExceededException} instead of piling
+ * up when an upstream degrades. The limit adapts to what the upstream
+ * sustains (AIMD): it grows by one while requests complete in time using at
+ * least half of it, and is multiplied by {@code backoffRatio} when a request
+ * fails with an I/O error or timeout, is answered with {@code 429},
+ * {@code 503} or {@code 504}, or, using at least half of the limit, takes
+ * longer than {@code latencyTolerance} times the average latency. Slow
+ * requests at low concurrency are not caused by the load, they leave the
+ * limit alone. Latencies of operations with a {@link CachePolicy} are
+ * ignored, cache hits would skew the average.
+ */
+public class ConcurrencyLimitingApiClient extends ForwardingApiClient {
+
+  /** Weight of a new sample in the average latency. */
+  private static final double SMOOTHING = 0.05;
+
+  private final ApiClientProperties.ConcurrencyLimit settings;
+  private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+  public ConcurrencyLimitingApiClient(AsyncApiClient delegate, ApiClientProperties.ConcurrencyLimit settings) {
+    super(delegate);
+    this.settings = settings;
+  }
+
+  /**
+   * Rejected request, the upstream is at its concurrency limit.
+   */
+  public static class LimitExceededException extends ResourceAccessException {
+
+    public LimitExceededException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Current limit by base URL.
+   */
+  public Map<String, Integer> limits() {
+    Map<String, Integer> current = new TreeMap<>();
+    limits.forEach((origin, limit) -> current.put(origin, limit.current));
+    return current;
+  }
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    return limit(uri, null, () -> delegate.get(uri, headers, type));
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return limit(uri, null, () -> delegate.post(uri, body, headers, type));
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type) {
+    return limit(uri, null, () -> delegate.post(uri, formData, headers, type));
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return limit(uri, null, () -> delegate.put(uri, body, headers, type));
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType) {
+    return limitStream(uri, null, () -> delegate.getStream(uri, headers, elementType));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    return limitAsync(uri, null, () -> delegate.getAsync(uri, headers, type));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return limitAsync(uri, null, () -> delegate.postAsync(uri, body, headers, type));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type) {
+    return limitAsync(uri, null, () -> delegate.postAsync(uri, formData, headers, type));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return limitAsync(uri, null, () -> delegate.putAsync(uri, body, headers, type));
+  }
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type, ApiOperation operation) {
+    return limit(uri, operation, () -> delegate.get(uri, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return limit(uri, operation, () -> delegate.post(uri, body, headers, type, operation));
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return limit(uri, operation, () -> delegate.post(uri, formData, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return limit(uri, operation, () -> delegate.put(uri, body, headers, type, operation));
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType,
+      ApiOperation operation) {
+    return limitStream(uri, operation, () -> delegate.getStream(uri, headers, elementType, operation));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return limitAsync(uri, operation, () -> delegate.getAsync(uri, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return limitAsync(uri, operation, () -> delegate.postAsync(uri, body, headers, type, operation));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type, ApiOperation operation) {
+    return limitAsync(uri, operation, () -> delegate.postAsync(uri, formData, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return limitAsync(uri, operation, () -> delegate.putAsync(uri, body, headers, type, operation));
+  }
+
+  private <T> T limit(URI uri, ApiOperation operation, Supplier<T> call) {
+    Permit permit = acquire(uri, operation);
+    T result;
+    try {
+      result = call.get();
+    } catch (RuntimeException e) {
+      permit.release(e);
+      throw e;
+    }
+    permit.release(null);
+    return result;
+  }
+
+  /**
+   * The stream holds its permit until exhausted, failed or closed, whichever
+   * comes first, so callers forgetting to close it do not leak the permit.
+   * Its latency is not sampled.
+   */
+  private <T> Stream<T> limitStream(URI uri, ApiOperation operation, Supplier<Stream<T>> call) {
+    Permit permit = acquire(uri, operation);
+    Stream<T> stream;
+    try {
+      stream = call.get();
+    } catch (RuntimeException e) {
+      permit.release(e);
+      throw e;
+    }
+    AtomicBoolean held = new AtomicBoolean(true);
+    Runnable leave = () -> {
+      if (held.getAndSet(false)) {
+        permit.limit().inFlight.decrementAndGet();
+      }
+    };
+    return StreamSupport.stream(new ReleasingSpliterator<>(stream.spliterator(), leave), stream.isParallel())
+        .onClose(stream::close)
+        .onClose(leave);
+  }
+
+  /**
+   * Returns the future of the delegate itself, so cancelling it still
+   * reaches the request.
+   */
+  private <T> CompletableFuture<T> limitAsync(URI uri, ApiOperation operation,
+      Supplier<CompletableFuture<T>> call) {
+    Permit permit = acquire(uri, operation);
+    CompletableFuture<T> result;
+    try {
+      result = call.get();
+    } catch (RuntimeException e) {
+      permit.release(e);
+      throw e;
+    }
+    result.whenComplete((value, e) -> permit.release(
+        e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+    return result;
+  }
+
+  private Permit acquire(URI uri, ApiOperation operation) {
+    String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+    Limit limit = limits.computeIfAbsent(origin, o -> new Limit(settings.getInitialLimit()));
+    int inFlight = limit.tryAcquire();
+    if (inFlight < 0) {
+      throw new LimitExceededException("Concurrency limit of %d reached for %s".formatted(limit.current, origin));
+    }
+    return new Permit(limit, inFlight, System.nanoTime(), operation == null || operation.cache() == null);
+  }
+
+  /**
+   * @param inFlight requests in flight when acquired, this one included
+   * @param sampled  whether the latency counts towards the average
+   */
+  private record Permit(Limit limit, int inFlight, long start, boolean sampled) {
+
+    void release(Throwable error) {
+      limit.inFlight.decrementAndGet();
+      if (!(error instanceof CancellationException)) {
+        limit.update(System.nanoTime() - start, dropped(error), inFlight, sampled);
+      }
+    }
+
+    private static boolean dropped(Throwable error) {
+      if (error instanceof HttpStatusCodeException status) {
+        int code = status.getStatusCode().value();
+        return code == HttpStatus.TOO_MANY_REQUESTS.value() || code == HttpStatus.SERVICE_UNAVAILABLE.value()
+            || code == HttpStatus.GATEWAY_TIMEOUT.value();
+      }
+      return error instanceof ResourceAccessException;
+    }
+  }
+
+  /**
+   * Runs {@code release} once {@code source} is exhausted or fails. Not
+   * splitting, so exhaustion is seen by this instance alone.
+   */
+  private static final class ReleasingSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<T> source;
+    private final Runnable release;
+
+    private ReleasingSpliterator(Spliterator<T> source, Runnable release) {
+      this.source = source;
+      this.release = release;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      boolean advanced = false;
+      try {
+        advanced = source.tryAdvance(action);
+        return advanced;
+      } finally {
+        if (!advanced) {
+          release.run();
+        }
+      }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      try {
+        source.forEachRemaining(action);
+      } finally {
+        release.run();
+      }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      return null;
+    }
+
+    @Override
+    public long estimateSize() {
+      return source.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+      return source.characteristics() & ~(Spliterator.SUBSIZED | Spliterator.CONCURRENT);
+    }
+  }
+
+  private final class Limit {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Limit acquired against, the integral part of {@link #limit}. */
+    private volatile int current;
+    private double limit;
+    private double averageNanos;
+
+    private Limit(int initialLimit) {
+      this.limit = initialLimit;
+      this.current = initialLimit;
+    }
+
+    /**
+     * @return requests in flight including this one, {@code -1} when at the
+     *         limit
+     */
+    private int tryAcquire() {
+      int count;
+      do {
+        count = inFlight.get();
+        if (count >= current) {
+          return -1;
+        }
+      } while (!inFlight.compareAndSet(count, count + 1));
+      return count + 1;
+    }
+
+    private synchronized void update(long nanos, boolean dropped, int inFlightAtStart, boolean sampled) {
+      boolean busy = inFlightAtStart * 2 >= limit;
+      boolean slow = busy && sampled && averageNanos > 0 && nanos > averageNanos * settings.getLatencyTolerance();
+      if (sampled && !dropped) {
+        averageNanos = averageNanos == 0 ? nanos : averageNanos + (nanos - averageNanos) * SMOOTHING;
+      }
+      if (dropped || slow) {
+        limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+      } else if (busy) {
+        limit = Math.min(settings.getMaxLimit(), limit + 1);
+      }
+      current = (int) limit;
+    }
+  }
+}
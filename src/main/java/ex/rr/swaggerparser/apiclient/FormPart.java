@@ -0,0 +1,44 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * FormPart
+ *
+ * File part of a {@code multipart/form-data} body, a value of the
+ * {@code formData} of {@link ApiClient#post(java.net.URI, java.util.Map, java.util.Map,
+ * com.fasterxml.jackson.core.type.TypeReference)}. Plain {@link Path},
+ * {@link InputStream} and {@code byte[]} values are sent as file parts too,
+ * named after the file or the field.
+ *
+ * @param filename    file name sent to the server
+ * @param contentType media type of the content
+ * @param content     a {@link Path}, {@link InputStream} or {@code byte[]},
+ *                    streams are read once and closed when sent
+ * @param length      length of the content, {@code -1} when unknown
+ */
+public record FormPart(String filename, String contentType, Object content, long length) {
+
+  public static final String OCTET_STREAM = "application/octet-stream";
+
+  public static FormPart of(Path file) {
+    return of(file, OCTET_STREAM);
+  }
+
+  public static FormPart of(Path file, String contentType) {
+    return new FormPart(file.getFileName().toString(), contentType, file, -1);
+  }
+
+  public static FormPart of(String filename, String contentType, InputStream content) {
+    return new FormPart(filename, contentType, content, -1);
+  }
+
+  public static FormPart of(String filename, String contentType, InputStream content, long length) {
+    return new FormPart(filename, contentType, content, length);
+  }
+
+  public static FormPart of(String filename, String contentType, byte[] content) {
+    return new FormPart(filename, contentType, content, content.length);
+  }
+}
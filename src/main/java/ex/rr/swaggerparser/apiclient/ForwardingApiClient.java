@@ -0,0 +1,130 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * ForwardingApiClient
+ *
+ * Passes every call on to {@code delegate}, the base of the clients adding
+ * behaviour around another one, e.g. {@link ObservedApiClient}. Closing it
+ * closes the delegate.
+ */
+public abstract class ForwardingApiClient implements AsyncApiClient, AutoCloseable {
+
+  protected final AsyncApiClient delegate;
+
+  protected ForwardingApiClient(AsyncApiClient delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.get(uri, headers, type);
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.post(uri, body, headers, type);
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.post(uri, formData, headers, type);
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.put(uri, body, headers, type);
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType) {
+    return delegate.getStream(uri, headers, elementType);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.getAsync(uri, headers, type);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.postAsync(uri, body, headers, type);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type) {
+    return delegate.postAsync(uri, formData, headers, type);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return delegate.putAsync(uri, body, headers, type);
+  }
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type, ApiOperation operation) {
+    return delegate.get(uri, headers, type, operation);
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return delegate.post(uri, body, headers, type, operation);
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return delegate.post(uri, formData, headers, type, operation);
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return delegate.put(uri, body, headers, type, operation);
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType,
+      ApiOperation operation) {
+    return delegate.getStream(uri, headers, elementType, operation);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return delegate.getAsync(uri, headers, type, operation);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return delegate.postAsync(uri, body, headers, type, operation);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type, ApiOperation operation) {
+    return delegate.postAsync(uri, formData, headers, type, operation);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return delegate.putAsync(uri, body, headers, type, operation);
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (delegate instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package ex.rr.swaggerparser.apiclient;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+
+/**
+ * GeneratedRuntimeHints
+ *
+ * Reflection hints of generated classes, used by the {@code <Name>RuntimeHints}
+ * registrar generated for every {@code @SwaggerClient} class. Besides the
+ * listed classes, their nested classes (e.g. Lombok builders, codecs) are
+ * registered, which the processor cannot list as Lombok adds them later in
+ * the compilation. The {@code TypeReference} constants of the generated
+ * classes are {@link JavaTypeReference}s, registered here once.
+ */
+public final class GeneratedRuntimeHints {
+
+  /** Members Jackson and Spring use on models, enums and the clients. */
+  private static final MemberCategory[] MEMBERS = { MemberCategory.DECLARED_FIELDS,
+      MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS };
+
+  private GeneratedRuntimeHints() {
+  }
+
+  /**
+   * @param types generated classes
+   */
+  public static void register(RuntimeHints hints, Class<?>... types) {
+    hints.reflection().registerType(JavaTypeReference.class, MEMBERS);
+    for (Class<?> type : types) {
+      registerType(hints, type);
+    }
+  }
+
+  private static void registerType(RuntimeHints hints, Class<?> type) {
+    hints.reflection().registerType(type, MEMBERS);
+    for (Class<?> nested : type.getDeclaredClasses()) {
+      registerType(hints, nested);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * HedgingApiClient
+ *
+ * Hedges calls of {@link ApiOperation#hedgeable() hedgeable} operations, the
+ * idempotent {@code GET}s of the generated clients: when a call takes longer
+ * than the configured latency {@code percentile} of its operation, a second
+ * request is sent and whichever succeeds first is used, the other one is
+ * cancelled. A call failing does not trigger the hedge, only slowness does.
+ * Latencies are recorded per attempt, operations are not hedged until
+ * {@code minSamples} calls were recorded, and never sooner than
+ * {@code minDelay}. Cached operations are not hedged.
+ */
+public class HedgingApiClient extends ForwardingApiClient {
+
+  private final ApiClientProperties.Hedging settings;
+  private final LatencyHistograms latencies = new LatencyHistograms();
+
+  public HedgingApiClient(AsyncApiClient delegate, ApiClientProperties.Hedging settings) {
+    super(delegate);
+    this.settings = settings;
+  }
+
+  /**
+   * Blocks on the hedged asynchronous calls once the operation has a delay.
+   */
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type, ApiOperation operation) {
+    if (!hedgeable(operation)) {
+      return delegate.get(uri, headers, type, operation);
+    }
+    Duration delay = delay(operation);
+    if (delay == null) {
+      long start = System.nanoTime();
+      T result = delegate.get(uri, headers, type, operation);
+      latencies.histogram(operation).record(System.nanoTime() - start);
+      return result;
+    }
+    try {
+      return hedge(operation, delay, () -> delegate.getAsync(uri, headers, type, operation)).join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    if (!hedgeable(operation)) {
+      return delegate.getAsync(uri, headers, type, operation);
+    }
+    return hedge(operation, delay(operation), () -> delegate.getAsync(uri, headers, type, operation));
+  }
+
+  private static boolean hedgeable(ApiOperation operation) {
+    return operation != null && operation.hedgeable() && operation.cache() == null;
+  }
+
+  /**
+   * Delay of the hedge, {@code null} while there are too few samples.
+   */
+  private Duration delay(ApiOperation operation) {
+    LatencyHistograms.Histogram histogram = latencies.histogram(operation);
+    if (histogram.count() < settings.getMinSamples()) {
+      return null;
+    }
+    Duration percentile = histogram.percentile(settings.getPercentile());
+    return percentile == null ? null
+        : percentile.compareTo(settings.getMinDelay()) < 0 ? settings.getMinDelay() : percentile;
+  }
+
+  private <T> CompletableFuture<T> hedge(ApiOperation operation, Duration delay,
+      Supplier<CompletableFuture<T>> call) {
+    Race<T> race = new Race<>(operation);
+    race.start(call);
+    if (delay != null && !race.result.isDone()) {
+      CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> race.start(call));
+    }
+    return race.result;
+  }
+
+  /**
+   * Attempts of a single call, completed by the first one succeeding or
+   * with the error of the first attempt once all failed. Attempts still
+   * running when it completes are cancelled.
+   */
+  private final class Race<T> {
+    private final ApiOperation operation;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Throwable firstError;
+
+    private Race(ApiOperation operation) {
+      this.operation = operation;
+    }
+
+    private void start(Supplier<CompletableFuture<T>> call) {
+      if (result.isDone()) {
+        return;
+      }
+      boolean primary = started.getAndIncrement() == 0;
+      pending.incrementAndGet();
+      long start = System.nanoTime();
+      CompletableFuture<T> attempt;
+      try {
+        attempt = call.get();
+      } catch (RuntimeException e) {
+        attempt = CompletableFuture.failedFuture(e);
+      }
+      attempt.whenComplete((value, e) -> {
+        Throwable error = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (error == null) {
+          latencies.histogram(operation).record(System.nanoTime() - start);
+          result.complete(value);
+          return;
+        }
+        if (primary) {
+          firstError = error;
+        }
+        if (pending.decrementAndGet() == 0) {
+          result.completeExceptionally(firstError != null ? firstError : error);
+        }
+      });
+      CompletableFuture<T> self = attempt;
+      result.whenComplete((value, e) -> {
+        if (!self.isDone()) {
+          self.cancel(true);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,505 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * HttpApiClient
+ *
+ * {@link ApiClient} on {@code java.net.http}. A single {@link HttpClient} is
+ * shared by all requests, so connections are kept alive and pooled, and
+ * multiplexed when the server speaks HTTP/2. Requests are executed on virtual
+ * threads, the {@code *Async} variants complete on them too. Responses are
+ * deserialized straight from the response stream, array responses can be
+ * consumed element by element with {@link #getStream}. Readers and writers are
+ * resolved once per type and cached, the generated clients pass their
+ * response types as constants. Responses are asked for gzip or deflate
+ * compressed, request bodies are compressed when enabled, and operations
+ * whose spec lists Smile or CBOR exchange them instead of JSON, see
+ * {@link MediaFormats}. {@code GET} responses of operations with a
+ * {@link CachePolicy} are cached in a {@link HttpResponseCache}. Request
+ * bodies are streamed, see {@link RequestBodies}: {@code formData} with
+ * {@link FormPart}, {@code Path}, {@code InputStream} or {@code byte[]} values
+ * is sent as {@code multipart/form-data}. Cancelling the future of an
+ * {@code *Async} call aborts its exchange.
+ * Error statuses are reported as {@link HttpClientErrorException} and
+ * {@link HttpServerErrorException}, like {@code RestTemplate} does.
+ */
+public class HttpApiClient implements AsyncApiClient, AutoCloseable {
+
+  private final HttpClient httpClient;
+  private final ExecutorService executor;
+  private final Duration requestTimeout;
+  private final HttpResponseCache responseCache;
+  private final MediaFormats formats;
+  private final boolean compressResponses;
+  private final RequestBodies bodies;
+
+  public HttpApiClient(HttpClient httpClient, ObjectMapper objectMapper, Duration requestTimeout) {
+    this(httpClient, null, objectMapper, requestTimeout, null, new ApiClientProperties.Encoding());
+  }
+
+  /**
+   * @param responseCache cache of the operations with a {@link CachePolicy},
+   *                      {@code null} to disable caching
+   */
+  public HttpApiClient(HttpClient httpClient, ObjectMapper objectMapper, Duration requestTimeout,
+      HttpResponseCache responseCache) {
+    this(httpClient, null, objectMapper, requestTimeout, responseCache, new ApiClientProperties.Encoding());
+  }
+
+  private HttpApiClient(HttpClient httpClient, ExecutorService executor, ObjectMapper objectMapper,
+      Duration requestTimeout, HttpResponseCache responseCache, ApiClientProperties.Encoding encoding) {
+    this.httpClient = httpClient;
+    this.executor = executor;
+    this.requestTimeout = requestTimeout;
+    this.responseCache = responseCache;
+    this.formats = new MediaFormats(objectMapper, encoding.isBinaryFormats());
+    this.compressResponses = encoding.isCompressResponses();
+    this.bodies = new RequestBodies(httpClient.executor().orElse(ForkJoinPool.commonPool()),
+        encoding.isCompressRequests() ? encoding.getRequestCompressionThreshold().toBytes() : -1);
+  }
+
+  public static HttpApiClient create(ApiClientProperties properties, ObjectMapper objectMapper) {
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(properties.getVersion())
+        .connectTimeout(properties.getConnectTimeout())
+        .followRedirects(properties.isFollowRedirects() ? HttpClient.Redirect.NORMAL : HttpClient.Redirect.NEVER)
+        .executor(executor)
+        .build();
+    long cacheSize = properties.getCacheSize().toBytes();
+    return new HttpApiClient(httpClient, executor, objectMapper, properties.getRequestTimeout(),
+        cacheSize > 0 ? new HttpResponseCache(cacheSize) : null, properties.getEncoding());
+  }
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    return get(uri, headers, type, null);
+  }
+
+  /**
+   * Responses of operations with a {@link CachePolicy} are served from the
+   * cache while fresh, stale ones within {@code stale-while-revalidate} are
+   * served while being revalidated in the background, others are revalidated
+   * with {@code If-None-Match}/{@code If-Modified-Since}.
+   */
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type, ApiOperation operation) {
+    if (!isCached(operation, type)) {
+      return send(request(uri, headers, operation).GET(), type);
+    }
+    String key = HttpResponseCache.key(uri, headers, operation.cache().vary());
+    HttpResponseCache.Entry entry = responseCache.get(key, headers);
+    if (isServable(uri, headers, operation, key, entry)) {
+      return decode(entry, type);
+    }
+    return fetch(uri, headers, operation, key, entry, type);
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return post(uri, body, headers, type, null);
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return send(request(uri, headers, operation, "POST", requestBody(body, operation)), type);
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type) {
+    return post(uri, formData, headers, type, null);
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return send(request(uri, headers, operation, "POST", bodies.form(formData)), type);
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return put(uri, body, headers, type, null);
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return send(request(uri, headers, operation, "PUT", requestBody(body, operation)), type);
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType) {
+    return getStream(uri, headers, elementType, null);
+  }
+
+  /**
+   * Elements are read lazily from the response body, which stays open until
+   * the stream is closed.
+   */
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType,
+      ApiOperation operation) {
+    HttpRequest httpRequest = request(uri, headers, operation).GET().build();
+    HttpResponse<InputStream> response = execute(httpRequest);
+    InputStream body = response.body();
+    try {
+      body = content(response);
+      checkStatus(response, body);
+      MappingIterator<T> elements = format(response).reader(elementType).readValues(body);
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED), false)
+          .onClose(() -> {
+            try {
+              elements.close();
+            } catch (IOException e) {
+              throw ioError(httpRequest, e);
+            }
+          });
+    } catch (IOException | RuntimeException e) {
+      try {
+        body.close();
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e instanceof IOException io ? ioError(httpRequest, io) : (RuntimeException) e;
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    return getAsync(uri, headers, type, null);
+  }
+
+  /**
+   * Cached like {@link #get(URI, Map, TypeReference, ApiOperation)}, hits
+   * complete right away, misses and revalidations are fetched on the client
+   * executor.
+   */
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    if (!isCached(operation, type)) {
+      return sendAsync(request(uri, headers, operation).GET(), type);
+    }
+    String key = HttpResponseCache.key(uri, headers, operation.cache().vary());
+    HttpResponseCache.Entry entry = responseCache.get(key, headers);
+    try {
+      if (isServable(uri, headers, operation, key, entry)) {
+        return CompletableFuture.completedFuture(decode(entry, type));
+      }
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return CompletableFuture.supplyAsync(() -> fetch(uri, headers, operation, key, entry, type), executor())
+        .exceptionallyCompose(e -> CompletableFuture.failedFuture(
+            e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return postAsync(uri, body, headers, type, null);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return sendAsync(request(uri, headers, operation, "POST", requestBody(body, operation)), type);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type) {
+    return postAsync(uri, formData, headers, type, null);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type, ApiOperation operation) {
+    return sendAsync(request(uri, headers, operation, "POST", bodies.form(formData)), type);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return putAsync(uri, body, headers, type, null);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return sendAsync(request(uri, headers, operation, "PUT", requestBody(body, operation)), type);
+  }
+
+  @Override
+  public void close() {
+    httpClient.close();
+    if (executor != null) {
+      executor.close();
+    }
+  }
+
+  /**
+   * @param operation {@code null} for calls not made by a generated client
+   */
+  private HttpRequest.Builder request(URI uri, Map<String, String> headers, ApiOperation operation) {
+    HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+        .timeout(requestTimeout)
+        .header(HttpHeaders.ACCEPT, formats.accept(operation));
+    if (compressResponses) {
+      request.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+    }
+    if (headers != null) {
+      headers.forEach(request::setHeader);
+    }
+    return request;
+  }
+
+  private HttpRequest.Builder request(URI uri, Map<String, String> headers, ApiOperation operation, String method,
+      RequestBodies.Body body) {
+    HttpRequest.Builder request = request(uri, headers, operation).method(method, body.publisher())
+        .header(HttpHeaders.CONTENT_TYPE, body.contentType());
+    if (body.contentEncoding() != null) {
+      request.header(HttpHeaders.CONTENT_ENCODING, body.contentEncoding());
+    }
+    return request;
+  }
+
+  private <T> T send(HttpRequest.Builder request, TypeReference<T> type) {
+    HttpRequest httpRequest = request.build();
+    HttpResponse<InputStream> response = execute(httpRequest);
+    try (InputStream body = content(response)) {
+      return read(response, body, type);
+    } catch (IOException e) {
+      throw ioError(httpRequest, e);
+    }
+  }
+
+  private boolean isCached(ApiOperation operation, TypeReference<?> type) {
+    return responseCache != null && operation != null && operation.cache() != null
+        && type.getType() != HttpStatus.class;
+  }
+
+  /**
+   * Whether {@code entry} may be returned: while fresh, or while stale within
+   * {@code stale-while-revalidate}, in which case it is revalidated in the
+   * background.
+   */
+  private boolean isServable(URI uri, Map<String, String> headers, ApiOperation operation, String key,
+      HttpResponseCache.Entry entry) {
+    Instant now = Instant.now();
+    if (entry == null || !entry.isUsableStale(now)) {
+      return false;
+    }
+    if (!entry.isFresh(now) && entry.startRevalidation()) {
+      executor().execute(() -> {
+        try {
+          fetch(uri, headers, operation, key, entry, null);
+        } catch (RuntimeException e) {
+          entry.revalidationFailed();
+        }
+      });
+    }
+    return true;
+  }
+
+  private Executor executor() {
+    return httpClient.executor().orElse(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Body of a (conditional, when {@code cached}) request, updating the cache.
+   *
+   * @param type type the body is decoded into, {@code null} to only update
+   *             the cache
+   */
+  private <T> T fetch(URI uri, Map<String, String> headers, ApiOperation operation, String key,
+      HttpResponseCache.Entry cached, TypeReference<T> type) {
+    CachePolicy policy = operation.cache();
+    HttpRequest.Builder request = request(uri, headers, operation).GET();
+    if (cached != null && cached.etag() != null) {
+      request.header(HttpHeaders.IF_NONE_MATCH, cached.etag());
+    }
+    if (cached != null && cached.lastModified() != null) {
+      request.header(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+    }
+    HttpRequest httpRequest = request.build();
+    HttpResponse<InputStream> response = execute(httpRequest);
+    try (InputStream body = content(response)) {
+      Instant now = Instant.now();
+      if (cached != null && response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+        store(key, cached.refresh(response.headers(), policy, now));
+        return type == null ? null : decode(cached, type);
+      }
+      checkStatus(response, body);
+      byte[] content = body.readAllBytes();
+      store(key, HttpResponseCache.Entry.of(response.headers(), content, policy, now, headers));
+      return type == null ? null : decode(content, response.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+          .orElse(null), type);
+    } catch (IOException e) {
+      throw ioError(httpRequest, e);
+    }
+  }
+
+  private void store(String key, HttpResponseCache.Entry entry) {
+    if (entry == null) {
+      responseCache.remove(key);
+    } else {
+      responseCache.put(key, entry);
+    }
+  }
+
+  private <T> T decode(HttpResponseCache.Entry entry, TypeReference<T> type) {
+    return decode(entry.body(), entry.contentType(), type);
+  }
+
+  private <T> T decode(byte[] content, String contentType, TypeReference<T> type) {
+    try {
+      return content.length == 0 ? null : formats.response(contentType).reader(type).readValue(content);
+    } catch (IOException e) {
+      throw new ResourceAccessException("Could not read cached response: " + e.getMessage(), e);
+    }
+  }
+
+  private HttpResponse<InputStream> execute(HttpRequest httpRequest) {
+    try {
+      return httpClient.send(httpRequest, BodyHandlers.ofInputStream());
+    } catch (IOException e) {
+      throw ioError(httpRequest, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAccessException("Interrupted during %s request for \"%s\"".formatted(httpRequest.method(),
+          httpRequest.uri()), new InterruptedIOException(e.getMessage()));
+    }
+  }
+
+  /**
+   * Reading the body blocks, so it happens on the client executor (virtual
+   * threads when created with {@link #create}) rather than the caller.
+   */
+  private <T> CompletableFuture<T> sendAsync(HttpRequest.Builder request, TypeReference<T> type) {
+    HttpRequest httpRequest = request.build();
+    CompletableFuture<HttpResponse<InputStream>> exchange = httpClient.sendAsync(httpRequest,
+        BodyHandlers.ofInputStream());
+    CompletableFuture<T> result = exchange
+        .thenApplyAsync(response -> {
+          try (InputStream body = content(response)) {
+            return read(response, body, type);
+          } catch (IOException e) {
+            throw ioError(httpRequest, e);
+          }
+        }, executor())
+        .exceptionallyCompose(e -> CompletableFuture.failedFuture(unwrap(httpRequest, e)));
+    result.whenComplete((value, e) -> {
+      if (result.isCancelled()) {
+        exchange.cancel(true);
+      }
+    });
+    return result;
+  }
+
+  private static Throwable unwrap(HttpRequest httpRequest, Throwable e) {
+    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    return cause instanceof IOException io ? ioError(httpRequest, io) : cause;
+  }
+
+  private static ResourceAccessException ioError(HttpRequest httpRequest, IOException e) {
+    return new ResourceAccessException("I/O error on %s request for \"%s\": %s".formatted(httpRequest.method(),
+        httpRequest.uri(), e.getMessage() != null ? e.getMessage() : e), e);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T read(HttpResponse<InputStream> response, InputStream body, TypeReference<T> type) throws IOException {
+    checkStatus(response, body);
+    if (type.getType() == HttpStatus.class) {
+      return (T) HttpStatus.valueOf(response.statusCode());
+    }
+    PushbackInputStream content = new PushbackInputStream(body);
+    int first = content.read();
+    if (first == -1) {
+      return null;
+    }
+    content.unread(first);
+    return format(response).reader(type).readValue(content);
+  }
+
+  private MediaFormats.Format format(HttpResponse<InputStream> response) {
+    return formats.response(response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse(null));
+  }
+
+  /**
+   * Body of {@code response} decompressed according to its
+   * {@code Content-Encoding}, closed when it cannot be read.
+   */
+  private static InputStream content(HttpResponse<InputStream> response) throws IOException {
+    InputStream body = response.body();
+    if (response.statusCode() == HttpStatus.NO_CONTENT.value()
+        || response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+      return body;
+    }
+    try {
+      return switch (response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse("").trim()
+          .toLowerCase(Locale.ROOT)) {
+        case "gzip", "x-gzip" -> new GZIPInputStream(body, RequestBodies.CHUNK_SIZE);
+        case "deflate" -> new InflaterInputStream(body);
+        default -> body;
+      };
+    } catch (IOException e) {
+      body.close();
+      throw e;
+    }
+  }
+
+  private static void checkStatus(HttpResponse<InputStream> response, InputStream body) throws IOException {
+    HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+    if (status.isError()) {
+      HttpHeaders headers = new HttpHeaders();
+      response.headers().map().forEach(headers::addAll);
+      byte[] content = body.readAllBytes();
+      String statusText = status instanceof HttpStatus httpStatus ? httpStatus.getReasonPhrase() : "";
+      throw status.is4xxClientError()
+          ? HttpClientErrorException.create(status, statusText, headers, content, StandardCharsets.UTF_8)
+          : HttpServerErrorException.create(status, statusText, headers, content, StandardCharsets.UTF_8);
+    }
+  }
+
+  private RequestBodies.Body requestBody(Object body, ApiOperation operation) {
+    MediaFormats.Format format = formats.request(operation);
+    return bodies.json(body == null ? null : format.writer(body.getClass()), body, format.mediaType());
+  }
+}
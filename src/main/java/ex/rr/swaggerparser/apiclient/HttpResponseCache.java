@@ -0,0 +1,291 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * HttpResponseCache
+ *
+ * Response bodies of cached {@code GET} operations, least recently used
+ * entries are evicted once the bodies exceed {@code maxWeight} bytes. Bodies
+ * are kept as received, decompressed but still encoded in their
+ * {@code Content-Type}, so every hit is decoded into a new instance.
+ * Entries are keyed by the request's {@code Authorization}, and only match
+ * requests with the same values of the headers their response names in
+ * {@code Vary}; {@code Vary: *} responses and, unless the policy allows it,
+ * {@code Cache-Control: private} ones are not stored.
+ *
+ * @see CachePolicy
+ */
+public class HttpResponseCache {
+
+  /** Approximate size of an entry besides its body and key. */
+  private static final int ENTRY_OVERHEAD = 128;
+  private static final String AUTHORIZATION = "Authorization";
+
+  private final long maxWeight;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  public HttpResponseCache(long maxWeight) {
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Cached response of a request, along with the validators to revalidate it.
+   */
+  public static final class Entry {
+
+    private final byte[] body;
+    private final String contentType;
+    private final String etag;
+    private final String lastModified;
+    private final Instant freshUntil;
+    private final Instant staleUntil;
+    /** Request header values the response varies on, by lower case name. */
+    private final Map<String, String> varied;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+
+    private Entry(byte[] body, String contentType, String etag, String lastModified, Instant freshUntil,
+        Instant staleUntil, Map<String, String> varied) {
+      this.body = body;
+      this.contentType = contentType;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.freshUntil = freshUntil;
+      this.staleUntil = staleUntil;
+      this.varied = varied;
+    }
+
+    /**
+     * Entry of a response, {@code null} when it must not be stored or would
+     * never be usable.
+     *
+     * @param requestHeaders headers of the request, to match the response's
+     *                       {@code Vary} against later requests
+     */
+    public static Entry of(HttpHeaders headers, byte[] body, CachePolicy policy, Instant now,
+        Map<String, String> requestHeaders) {
+      Map<String, String> varied = new HashMap<>();
+      for (String value : headers.allValues("Vary")) {
+        for (String name : value.split(",")) {
+          String header = name.strip().toLowerCase(Locale.ROOT);
+          if (header.equals("*")) {
+            return null;
+          }
+          if (!header.isEmpty()) {
+            varied.put(header, header(requestHeaders, header));
+          }
+        }
+      }
+      return of(headers, body, policy, now, null, null, null, varied);
+    }
+
+    private static Entry of(HttpHeaders headers, byte[] body, CachePolicy policy, Instant now, String contentType,
+        String etag, String lastModified, Map<String, String> varied) {
+      Map<String, String> cacheControl = cacheControl(headers);
+      if (cacheControl.containsKey("no-store")
+          || cacheControl.containsKey("private") && !policy.cachePrivate()) {
+        return null;
+      }
+      String entryContentType = headers.firstValue("Content-Type").orElse(contentType);
+      String entryTag = headers.firstValue("ETag").orElse(etag);
+      String entryLastModified = headers.firstValue("Last-Modified").orElse(lastModified);
+      Instant freshUntil = freshUntil(headers, cacheControl, policy, now);
+      if (!freshUntil.isAfter(now) && entryTag == null && entryLastModified == null) {
+        return null;
+      }
+      Duration staleWhileRevalidate = cacheControl.containsKey("no-cache")
+          || cacheControl.containsKey("must-revalidate") ? Duration.ZERO
+              : max(policy.staleWhileRevalidate(), seconds(cacheControl.get("stale-while-revalidate")));
+      return new Entry(body, entryContentType, entryTag, entryLastModified, freshUntil,
+          freshUntil.plus(staleWhileRevalidate), varied);
+    }
+
+    /**
+     * Entry updated by a {@code 304 Not Modified} response to a request it
+     * matched.
+     */
+    public Entry refresh(HttpHeaders headers, CachePolicy policy, Instant now) {
+      return of(headers, body, policy, now, contentType, etag, lastModified, varied);
+    }
+
+    /**
+     * Whether a request with {@code requestHeaders} has the same values of
+     * the headers the response varies on.
+     */
+    public boolean matches(Map<String, String> requestHeaders) {
+      return varied.entrySet().stream()
+          .allMatch(header -> Objects.equals(header.getValue(), header(requestHeaders, header.getKey())));
+    }
+
+    public byte[] body() {
+      return body;
+    }
+
+    public String contentType() {
+      return contentType;
+    }
+
+    public String etag() {
+      return etag;
+    }
+
+    public String lastModified() {
+      return lastModified;
+    }
+
+    public boolean isFresh(Instant now) {
+      return now.isBefore(freshUntil);
+    }
+
+    /**
+     * Whether the entry may still be returned while it is revalidated.
+     */
+    public boolean isUsableStale(Instant now) {
+      return now.isBefore(staleUntil);
+    }
+
+    /**
+     * @return {@code false} when a revalidation is already running
+     */
+    public boolean startRevalidation() {
+      return revalidating.compareAndSet(false, true);
+    }
+
+    public void revalidationFailed() {
+      revalidating.set(false);
+    }
+
+    private long weight(String key) {
+      return body.length + 2L * key.length() + ENTRY_OVERHEAD;
+    }
+  }
+
+  /**
+   * {@code uri} along with the values of the {@code Authorization} header, so
+   * responses are never shared between credentials, and of the {@code vary}
+   * headers.
+   */
+  public static String key(URI uri, Map<String, String> headers, List<String> vary) {
+    if (headers == null || headers.isEmpty()) {
+      return uri.toString();
+    }
+    StringBuilder key = new StringBuilder(uri.toString());
+    appendHeader(key, headers, AUTHORIZATION);
+    vary.stream().filter(name -> !name.equalsIgnoreCase(AUTHORIZATION))
+        .forEach(name -> appendHeader(key, headers, name));
+    return key.toString();
+  }
+
+  /**
+   * Entry of {@code key}, {@code null} when there is none or it was stored
+   * for other values of the headers its response varies on.
+   */
+  public synchronized Entry get(String key, Map<String, String> requestHeaders) {
+    Entry entry = entries.get(key);
+    return entry != null && entry.matches(requestHeaders) ? entry : null;
+  }
+
+  public synchronized void put(String key, Entry entry) {
+    remove(key);
+    long entryWeight = entry.weight(key);
+    if (entryWeight > maxWeight) {
+      return;
+    }
+    entries.put(key, entry);
+    weight += entryWeight;
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while (weight > maxWeight && eldest.hasNext()) {
+      Map.Entry<String, Entry> evicted = eldest.next();
+      weight -= evicted.getValue().weight(evicted.getKey());
+      eldest.remove();
+    }
+  }
+
+  public synchronized void remove(String key) {
+    Entry removed = entries.remove(key);
+    if (removed != null) {
+      weight -= removed.weight(key);
+    }
+  }
+
+  public synchronized long weight() {
+    return weight;
+  }
+
+  private static void appendHeader(StringBuilder key, Map<String, String> headers, String name) {
+    String value = header(headers, name);
+    if (value != null) {
+      key.append('\n').append(name).append(':').append(value);
+    }
+  }
+
+  private static String header(Map<String, String> headers, String name) {
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+        if (header.getKey().equalsIgnoreCase(name)) {
+          return header.getValue();
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Instant freshUntil(HttpHeaders headers, Map<String, String> cacheControl, CachePolicy policy,
+      Instant now) {
+    if (cacheControl.containsKey("no-cache")) {
+      return now;
+    }
+    if (cacheControl.containsKey("max-age")) {
+      Duration age = seconds(headers.firstValue("Age").orElse(null));
+      return now.plus(seconds(cacheControl.get("max-age"))).minus(age);
+    }
+    return headers.firstValue("Expires").map(expires -> {
+      try {
+        return ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+      } catch (DateTimeParseException e) {
+        return now;
+      }
+    }).orElseGet(() -> now.plus(policy.ttl()));
+  }
+
+  private static Map<String, String> cacheControl(HttpHeaders headers) {
+    Map<String, String> directives = new HashMap<>();
+    headers.allValues("Cache-Control").forEach(value -> {
+      for (String directive : value.split(",")) {
+        int equals = directive.indexOf('=');
+        String name = (equals < 0 ? directive : directive.substring(0, equals)).strip().toLowerCase(Locale.ROOT);
+        if (!name.isEmpty()) {
+          directives.put(name, equals < 0 ? "" : directive.substring(equals + 1).strip().replace("\"", ""));
+        }
+      }
+    });
+    return directives;
+  }
+
+  private static Duration seconds(String value) {
+    try {
+      return value == null ? Duration.ZERO : Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+    } catch (NumberFormatException e) {
+      return Duration.ZERO;
+    }
+  }
+
+  private static Duration max(Duration a, Duration b) {
+    return a.compareTo(b) >= 0 ? a : b;
+  }
+}
@@ -0,0 +1,39 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * JavaTypeReference
+ *
+ * {@link TypeReference} of a class or an already constructed
+ * {@link JavaType}, used for the response type constants of the generated
+ * clients. Unlike {@code new TypeReference<List<Pet>>() {}} it needs no
+ * anonymous class per constant and no generic signature read by reflection.
+ */
+public final class JavaTypeReference<T> extends TypeReference<T> {
+
+  private final Type type;
+
+  private JavaTypeReference(Type type) {
+    this.type = type;
+  }
+
+  public static <T> TypeReference<T> of(Class<T> type) {
+    return new JavaTypeReference<>(type);
+  }
+
+  /**
+   * @param type e.g. {@code TypeFactory.defaultInstance().constructParametricType(List.class, Pet.class)}
+   */
+  public static <T> TypeReference<T> of(JavaType type) {
+    return new JavaTypeReference<>(type);
+  }
+
+  @Override
+  public Type getType() {
+    return type;
+  }
+}
@@ -0,0 +1,90 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * JsonCodecs
+ *
+ * Scalar reads used by the generated model codecs. The expected token is read
+ * directly, anything else (e.g. numbers sent as strings) is handed to the
+ * context so coercion behaves like Jackson's own deserializers.
+ */
+public final class JsonCodecs {
+
+  private JsonCodecs() {
+  }
+
+  /**
+   * Whether {@code null} properties are written, following the mapper's
+   * default property inclusion.
+   */
+  public static boolean writeNulls(SerializerProvider provider) {
+    JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion().getValueInclusion();
+    return inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+  }
+
+  public static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_STRING -> p.getText();
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, String.class);
+    };
+  }
+
+  public static Integer readInteger(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_NUMBER_INT -> p.getNumberType() == JsonParser.NumberType.INT ? Integer.valueOf(p.getIntValue())
+          : ctxt.readValue(p, Integer.class);
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, Integer.class);
+    };
+  }
+
+  public static Long readLong(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_NUMBER_INT -> p.getNumberType() != JsonParser.NumberType.BIG_INTEGER ? Long.valueOf(p.getLongValue())
+          : ctxt.readValue(p, Long.class);
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, Long.class);
+    };
+  }
+
+  public static BigInteger readBigInteger(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_NUMBER_INT -> p.getBigIntegerValue();
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, BigInteger.class);
+    };
+  }
+
+  public static Float readFloat(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> Float.valueOf(p.getFloatValue());
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, Float.class);
+    };
+  }
+
+  public static Double readDouble(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> Double.valueOf(p.getDoubleValue());
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, Double.class);
+    };
+  }
+
+  public static Boolean readBoolean(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return switch (p.currentToken()) {
+      case VALUE_TRUE -> Boolean.TRUE;
+      case VALUE_FALSE -> Boolean.FALSE;
+      case VALUE_NULL -> null;
+      default -> ctxt.readValue(p, Boolean.class);
+    };
+  }
+}
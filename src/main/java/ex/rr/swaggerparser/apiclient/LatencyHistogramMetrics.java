@@ -0,0 +1,50 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * LatencyHistogramMetrics
+ *
+ * Publishes the {@link LatencyHistograms} as {@value #METER} gauges in
+ * seconds, one per operation and percentile ({@code phi} tag), tagged like
+ * the {@link ObservedApiClient#OBSERVATION} timer, so the tail latency of
+ * every upstream operation can be alerted on. Percentiles cover all calls
+ * since the start and are the upper bound of their bucket, {@code NaN}
+ * before the first call. Bound to the {@code MeterRegistry} by Spring Boot
+ * when Micrometer is present.
+ */
+public class LatencyHistogramMetrics implements MeterBinder {
+
+  public static final String METER = "swaggerparser.client.latency";
+  private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+  private final LatencyHistograms histograms;
+
+  public LatencyHistogramMetrics(LatencyHistograms histograms) {
+    this.histograms = histograms;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    histograms.forEachHistogram((operation, histogram) -> {
+      Tags tags = Tags.of("client", String.valueOf(operation.client()), "operation", String.valueOf(operation.id()),
+          "method", String.valueOf(operation.method()), "path", String.valueOf(operation.path()));
+      for (double percentile : PERCENTILES) {
+        Gauge.builder(METER, histogram, h -> seconds(h.percentile(percentile)))
+            .tags(tags.and("phi", String.valueOf(percentile)))
+            .description("Latency percentile of the operation since the start")
+            .baseUnit("seconds")
+            .register(registry);
+      }
+    });
+  }
+
+  private static double seconds(Duration duration) {
+    return duration == null ? Double.NaN : duration.toNanos() / 1e9;
+  }
+}
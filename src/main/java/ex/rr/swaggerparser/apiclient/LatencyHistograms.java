@@ -0,0 +1,104 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * LatencyHistograms
+ *
+ * Latency of the calls per {@link ApiOperation}, recorded into fixed
+ * buckets growing by a quarter power of two from 250µs to about 65s, so
+ * percentiles are within 19% and recording is a bucket search and an
+ * increment. Enabled with {@code swaggerparser.client.latency-histograms},
+ * their percentiles are then published with Micrometer by
+ * {@link LatencyHistogramMetrics}.
+ *
+ * @see ObservedApiClient
+ */
+public class LatencyHistograms {
+
+  private static final long[] BOUNDS = new long[73];
+
+  static {
+    for (int i = 0; i < BOUNDS.length; i++) {
+      BOUNDS[i] = Math.round(250_000 * Math.pow(2, i / 4.0));
+    }
+  }
+
+  private final Map<ApiOperation, Histogram> histograms = new ConcurrentHashMap<>();
+  private final List<BiConsumer<ApiOperation, Histogram>> listeners = new CopyOnWriteArrayList<>();
+
+  public Histogram histogram(ApiOperation operation) {
+    Histogram histogram = histograms.get(operation);
+    return histogram != null ? histogram : histograms.computeIfAbsent(operation, o -> {
+      Histogram created = new Histogram();
+      listeners.forEach(listener -> listener.accept(o, created));
+      return created;
+    });
+  }
+
+  /**
+   * Passes every histogram to {@code listener}, the existing ones now and
+   * the ones of operations called for the first time when created. A
+   * histogram created meanwhile may be passed twice.
+   */
+  public void forEachHistogram(BiConsumer<ApiOperation, Histogram> listener) {
+    listeners.add(listener);
+    histograms.forEach(listener);
+  }
+
+  /**
+   * Histograms of the operations called so far.
+   */
+  public Map<ApiOperation, Histogram> histograms() {
+    return Map.copyOf(histograms);
+  }
+
+  public static class Histogram {
+
+    /** Counts per bucket, the last one counting everything above the bounds. */
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+
+    public void record(long nanos) {
+      int bucket = Arrays.binarySearch(BOUNDS, nanos);
+      counts.incrementAndGet(bucket < 0 ? -bucket - 1 : bucket);
+    }
+
+    public long count() {
+      long count = 0;
+      for (int i = 0; i < counts.length(); i++) {
+        count += counts.get(i);
+      }
+      return count;
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code percentile} (e.g.
+     * {@code 0.99}), {@code null} when nothing was recorded or it is above the
+     * largest bucket.
+     */
+    public Duration percentile(double percentile) {
+      long[] snapshot = new long[counts.length()];
+      long count = 0;
+      for (int i = 0; i < snapshot.length; i++) {
+        snapshot[i] = counts.get(i);
+        count += snapshot[i];
+      }
+      long rank = (long) Math.ceil(percentile * count);
+      long seen = 0;
+      for (int i = 0; i < BOUNDS.length; i++) {
+        seen += snapshot[i];
+        if (seen > 0 && seen >= rank) {
+          return Duration.ofNanos(BOUNDS[i]);
+        }
+      }
+      return null;
+    }
+  }
+}
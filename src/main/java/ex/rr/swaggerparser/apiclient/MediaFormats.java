@@ -0,0 +1,140 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * MediaFormats
+ *
+ * Formats the {@link HttpApiClient} reads and writes bodies in: JSON, plus
+ * Jackson Smile and CBOR when their dataformat modules are on the class
+ * path. A binary format is only used for operations whose spec lists it, in
+ * {@code produces} for responses and {@code consumes} for request bodies, and
+ * JSON stays acceptable as a fallback. The binary mappers are copies of the
+ * JSON one, so modules (e.g. the generated codecs) apply to all formats.
+ * Readers and writers are resolved once per format and type.
+ */
+final class MediaFormats {
+
+  static final String SMILE = "application/x-jackson-smile";
+  static final String CBOR = "application/cbor";
+
+  private final Format json;
+  /** Binary formats in order of preference. */
+  private final List<Format> binary = new ArrayList<>();
+
+  /**
+   * @param binaryFormats whether Smile and CBOR are used when available
+   */
+  MediaFormats(ObjectMapper objectMapper, boolean binaryFormats) {
+    this.json = new Format(MediaType.APPLICATION_JSON_VALUE, objectMapper);
+    ClassLoader classLoader = MediaFormats.class.getClassLoader();
+    if (binaryFormats && ClassUtils.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", classLoader)) {
+      binary.add(new Format(SMILE, BinaryMappers.smile(objectMapper)));
+    }
+    if (binaryFormats && ClassUtils.isPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", classLoader)) {
+      binary.add(new Format(CBOR, BinaryMappers.cbor(objectMapper)));
+    }
+  }
+
+  /**
+   * Bodies of one media type.
+   */
+  static final class Format {
+    private final String mediaType;
+    private final ObjectMapper mapper;
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private Format(String mediaType, ObjectMapper mapper) {
+      this.mediaType = mediaType;
+      this.mapper = mapper;
+    }
+
+    String mediaType() {
+      return mediaType;
+    }
+
+    ObjectReader reader(TypeReference<?> type) {
+      return readers.computeIfAbsent(type.getType(), t -> mapper.readerFor(type));
+    }
+
+    ObjectWriter writer(Class<?> type) {
+      return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+  }
+
+  /**
+   * {@code Accept} header of {@code operation}, its preferred binary format
+   * ahead of JSON when it produces one.
+   *
+   * @param operation {@code null} for calls not made by a generated client
+   */
+  String accept(ApiOperation operation) {
+    Format format = negotiate(operation == null ? null : operation.produces());
+    return format == json ? json.mediaType : format.mediaType + ", " + json.mediaType + ";q=0.9";
+  }
+
+  /**
+   * Format request bodies of {@code operation} are written in.
+   */
+  Format request(ApiOperation operation) {
+    return negotiate(operation == null ? null : operation.consumes());
+  }
+
+  /**
+   * Format of a response, JSON unless {@code contentType} is a supported
+   * binary format.
+   */
+  Format response(String contentType) {
+    if (contentType != null && !binary.isEmpty()) {
+      String mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+      for (Format format : binary) {
+        if (format.mediaType.equals(mediaType)) {
+          return format;
+        }
+      }
+    }
+    return json;
+  }
+
+  private Format negotiate(List<String> mediaTypes) {
+    if (mediaTypes != null && !binary.isEmpty()) {
+      for (Format format : binary) {
+        if (mediaTypes.stream().anyMatch(format.mediaType::equalsIgnoreCase)) {
+          return format;
+        }
+      }
+    }
+    return json;
+  }
+
+  /**
+   * Refers to the optional dataformat classes, only loaded once they are
+   * known to be present.
+   */
+  private static final class BinaryMappers {
+
+    private static ObjectMapper smile(ObjectMapper objectMapper) {
+      return objectMapper.copyWith(new SmileFactory());
+    }
+
+    private static ObjectMapper cbor(ObjectMapper objectMapper) {
+      return objectMapper.copyWith(new CBORFactory());
+    }
+  }
+}
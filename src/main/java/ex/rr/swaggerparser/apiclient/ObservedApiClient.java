@@ -0,0 +1,187 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * ObservedApiClient
+ *
+ * Observes every call of a generated operation as
+ * {@value #OBSERVATION}, tagged with the {@code client},
+ * {@code operation} id, {@code method} and {@code path} template of its
+ * {@link ApiOperation} and the {@code outcome}, {@code REJECTED} when over
+ * the {@link ConcurrencyLimitingApiClient concurrency limit}. With Micrometer
+ * metrics configured this publishes a timer, an in-flight {@code .active}
+ * timer and the failures by {@code error}. Latencies are also recorded into
+ * {@link LatencyHistograms} when given. Streams are observed until closed.
+ * Calls without an {@link ApiOperation} are passed through.
+ */
+public class ObservedApiClient extends ForwardingApiClient {
+
+  public static final String OBSERVATION = "swaggerparser.client.requests";
+
+  private final ObservationRegistry registry;
+  private final LatencyHistograms histograms;
+  private final Map<ApiOperation, KeyValues> tags = new ConcurrentHashMap<>();
+
+  /**
+   * @param histograms latencies by operation, {@code null} not to record them
+   */
+  public ObservedApiClient(AsyncApiClient delegate, ObservationRegistry registry, LatencyHistograms histograms) {
+    super(delegate);
+    this.registry = registry;
+    this.histograms = histograms;
+  }
+
+  private record Call(ApiOperation operation, Observation observation, long start) {
+  }
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type, ApiOperation operation) {
+    return observe(operation, () -> delegate.get(uri, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return observe(operation, () -> delegate.post(uri, body, headers, type, operation));
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return observe(operation, () -> delegate.post(uri, formData, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return observe(operation, () -> delegate.put(uri, body, headers, type, operation));
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType,
+      ApiOperation operation) {
+    if (operation == null) {
+      return delegate.getStream(uri, headers, elementType, operation);
+    }
+    Call call = start(operation);
+    try {
+      return delegate.getStream(uri, headers, elementType, operation).onClose(() -> stop(call, null));
+    } catch (RuntimeException e) {
+      stop(call, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return observeAsync(operation, () -> delegate.getAsync(uri, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return observeAsync(operation, () -> delegate.postAsync(uri, body, headers, type, operation));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type, ApiOperation operation) {
+    return observeAsync(operation, () -> delegate.postAsync(uri, formData, headers, type, operation));
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type,
+      ApiOperation operation) {
+    return observeAsync(operation, () -> delegate.putAsync(uri, body, headers, type, operation));
+  }
+
+  private <T> T observe(ApiOperation operation, Supplier<T> action) {
+    if (operation == null) {
+      return action.get();
+    }
+    Call call = start(operation);
+    T result;
+    try {
+      result = action.get();
+    } catch (RuntimeException e) {
+      stop(call, e);
+      throw e;
+    }
+    stop(call, null);
+    return result;
+  }
+
+  private <T> CompletableFuture<T> observeAsync(ApiOperation operation, Supplier<CompletableFuture<T>> action) {
+    if (operation == null) {
+      return action.get();
+    }
+    Call call = start(operation);
+    CompletableFuture<T> result;
+    try {
+      result = action.get();
+    } catch (RuntimeException e) {
+      stop(call, e);
+      throw e;
+    }
+    return result.whenComplete((value, e) -> stop(call,
+        e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+  }
+
+  private Call start(ApiOperation operation) {
+    Observation observation = registry.isNoop() ? Observation.NOOP
+        : Observation.createNotStarted(OBSERVATION, registry)
+            .lowCardinalityKeyValues(tags.computeIfAbsent(operation, ObservedApiClient::tags))
+            .contextualName(operation.id())
+            .start();
+    return new Call(operation, observation, histograms != null ? System.nanoTime() : 0);
+  }
+
+  private void stop(Call call, Throwable e) {
+    if (histograms != null) {
+      histograms.histogram(call.operation()).record(System.nanoTime() - call.start());
+    }
+    if (e != null) {
+      call.observation().error(e);
+    }
+    call.observation().lowCardinalityKeyValue(KeyValue.of("outcome", outcome(e))).stop();
+  }
+
+  private static KeyValues tags(ApiOperation operation) {
+    return KeyValues.of(
+        KeyValue.of("client", String.valueOf(operation.client())),
+        KeyValue.of("operation", String.valueOf(operation.id())),
+        KeyValue.of("method", String.valueOf(operation.method())),
+        KeyValue.of("path", String.valueOf(operation.path())));
+  }
+
+  private static String outcome(Throwable e) {
+    if (e == null) {
+      return "SUCCESS";
+    }
+    if (e instanceof HttpClientErrorException) {
+      return "CLIENT_ERROR";
+    }
+    if (e instanceof ConcurrencyLimitingApiClient.LimitExceededException) {
+      return "REJECTED";
+    }
+    return e instanceof HttpServerErrorException ? "SERVER_ERROR" : "UNKNOWN";
+  }
+}
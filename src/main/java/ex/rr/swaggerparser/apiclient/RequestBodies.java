@@ -0,0 +1,387 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * RequestBodies
+ *
+ * Request bodies of the {@link HttpApiClient}, written to the connection
+ * without holding the whole body in memory. JSON bodies are serialized into
+ * a pooled buffer and sent with their length when they fit, larger ones are
+ * serialized again while being sent, one chunk at a time as the connection
+ * asks for more. {@code formData} containing files ({@link FormPart},
+ * {@link Path}, {@link InputStream} or {@code byte[]} values) is sent as
+ * {@code multipart/form-data}, files are read while sent. JSON (or binary
+ * format) bodies of at least the compression threshold are sent gzip
+ * compressed, streamed ones always are when compression is enabled.
+ */
+final class RequestBodies {
+
+  /** Size of the pooled buffers and of the chunks of streamed bodies. */
+  static final int CHUNK_SIZE = 16 * 1024;
+  private static final int POOL_SIZE = 64;
+  private static final String CRLF = "\r\n";
+  private static final String GZIP = "gzip";
+
+  private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+  private final Executor executor;
+  private final long compressionThreshold;
+
+  /**
+   * @param executor             runs the serialization of streamed JSON
+   *                             bodies, which blocks while the connection is
+   *                             busy
+   * @param compressionThreshold size from which serialized bodies are sent
+   *                             gzip compressed, negative to never compress
+   */
+  RequestBodies(Executor executor, long compressionThreshold) {
+    this.executor = executor;
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  /**
+   * Body and the {@code Content-Type} it is sent with.
+   *
+   * @param contentEncoding {@code Content-Encoding}, {@code null} when sent as
+   *                        it is
+   */
+  record Body(BodyPublisher publisher, String contentType, String contentEncoding) {
+
+    Body(BodyPublisher publisher, String contentType) {
+      this(publisher, contentType, null);
+    }
+  }
+
+  /**
+   * {@code body} serialized by {@code writer} into {@code contentType},
+   * {@link Path}, {@link InputStream} and {@code byte[]} bodies are sent as
+   * they are.
+   */
+  Body json(ObjectWriter writer, Object body, String contentType) {
+    if (body == null) {
+      return new Body(BodyPublishers.noBody(), contentType);
+    }
+    BodyPublisher raw = raw(body, -1);
+    if (raw != null) {
+      return new Body(raw, contentType);
+    }
+    byte[] buffer = buffers.poll();
+    BufferOutputStream out = new BufferOutputStream(buffer != null ? buffer : new byte[CHUNK_SIZE]);
+    try {
+      writer.writeValue(out, body);
+      if (compressionThreshold >= 0 && out.count >= compressionThreshold) {
+        return new Body(BodyPublishers.ofByteArray(gzip(out.buffer, out.count)), contentType, GZIP);
+      }
+      return new Body(BodyPublishers.ofByteArray(Arrays.copyOf(out.buffer, out.count)), contentType);
+    } catch (IOException e) {
+      if (!out.overflowed) {
+        throw new IllegalArgumentException("Could not serialize request body", e);
+      }
+      if (compressionThreshold >= 0) {
+        return new Body(new StreamingPublisher(stream -> {
+          try (GZIPOutputStream gzip = new GZIPOutputStream(stream, CHUNK_SIZE)) {
+            writer.writeValue(gzip, body);
+          }
+        }), contentType, GZIP);
+      }
+      return new Body(new StreamingPublisher(stream -> writer.writeValue(stream, body)), contentType);
+    } finally {
+      buffers.offer(out.buffer);
+    }
+  }
+
+  private static byte[] gzip(byte[] buffer, int count) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(count / 4, 64));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(buffer, 0, count);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not compress request body", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  Body form(Map<String, Object> formData) {
+    if (formData == null) {
+      return new Body(BodyPublishers.noBody(), MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+    }
+    if (formData.values().stream().anyMatch(RequestBodies::isFile)) {
+      return multipart(formData);
+    }
+    return new Body(BodyPublishers.ofString(formData.entrySet().stream()
+        .filter(e -> e.getValue() != null)
+        .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+            + URLEncoder.encode(e.getValue().toString(), StandardCharsets.UTF_8))
+        .collect(Collectors.joining("&"))), MediaType.APPLICATION_FORM_URLENCODED_VALUE);
+  }
+
+  private static boolean isFile(Object value) {
+    return value instanceof FormPart || value instanceof Path || value instanceof InputStream
+        || value instanceof byte[];
+  }
+
+  /**
+   * Parts are concatenated publishers, so the length is known unless a part
+   * is a stream of unknown length.
+   */
+  private Body multipart(Map<String, Object> formData) {
+    String boundary = "swaggerparser-" + HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+    List<BodyPublisher> parts = new ArrayList<>();
+    formData.forEach((name, value) -> {
+      if (value == null) {
+        return;
+      }
+      StringBuilder head = new StringBuilder("--").append(boundary).append(CRLF)
+          .append("Content-Disposition: form-data; name=\"").append(escape(name)).append('"');
+      FormPart part = switch (value) {
+        case FormPart formPart -> formPart;
+        case Path file -> FormPart.of(file);
+        case InputStream stream -> FormPart.of(name, FormPart.OCTET_STREAM, stream);
+        case byte[] bytes -> FormPart.of(name, FormPart.OCTET_STREAM, bytes);
+        default -> null;
+      };
+      if (part == null) {
+        parts.add(BodyPublishers.ofString(head.append(CRLF).append(CRLF).append(value).append(CRLF).toString()));
+        return;
+      }
+      head.append("; filename=\"").append(escape(part.filename())).append('"').append(CRLF)
+          .append("Content-Type: ").append(part.contentType() != null ? part.contentType() : FormPart.OCTET_STREAM)
+          .append(CRLF).append(CRLF);
+      parts.add(BodyPublishers.ofString(head.toString()));
+      parts.add(raw(part.content(), part.length()));
+      parts.add(BodyPublishers.ofString(CRLF));
+    });
+    parts.add(BodyPublishers.ofString("--" + boundary + "--" + CRLF));
+    return new Body(BodyPublishers.concat(parts.toArray(BodyPublisher[]::new)),
+        MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=" + boundary);
+  }
+
+  /**
+   * Content sent as it is, {@code null} when {@code content} is none of the
+   * supported sources.
+   */
+  private static BodyPublisher raw(Object content, long length) {
+    return switch (content) {
+      case byte[] bytes -> BodyPublishers.ofByteArray(bytes);
+      case Path file -> {
+        try {
+          yield BodyPublishers.ofFile(file);
+        } catch (FileNotFoundException e) {
+          throw new IllegalArgumentException("Could not read request body " + file, e);
+        }
+      }
+      case InputStream stream -> length < 0 ? BodyPublishers.ofInputStream(() -> stream)
+          : BodyPublishers.fromPublisher(BodyPublishers.ofInputStream(() -> stream), length);
+      default -> null;
+    };
+  }
+
+  /**
+   * Quotes and line breaks of field and file names, encoded like browsers
+   * do.
+   */
+  private static String escape(String name) {
+    return name.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+  }
+
+  @FunctionalInterface
+  private interface Content {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Writes into a fixed buffer, failing once it is full.
+   */
+  private static final class BufferOutputStream extends OutputStream {
+    private final byte[] buffer;
+    private int count;
+    private boolean overflowed;
+
+    private BufferOutputStream(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      ensureCapacity(1);
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      ensureCapacity(len);
+      System.arraycopy(b, off, buffer, count, len);
+      count += len;
+    }
+
+    private void ensureCapacity(int len) throws IOException {
+      if (count + len > buffer.length) {
+        overflowed = true;
+        throw new IOException("Request body exceeds " + buffer.length + " bytes");
+      }
+    }
+  }
+
+  /**
+   * Body of unknown length written by {@link Content} on the executor once
+   * subscribed, sent in chunks of {@link #CHUNK_SIZE} bytes. Writing blocks
+   * until the subscriber requests another chunk.
+   */
+  private final class StreamingPublisher implements BodyPublisher {
+    private final Content content;
+
+    private StreamingPublisher(Content content) {
+      this.content = content;
+    }
+
+    @Override
+    public long contentLength() {
+      return -1;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      ChunkSubscription subscription = new ChunkSubscription(subscriber);
+      subscriber.onSubscribe(subscription);
+      executor.execute(() -> subscription.run(content));
+    }
+  }
+
+  private static final class ChunkSubscription extends OutputStream implements Flow.Subscription {
+    private final Flow.Subscriber<? super ByteBuffer> subscriber;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition requested = lock.newCondition();
+    private long demand;
+    private boolean cancelled;
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int count;
+
+    private ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      lock.lock();
+      try {
+        demand = n <= 0 || demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        requested.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      lock.lock();
+      try {
+        cancelled = true;
+        requested.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void run(Content content) {
+      try {
+        content.writeTo(this);
+        if (count > 0) {
+          emit();
+        }
+        subscriber.onComplete();
+      } catch (IOException | RuntimeException e) {
+        if (!isCancelled()) {
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      chunk[count++] = (byte) b;
+      if (count == chunk.length) {
+        emit();
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        int n = Math.min(len, chunk.length - count);
+        System.arraycopy(b, off, chunk, count, n);
+        count += n;
+        off += n;
+        len -= n;
+        if (count == chunk.length) {
+          emit();
+        }
+      }
+    }
+
+    /**
+     * Left open for the subscriber, the body is complete once written.
+     */
+    @Override
+    public void close() {
+    }
+
+    private void emit() throws IOException {
+      lock.lock();
+      try {
+        while (demand == 0 && !cancelled) {
+          requested.await();
+        }
+        if (cancelled) {
+          throw new IOException("Request body cancelled");
+        }
+        demand--;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while sending request body");
+      } finally {
+        lock.unlock();
+      }
+      subscriber.onNext(ByteBuffer.wrap(chunk, 0, count));
+      chunk = new byte[CHUNK_SIZE];
+      count = 0;
+    }
+
+    private boolean isCancelled() {
+      lock.lock();
+      try {
+        return cancelled;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,342 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.With;
+
+/**
+ * StubServer
+ *
+ * Serves a sample response for every operation of a spec on the JDK
+ * {@link HttpServer}, so generated clients can be load tested offline, see
+ * the {@code <Name>StubServer} generated with
+ * {@code @SwaggerClient(stubServer = true)} and the {@code LoadBenchmark} of
+ * the benchmark profile.
+ * Samples are built once per operation from the properties Jackson sees on
+ * the response type, so they conform to the generated models, and are
+ * encoded in the format and compression the client asks for (see
+ * {@link MediaFormats}). Every request waits the configured latency and
+ * fails with the configured error rate. Requests are handled on virtual
+ * threads. The server speaks HTTP/1.1 only, HTTP/2 clients fall back to it.
+ */
+public class StubServer implements AutoCloseable {
+
+  private static final Pattern PATH_VARIABLE = Pattern.compile("\\{[^}]+}");
+  /** Depth of nested models in a sample, deeper (recursive) ones are {@code null}. */
+  private static final int MAX_DEPTH = 5;
+
+  /**
+   * @param port        port to listen on, {@code 0} for any free port
+   * @param latency     time every request waits before it is answered
+   * @param jitter      random time up to which is added to the latency
+   * @param errorRate   share of the requests failed with {@code errorStatus},
+   *                    from {@code 0} to {@code 1}
+   * @param errorStatus status of the failed requests
+   * @param compression whether responses are gzip compressed when the client
+   *                    accepts it
+   */
+  @With
+  public record Settings(int port, Duration latency, Duration jitter, double errorRate, int errorStatus,
+      boolean compression) {
+
+    public static final Settings DEFAULT = new Settings(0, Duration.ZERO, Duration.ZERO, 0,
+        HttpStatus.SERVICE_UNAVAILABLE.value(), true);
+  }
+
+  /**
+   * @param sample   response body, {@code null} when the operation responds
+   *                 without one
+   * @param produces media types of the response declared by the spec
+   * @param bodies   encoded sample by media type and compression
+   */
+  private record Route(String method, String path, Pattern pattern, JsonNode sample, List<String> produces,
+      Map<String, byte[]> bodies) {
+  }
+
+  private final Settings settings;
+  private final String basePath;
+  private final ObjectMapper objectMapper;
+  private final MediaFormats formats;
+  /** Routes by method and path, for paths without variables. */
+  private final Map<String, Route> literalRoutes = new HashMap<>();
+  private final List<Route> templateRoutes = new ArrayList<>();
+  private HttpServer server;
+  private ExecutorService executor;
+
+  /**
+   * @param basePath path the operations are served under, e.g. {@code /v2}
+   */
+  public StubServer(Settings settings, ObjectMapper objectMapper, String basePath) {
+    this.settings = settings;
+    this.basePath = basePath == null || basePath.equals("/") ? "" : basePath.replaceAll("/$", "");
+    this.objectMapper = objectMapper;
+    this.formats = new MediaFormats(objectMapper, true);
+  }
+
+  /**
+   * Answers {@code method} requests of {@code path} with a sample of
+   * {@code type}.
+   *
+   * @param path     path template of the spec, e.g. {@code /pet/{petId}}
+   * @param type     response type, {@code null} to answer without a body
+   * @param produces media types of the response declared by the spec
+   */
+  public StubServer route(String method, String path, TypeReference<?> type, List<String> produces) {
+    JsonNode sample = type == null || type.getType() == HttpStatus.class ? null
+        : sample(objectMapper.getTypeFactory().constructType(type), 0);
+    Route route = new Route(method, basePath + path, pattern(basePath + path), sample,
+        produces == null ? List.of() : produces, new ConcurrentHashMap<>());
+    if (PATH_VARIABLE.matcher(path).find()) {
+      templateRoutes.add(route);
+    } else {
+      literalRoutes.put(method + " " + route.path(), route);
+    }
+    return this;
+  }
+
+  public StubServer start() {
+    try {
+      server = HttpServer.create(new InetSocketAddress(settings.port()), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not start stub server on port " + settings.port(), e);
+    }
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+    return this;
+  }
+
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * URL to configure as the client's {@code <name>-baseUrl}.
+   */
+  public String baseUrl() {
+    return "http://localhost:" + port() + basePath;
+  }
+
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(0);
+      executor.close();
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+      Route route = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+      if (route == null) {
+        exchange.sendResponseHeaders(HttpStatus.NOT_FOUND.value(), -1);
+        return;
+      }
+      delay();
+      if (settings.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+        exchange.sendResponseHeaders(settings.errorStatus(), -1);
+        return;
+      }
+      if (route.sample() == null) {
+        exchange.sendResponseHeaders(HttpStatus.OK.value(), -1);
+        return;
+      }
+      MediaFormats.Format format = format(route, exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT));
+      boolean gzip = settings.compression() && accepts(exchange.getRequestHeaders().getFirst(
+          HttpHeaders.ACCEPT_ENCODING), "gzip");
+      String key = format.mediaType() + (gzip ? ";gzip" : "");
+      byte[] body = route.bodies().get(key);
+      if (body == null) {
+        byte[] encoded = encode(format, route.sample());
+        body = gzip ? gzip(encoded) : encoded;
+        route.bodies().putIfAbsent(key, body);
+      }
+      exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, format.mediaType());
+      if (gzip) {
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+      }
+      exchange.sendResponseHeaders(HttpStatus.OK.value(), body.length);
+      exchange.getResponseBody().write(body);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private Route route(String method, String path) {
+    Route route = literalRoutes.get(method + " " + path);
+    if (route != null) {
+      return route;
+    }
+    for (Route template : templateRoutes) {
+      if (template.method().equals(method) && template.pattern().matcher(path).matches()) {
+        return template;
+      }
+    }
+    return null;
+  }
+
+  private void delay() throws InterruptedIOException {
+    long nanos = settings.latency().toNanos();
+    if (!settings.jitter().isZero()) {
+      nanos += ThreadLocalRandom.current().nextLong(settings.jitter().toNanos() + 1);
+    }
+    if (nanos > 0) {
+      try {
+        Thread.sleep(Duration.ofNanos(nanos));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while delaying the response");
+      }
+    }
+  }
+
+  /**
+   * Binary format the client prefers and the operation produces, JSON
+   * otherwise.
+   */
+  private MediaFormats.Format format(Route route, String accept) {
+    if (accept != null) {
+      MediaFormats.Format format = formats.response(accept.split(",", 2)[0]);
+      if (route.produces().stream().anyMatch(format.mediaType()::equalsIgnoreCase)) {
+        return format;
+      }
+    }
+    return formats.response(null);
+  }
+
+  private static boolean accepts(String header, String value) {
+    if (header == null) {
+      return false;
+    }
+    for (String part : header.split(",")) {
+      if (part.split(";", 2)[0].trim().equalsIgnoreCase(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Pattern pattern(String path) {
+    StringBuilder regex = new StringBuilder();
+    Matcher variable = PATH_VARIABLE.matcher(path);
+    int literalStart = 0;
+    while (variable.find()) {
+      regex.append(Pattern.quote(path.substring(literalStart, variable.start()))).append("[^/]+");
+      literalStart = variable.end();
+    }
+    return Pattern.compile(regex.append(Pattern.quote(path.substring(literalStart))).toString());
+  }
+
+  private static byte[] encode(MediaFormats.Format format, JsonNode sample) {
+    try {
+      return format.writer(JsonNode.class).writeValueAsBytes(sample);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not encode sample as " + format.mediaType(), e);
+    }
+  }
+
+  private static byte[] gzip(byte[] content) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(content.length / 4, 64));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(content);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not compress sample", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Sample of {@code type}: one element per array, one entry per map and
+   * every property of a model. Enums take their first constant, dates and
+   * other values are written by the mapper so they read back.
+   */
+  private JsonNode sample(JavaType type, int depth) {
+    JsonNodeFactory nodes = objectMapper.getNodeFactory();
+    if (depth > MAX_DEPTH) {
+      return nodes.nullNode();
+    }
+    if (type.isArrayType() || type.isCollectionLikeType()) {
+      ArrayNode array = nodes.arrayNode();
+      return array.add(sample(type.getContentType(), depth + 1));
+    }
+    if (type.isMapLikeType()) {
+      ObjectNode map = nodes.objectNode();
+      return map.set("key", sample(type.getContentType(), depth + 1));
+    }
+    Class<?> raw = type.getRawClass();
+    if (raw == String.class || raw == Object.class) {
+      return nodes.textNode("string");
+    }
+    if (raw == Boolean.class || raw == boolean.class) {
+      return nodes.booleanNode(true);
+    }
+    if (raw == Integer.class || raw == int.class || raw == Long.class || raw == long.class
+        || raw == BigInteger.class || raw == Short.class || raw == short.class) {
+      return nodes.numberNode(1);
+    }
+    if (raw == Float.class || raw == float.class || raw == Double.class || raw == double.class
+        || raw == BigDecimal.class) {
+      return nodes.numberNode(1.5);
+    }
+    if (raw.isEnum()) {
+      return objectMapper.valueToTree(raw.getEnumConstants()[0]);
+    }
+    if (raw == UUID.class) {
+      return objectMapper.valueToTree(new UUID(0, 1));
+    }
+    if (raw == LocalDate.class) {
+      return objectMapper.valueToTree(LocalDate.of(2024, 1, 1));
+    }
+    if (raw == LocalDateTime.class) {
+      return objectMapper.valueToTree(LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+    if (raw == OffsetDateTime.class) {
+      return objectMapper.valueToTree(OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC));
+    }
+    BeanDescription bean = objectMapper.getSerializationConfig().introspect(type);
+    ObjectNode model = nodes.objectNode();
+    bean.findProperties().forEach(property -> model.set(property.getName(),
+        sample(property.getPrimaryType(), depth + 1)));
+    return model;
+  }
+}
@@ -0,0 +1,42 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.palantir.javapoet.JavaFile;
+
+class RuntimeHintsGeneratorTest {
+
+  private static final SpecTarget TARGET = new SpecTarget(null, null, "Demo", "demo.Demo", "demo.generated.demo", "",
+      false, SharedModels.none());
+
+  private static String generate(List<String> types) {
+    return JavaFile.builder(TARGET.packageName(), RuntimeHintsGenerator.generate(TARGET, types)).build().toString();
+  }
+
+  @Test
+  void registersClassLiterals() {
+    String source = generate(List.of("demo.generated.demo.DemoApiClient", "demo.generated.shared.Pet"));
+
+    assertThat(source).contains("public class DemoRuntimeHints implements RuntimeHintsRegistrar",
+        "register0(hints);", "DemoApiClient.class", "Pet.class", "import demo.generated.shared.Pet;")
+        .doesNotContain("\"demo.generated");
+  }
+
+  @Test
+  void splitsRegistrationOfLargeSpecs() {
+    String source = generate(IntStream.range(0, 1200).mapToObj(i -> "demo.generated.demo.Model" + i).toList());
+
+    assertThat(source).contains("register0(hints);", "register1(hints);", "register2(hints);", "Model1199.class")
+        .doesNotContain("register3(");
+  }
+
+  @Test
+  void compilesWithoutTypes() {
+    assertThat(generate(List.of())).contains("GeneratedRuntimeHints.register(hints);");
+  }
+}
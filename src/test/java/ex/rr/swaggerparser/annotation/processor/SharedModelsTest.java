@@ -0,0 +1,138 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ex.rr.swaggerparser.annotation.ModelStyle;
+import ex.rr.swaggerparser.annotation.Type;
+
+class SharedModelsTest {
+
+  private static final String SHARED = "demo.generated.shared";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final Map<String, Object> TAG = Map.of("type", "object",
+      "properties", Map.of("name", Map.of("type", "string")));
+  private static final Map<String, Object> PET = Map.of("type", "object",
+      "properties", Map.of("name", Map.of("type", "string"), "tag", Map.of("$ref", "#/definitions/Tag")));
+
+  private static SpecTarget target(String qualifiedName) {
+    return TestTargets.target(qualifiedName, Map.of("type", Type.SWAGGER, "location", qualifiedName));
+  }
+
+  private static Map<String, SharedModels.Node> nodes(Object... namesAndSchemas) {
+    Map<String, SharedModels.Node> nodes = new LinkedHashMap<>();
+    for (int i = 0; i < namesAndSchemas.length; i += 2) {
+      nodes.put((String) namesAndSchemas[i], SharedModels.Node.of(MAPPER, namesAndSchemas[i + 1]));
+    }
+    return nodes;
+  }
+
+  @Test
+  void sharesIdenticalSchemasOwnedByFirstClass() {
+    SpecTarget store = target("demo.Store");
+    SpecTarget admin = target("demo.Admin");
+
+    SharedModels shared = SharedModels.plan(SHARED, Map.of(
+        store, nodes("Pet", PET, "Tag", TAG),
+        admin, nodes("Pet", PET, "Tag", TAG, "User", TAG)));
+
+    assertThat(shared.names(store)).containsExactly("Pet", "Tag");
+    assertThat(shared.names(admin)).containsExactly("Pet", "Tag");
+    assertThat(shared.isOwner(admin, "Pet")).isTrue();
+    assertThat(shared.isOwner(store, "Pet")).isFalse();
+    assertThat(shared.isShared(admin, "User")).isFalse();
+  }
+
+  @Test
+  void ignoresDocumentationKeywords() {
+    Map<String, Object> documented = Map.of("type", "object", "description", "A tag",
+        "properties", Map.of("name", Map.of("type", "string", "example", "dog")));
+
+    assertThat(SharedModels.Node.of(MAPPER, documented)).isEqualTo(SharedModels.Node.of(MAPPER, TAG));
+  }
+
+  @Test
+  void keepsPropertiesNamedLikeDocumentationKeywords() {
+    Map<String, Object> titled = Map.of("type", "object", "properties", Map.of("title", Map.of("type", "string")));
+
+    Map<String, Object> untitled = Map.of("type", "object", "properties", Map.of());
+
+    assertThat(SharedModels.Node.of(MAPPER, titled)).isNotEqualTo(SharedModels.Node.of(MAPPER, untitled));
+  }
+
+  @Test
+  void doesNotShareSchemasReferringToDifferentSchemas() {
+    SpecTarget store = target("demo.Store");
+    SpecTarget admin = target("demo.Admin");
+    Map<String, Object> otherTag = Map.of("type", "object", "properties", Map.of("id", Map.of("type", "integer")));
+
+    SharedModels shared = SharedModels.plan(SHARED, Map.of(
+        store, nodes("Pet", PET, "Tag", TAG),
+        admin, nodes("Pet", PET, "Tag", otherTag)));
+
+    assertThat(shared.names(store)).isEmpty();
+    assertThat(shared.names(admin)).isEmpty();
+  }
+
+  @Test
+  void sharesVariantUsedByMostClasses() {
+    SpecTarget a = target("demo.A");
+    SpecTarget b = target("demo.B");
+    SpecTarget c = target("demo.C");
+    Map<String, Object> otherTag = Map.of("type", "object", "properties", Map.of("id", Map.of("type", "integer")));
+
+    SharedModels shared = SharedModels.plan(SHARED, Map.of(
+        a, nodes("Tag", otherTag),
+        b, nodes("Tag", TAG),
+        c, nodes("Tag", TAG)));
+
+    assertThat(shared.isShared(a, "Tag")).isFalse();
+    assertThat(shared.isShared(b, "Tag")).isTrue();
+    assertThat(shared.isOwner(b, "Tag")).isTrue();
+    assertThat(shared.isShared(c, "Tag")).isTrue();
+  }
+
+  @Test
+  void sharesCyclicSchemas() {
+    Map<String, Object> node = Map.of("type", "object",
+        "properties", Map.of("children", Map.of("type", "array", "items", Map.of("$ref", "#/definitions/Node"))));
+    SpecTarget store = target("demo.Store");
+    SpecTarget admin = target("demo.Admin");
+
+    SharedModels shared = SharedModels.plan(SHARED, Map.of(store, nodes("Node", node), admin, nodes("Node", node)));
+
+    assertThat(shared.names(store)).containsExactly("Node");
+  }
+
+  @Test
+  void doesNotShareBetweenModelStyles() {
+    SpecTarget store = target("demo.Store");
+    SpecTarget admin = TestTargets.target("demo.Admin", Map.of("type", Type.SWAGGER, "location", "admin",
+        "modelStyle", ModelStyle.RECORD));
+
+    SharedModels shared = SharedModels.plan(SHARED, Map.of(store, nodes("Tag", TAG), admin, nodes("Tag", TAG)));
+
+    assertThat(shared.names(store)).isEmpty();
+  }
+
+  @Test
+  void targetsUseSharedPackageForSharedModels() {
+    SpecTarget store = target("demo.Store");
+    SpecTarget admin = target("demo.Admin");
+    SharedModels shared = SharedModels.plan(SHARED, Map.of(store, nodes("Tag", TAG), admin, nodes("Tag", TAG)));
+
+    SpecTarget sharing = store.withShared(shared);
+
+    assertThat(sharing.modelPackage("Tag")).isEqualTo(SHARED);
+    assertThat(sharing.modelPackage("Pet")).isEqualTo("demo.generated.store");
+    assertThat(sharing.generates("Tag")).isFalse();
+    assertThat(admin.withShared(shared).generates("Tag")).isTrue();
+  }
+}
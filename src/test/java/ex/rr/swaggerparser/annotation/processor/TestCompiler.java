@@ -0,0 +1,86 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import com.palantir.javapoet.JavaFile;
+import com.palantir.javapoet.TypeSpec;
+
+/**
+ * TestCompiler
+ *
+ * Compiles generated classes, plus hand-written sources they depend on,
+ * against the test class path and loads them.
+ */
+public final class TestCompiler {
+
+  private final Path directory;
+  private final List<Path> sources = new ArrayList<>();
+
+  public TestCompiler(Path directory) {
+    this.directory = directory;
+  }
+
+  public TestCompiler add(String packageName, TypeSpec type) {
+    try {
+      sources.add(JavaFile.builder(packageName, type).build().writeToPath(directory.resolve("src")));
+      return this;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @param qualifiedName name of the single top level class of {@code source}
+   */
+  public TestCompiler add(String qualifiedName, String source) {
+    try {
+      Path file = directory.resolve("src").resolve(qualifiedName.replace('.', '/') + ".java");
+      Files.createDirectories(file.getParent());
+      sources.add(Files.writeString(file, source));
+      return this;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @throws AssertionError with the compiler output when compilation fails
+   */
+  public ClassLoader compile() {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    Path classes = directory.resolve("classes");
+    StringWriter output = new StringWriter();
+    List<String> arguments = new ArrayList<>(List.of("-proc:none", "-classpath",
+        System.getProperty("java.class.path"), "-d", classes.toString()));
+    try {
+      Files.createDirectories(classes);
+      boolean compiled = compiler.getTask(output, null, null, arguments, null,
+          compiler.getStandardFileManager(null, null, null).getJavaFileObjectsFromPaths(sources)).call();
+      if (!compiled) {
+        throw new AssertionError("Compilation failed:\n" + output + "\n" + sources());
+      }
+      return new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private String sources() throws IOException {
+    StringBuilder out = new StringBuilder();
+    for (Path source : sources) {
+      out.append(source).append(":\n").append(Files.readString(source)).append('\n');
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,41 @@
+package ex.rr.swaggerparser.annotation.processor;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import ex.rr.swaggerparser.annotation.SwaggerClient;
+
+/**
+ * TestTargets
+ *
+ * {@link SpecTarget}s of {@code @SwaggerClient} classes that only exist in
+ * tests, their annotation values defaulting like the compiler does.
+ */
+public final class TestTargets {
+
+  private TestTargets() {
+  }
+
+  /**
+   * @param qualifiedName e.g. {@code demo.PetStore}, its classes are generated
+   *                      into {@code demo.generated.petstore}
+   * @param values        annotation values besides the defaults
+   */
+  public static SpecTarget target(String qualifiedName, Map<String, Object> values) {
+    String name = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+    return new SpecTarget(null, annotation(values), name, qualifiedName,
+        packageName + ".generated." + name.toLowerCase(), values.toString(), false, SharedModels.none());
+  }
+
+  public static SwaggerClient annotation(Map<String, Object> values) {
+    return (SwaggerClient) Proxy.newProxyInstance(SwaggerClient.class.getClassLoader(),
+        new Class<?>[] { SwaggerClient.class }, (proxy, method, args) -> switch (method.getName()) {
+          case "annotationType" -> SwaggerClient.class;
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "toString" -> "@SwaggerClient" + values;
+          default -> values.containsKey(method.getName()) ? values.get(method.getName()) : method.getDefaultValue();
+        });
+  }
+}
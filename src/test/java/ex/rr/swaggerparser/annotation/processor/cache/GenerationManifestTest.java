@@ -0,0 +1,81 @@
+package ex.rr.swaggerparser.annotation.processor.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class GenerationManifestTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @TempDir
+  Path dir;
+
+  private Path file() {
+    return dir.resolve("manifest.properties");
+  }
+
+  private String saveOnePet(String settings) {
+    GenerationManifest manifest = GenerationManifest.load(file(), settings);
+    String fingerprint = manifest.fingerprint(mapper, Map.of("type", "object", "name", "Pet"));
+    manifest.record("schema:Pet", fingerprint, List.of("a.Pet", "a.PetCodec"));
+    manifest.save();
+    return fingerprint;
+  }
+
+  @Test
+  void reusesFilesOfUnchangedUnit() {
+    saveOnePet("settings");
+
+    GenerationManifest manifest = GenerationManifest.load(file(), "settings");
+    String fingerprint = manifest.fingerprint(mapper, Map.of("name", "Pet", "type", "object"));
+
+    assertThat(manifest.reusableFiles("schema:Pet", fingerprint)).hasValue(Set.of("a.Pet", "a.PetCodec"));
+  }
+
+  @Test
+  void changedInputInvalidatesUnit() {
+    saveOnePet("settings");
+
+    GenerationManifest manifest = GenerationManifest.load(file(), "settings");
+    String fingerprint = manifest.fingerprint(mapper, Map.of("name", "Pet", "type", "string"));
+
+    assertThat(manifest.reusableFiles("schema:Pet", fingerprint)).isEmpty();
+  }
+
+  @Test
+  void changedSettingsInvalidateEveryUnit() {
+    String previous = saveOnePet("settings");
+
+    GenerationManifest manifest = GenerationManifest.load(file(), "other settings");
+    String fingerprint = manifest.fingerprint(mapper, Map.of("name", "Pet", "type", "object"));
+
+    assertThat(fingerprint).isNotEqualTo(previous);
+    assertThat(manifest.reusableFiles("schema:Pet", fingerprint)).isEmpty();
+  }
+
+  @Test
+  void reportsFilesNoLongerGenerated() {
+    saveOnePet("settings");
+
+    GenerationManifest manifest = GenerationManifest.load(file(), "settings");
+    manifest.record("schema:Pet", "changed", List.of("a.Pet"));
+
+    assertThat(manifest.staleFiles()).containsExactly("a.PetCodec");
+    assertThat(manifest.currentFiles()).containsExactly("a.Pet");
+  }
+
+  @Test
+  void generatorFingerprintIsStable() {
+    assertThat(GenerationManifest.generatorFingerprint()).isEqualTo(GenerationManifest.generatorFingerprint());
+    assertThat(GenerationManifest.generatorFingerprint()).doesNotStartWith("unknown-");
+  }
+}
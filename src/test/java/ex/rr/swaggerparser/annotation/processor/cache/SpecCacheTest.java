@@ -0,0 +1,185 @@
+package ex.rr.swaggerparser.annotation.processor.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import ex.rr.swaggerparser.annotation.processor.ProcessorOptions;
+
+class SpecCacheTest {
+
+  private static final String ETAG = "\"v1\"";
+
+  @TempDir
+  Path dir;
+
+  private HttpServer server;
+  private final List<String> ifNoneMatch = Collections.synchronizedList(new ArrayList<>());
+  private volatile String body = "{\"title\":\"remote\"}";
+
+  record Doc(String contents) {
+  }
+
+  /** Reads documents as-is, counting parses. */
+  static class DocReader implements SpecReader<Doc> {
+    int parsed;
+
+    @Override
+    public Class<Doc> type() {
+      return Doc.class;
+    }
+
+    @Override
+    public ObjectMapper mapper() {
+      return new ObjectMapper();
+    }
+
+    @Override
+    public Doc readContents(String contents, String location) {
+      parsed++;
+      return new Doc(contents);
+    }
+
+    @Override
+    public Doc readLocation(String location) {
+      parsed++;
+      return new Doc(location);
+    }
+  }
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/spec.json", exchange -> {
+      String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+      ifNoneMatch.add(condition);
+      if (ETAG.equals(condition)) {
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(bytes);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void stopServer() {
+    if (server != null) {
+      server.stop(0);
+    }
+  }
+
+  private SpecCache cache(boolean offline) {
+    return new SpecCache(new ProcessorOptions(dir, dir.resolve("cache"), offline, false, true, null));
+  }
+
+  private String remote() {
+    return "http://localhost:" + server.getAddress().getPort() + "/spec.json";
+  }
+
+  @Test
+  void revalidatesWithEtagAndReusesSnapshot() {
+    DocReader reader = new DocReader();
+
+    SpecCache.Loaded<Doc> first = cache(false).load(remote(), reader);
+    SpecCache.Loaded<Doc> second = cache(false).load(remote(), reader);
+
+    assertThat(first.source().status()).isEqualTo(SpecCache.Status.FETCHED);
+    assertThat(first.snapshotHit()).isFalse();
+    assertThat(second.source().status()).isEqualTo(SpecCache.Status.NOT_MODIFIED);
+    assertThat(second.snapshotHit()).isTrue();
+    assertThat(second.spec()).isEqualTo(first.spec());
+    assertThat(ifNoneMatch).containsExactly(null, ETAG);
+    assertThat(reader.parsed).isEqualTo(1);
+  }
+
+  @Test
+  void fallsBackToCachedCopyWhenRemoteIsDown() {
+    DocReader reader = new DocReader();
+    String location = remote();
+    cache(false).load(location, reader);
+    server.stop(0);
+    server = null;
+
+    SpecCache.Loaded<Doc> loaded = cache(false).load(location, reader);
+
+    assertThat(loaded.source().status()).isEqualTo(SpecCache.Status.OFFLINE);
+    assertThat(loaded.source().reason()).startsWith("could not revalidate");
+    assertThat(loaded.spec().contents()).isEqualTo("{\"title\":\"remote\"}");
+  }
+
+  @Test
+  void offlineModeSkipsRevalidation() {
+    DocReader reader = new DocReader();
+    cache(false).load(remote(), reader);
+
+    SpecCache.Loaded<Doc> loaded = cache(true).load(remote(), reader);
+
+    assertThat(loaded.source().status()).isEqualTo(SpecCache.Status.OFFLINE);
+    assertThat(loaded.source().reason()).isNull();
+    assertThat(ifNoneMatch).hasSize(1);
+  }
+
+  @Test
+  void editingReferencedFileInvalidatesSnapshot() throws IOException {
+    Path spec = dir.resolve("spec.yaml");
+    Path pet = dir.resolve("pet.yaml");
+    Files.writeString(spec, "definitions:\n  Pet:\n    $ref: './pet.yaml#/Pet'\n");
+    Files.writeString(pet, "Pet:\n  type: object\n");
+    DocReader reader = new DocReader();
+
+    assertThat(cache(false).load(spec.toString(), reader).snapshotHit()).isFalse();
+    assertThat(cache(false).load(spec.toString(), reader).snapshotHit()).isTrue();
+
+    Files.writeString(pet, "Pet:\n  type: string\n");
+
+    assertThat(cache(false).load(spec.toString(), reader).snapshotHit()).isFalse();
+  }
+
+  @Test
+  void identicalDocumentsAtDifferentLocationsHaveOwnSnapshots() throws IOException {
+    Path a = Files.createDirectories(dir.resolve("a")).resolve("spec.yaml");
+    Path b = Files.createDirectories(dir.resolve("b")).resolve("spec.yaml");
+    Files.writeString(a, "swagger: '2.0'\n");
+    Files.writeString(b, "swagger: '2.0'\n");
+    DocReader reader = new DocReader();
+
+    cache(false).load(a.toString(), reader);
+
+    assertThat(cache(false).load(b.toString(), reader).snapshotHit()).isFalse();
+  }
+
+  @Test
+  void documentsWithRemoteReferencesAreNotSnapshotted() throws IOException {
+    Path spec = dir.resolve("spec.json");
+    Files.writeString(spec, "{\"$ref\": \"http://example.com/pet.json#/Pet\"}");
+    DocReader reader = new DocReader();
+
+    cache(false).load(spec.toString(), reader);
+
+    assertThat(cache(false).load(spec.toString(), reader).snapshotHit()).isFalse();
+    assertThat(reader.parsed).isEqualTo(2);
+  }
+}
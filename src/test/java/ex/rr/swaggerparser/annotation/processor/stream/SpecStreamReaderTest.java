@@ -0,0 +1,110 @@
+package ex.rr.swaggerparser.annotation.processor.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class SpecStreamReaderTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String JSON = """
+      {"openapi": "3.0.1", "info": {"title": "Store"},
+       "paths": {"/pet": {"get": {"operationId": "listPets"}}},
+       "components": {"parameters": {"limit": {"in": "query"}},
+         "schemas": {"Pet": {"type": "object"}, "Ignored": true, "Tag": {"type": "string"}}}}""";
+
+  private static final String YAML = """
+      openapi: 3.0.1
+      info:
+        title: Store
+      paths:
+        /pet:
+          get:
+            operationId: listPets
+      components:
+        parameters:
+          limit:
+            in: query
+        schemas:
+          Pet:
+            type: object
+          Ignored: true
+          Tag:
+            type: string
+      """;
+
+  @TempDir
+  Path dir;
+
+  private SpecStreamReader open(String name, String contents) throws IOException {
+    return SpecStreamReader.open(Files.writeString(dir.resolve(name), contents));
+  }
+
+  private static Map<String, ObjectNode> entries(SpecStreamReader reader, String pointer) throws IOException {
+    Map<String, ObjectNode> entries = new LinkedHashMap<>();
+    reader.forEachEntry(pointer, entries::put);
+    return entries;
+  }
+
+  @Test
+  void readsHeaderWithoutSkippedSections() throws IOException {
+    ObjectNode header = open("spec.json", JSON).readHeader("/paths", "/components/schemas");
+
+    assertThat(header).isEqualTo(MAPPER.readTree("""
+        {"openapi": "3.0.1", "info": {"title": "Store"}, "components": {"parameters": {"limit": {"in": "query"}}}}"""));
+  }
+
+  @Test
+  void passesObjectEntriesInDocumentOrder() throws IOException {
+    Map<String, ObjectNode> schemas = entries(open("spec.json", JSON), "/components/schemas");
+
+    assertThat(schemas.keySet()).containsExactly("Pet", "Tag");
+    assertThat(schemas.get("Tag")).isEqualTo(MAPPER.readTree("{\"type\": \"string\"}"));
+  }
+
+  @Test
+  void ignoresMissingSections() throws IOException {
+    SpecStreamReader reader = open("spec.json", JSON);
+
+    assertThat(entries(reader, "/definitions")).isEmpty();
+    assertThat(entries(reader, "/components/responses")).isEmpty();
+    assertThat(entries(reader, "/info/title")).isEmpty();
+  }
+
+  @Test
+  void readsYamlLikeJson() throws IOException {
+    SpecStreamReader yaml = open("spec.yaml", YAML);
+    SpecStreamReader json = open("spec.json", JSON);
+
+    assertThat(yaml.readHeader("/paths")).isEqualTo(json.readHeader("/paths"));
+    assertThat(entries(yaml, "/paths")).isEqualTo(entries(json, "/paths"));
+    assertThat(entries(yaml, "/components/schemas")).isEqualTo(entries(json, "/components/schemas"));
+  }
+
+  @Test
+  void detectsJsonByContentsAfterByteOrderMark() throws IOException {
+    SpecStreamReader reader = open("spec.yaml", "\uFEFF  \n" + JSON);
+
+    assertThat(entries(reader, "/paths")).containsOnlyKeys("/pet");
+  }
+
+  @Test
+  void rejectsDocumentsWithoutRootObject() throws IOException {
+    SpecStreamReader reader = open("spec.json", "[]");
+
+    assertThatExceptionOfType(IOException.class).isThrownBy(() -> reader.readHeader())
+        .withMessageContaining("Expected an object");
+  }
+}
@@ -0,0 +1,119 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.JavaFile;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+
+import ex.rr.swaggerparser.annotation.Type;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.TestTargets;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.Endpoint;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.EndpointParameter;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.In;
+import io.swagger.models.HttpMethod;
+
+class ClientGeneratorTest {
+
+  private static final ClassName PET = ClassName.get("demo", "Pet");
+  private static final ClassName MODEL = ClassName.get("demo.generated.demo", "Pet");
+  private static final TypeName STRINGS = ParameterizedTypeName.get(List.class, String.class);
+
+  private static Endpoint getById(String path, String parameter) {
+    return new Endpoint(path, HttpMethod.GET, "getPetById",
+        List.of(new EndpointParameter(In.PATH, parameter, ClassName.get(String.class), false, null)), MODEL,
+        List.of(), List.of("application/json"));
+  }
+
+  private static Endpoint listByIds(String parameter) {
+    return new Endpoint("/pets", HttpMethod.GET, "listPets",
+        List.of(new EndpointParameter(In.QUERY, parameter, STRINGS, true, ",")),
+        ParameterizedTypeName.get(ClassName.get(List.class), MODEL), List.of(), List.of("application/json"));
+  }
+
+  private static String generate(Endpoint... endpoints) {
+    SpecTarget target = TestTargets.target("demo.Demo", Map.of("type", Type.SWAGGER, "location", "demo",
+        "batching", true, "async", true));
+    var generator = new ClientGenerator().begin(target, "http://demo.test/v1",
+        Map.of("Pet", Set.of("id", "name")));
+    for (Endpoint endpoint : endpoints) {
+      generator.addEndpoint(endpoint);
+    }
+    return JavaFile.builder(target.packageName(), generator.build()).build().toString();
+  }
+
+  @Test
+  void plainTypeReferenceUsesClassLiteral() {
+    assertThat(ClientGenerator.typeReference(PET))
+        .hasToString("ex.rr.swaggerparser.apiclient.JavaTypeReference.of(demo.Pet.class)");
+  }
+
+  @Test
+  void parametricTypeReferenceIsConstructedByTypeFactory() {
+    TypeName pets = ParameterizedTypeName.get(ClassName.get(List.class), PET);
+
+    assertThat(ClientGenerator.typeReference(pets)).hasToString(
+        "ex.rr.swaggerparser.apiclient.JavaTypeReference.of(com.fasterxml.jackson.databind.type.TypeFactory"
+            + ".defaultInstance().constructParametricType(java.util.List.class, demo.Pet.class))");
+  }
+
+  @Test
+  void nestedTypeArgumentsAreConstructedRecursively() {
+    TypeName type = ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class),
+        ParameterizedTypeName.get(ClassName.get(List.class), PET));
+
+    assertThat(ClientGenerator.javaType(type).toString())
+        .startsWith("com.fasterxml.jackson.databind.type.TypeFactory.defaultInstance()"
+            + ".constructParametricType(java.util.Map.class, ")
+        .contains(".constructType(")
+        .endsWith(".constructParametricType(java.util.List.class, demo.Pet.class))");
+  }
+
+  @Test
+  void constantNamesFollowTypeArguments() {
+    assertThat(ClientGenerator.constantName(ParameterizedTypeName.get(ClassName.get(List.class), PET)))
+        .isEqualTo("LIST_OF_PET");
+  }
+
+  @Test
+  void batchesByIdOperationNamedId() {
+    String source = generate(getById("/pets/{id}", "id"), listByIds("ids"));
+
+    assertThat(source).contains("public Pet getPetByIdBatched(String id)",
+        "public CompletableFuture<Pet> getPetByIdBatchedAsync(String id)",
+        "getPetByIdLoader = new BatchLoader<>(this::getPetById, "
+            + "ids -> BatchLoader.index(listPets(ids), v -> String.valueOf(v.getId())), batchWindow, batchSize)");
+  }
+
+  @Test
+  void batchesThroughListNamedAfterParameter() {
+    String source = generate(getById("/pets/{petId}", "petId"), listByIds("petIds"));
+
+    assertThat(source).contains("public Pet getPetByIdBatched(String petId)",
+        "BatchLoader.index(listPets(ids), v -> String.valueOf(v.getId()))");
+  }
+
+  @Test
+  void coalescesOnlyWithoutListOperation() {
+    String source = generate(getById("/pets/{ids}", "ids"));
+
+    assertThat(source).contains("getPetByIdLoader = new BatchLoader<>(this::getPetById, null, batchWindow, "
+        + "batchSize)");
+  }
+
+  @Test
+  void buildsPathOfByIdOperation() {
+    String source = generate(getById("/pets/{id}", "id"));
+
+    assertThat(source).contains("public Pet getPetById(String id, Map<String, String> headers)",
+        "apiClient.get(URI.create(baseUrl + \"/pets/\" + ApiUris.encodePath(id)), headers, PET_TYPE, ");
+  }
+}
@@ -0,0 +1,130 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.lang.model.element.Modifier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+
+import ex.rr.swaggerparser.annotation.processor.SharedModels;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.TestCompiler;
+
+class CodecGeneratorTest {
+
+  private static final String PACKAGE = "demo.generated.demo";
+  private static final String PET = """
+      package demo.generated.demo;
+
+      import java.util.List;
+
+      public record Pet(long id, String name, List<String> tags, Double weight) {
+
+        public static Builder builder() {
+          return new Builder();
+        }
+
+        public static final class Builder {
+          private long id;
+          private String name;
+          private List<String> tags;
+          private Double weight;
+
+          public Builder id(long id) { this.id = id; return this; }
+          public Builder name(String name) { this.name = name; return this; }
+          public Builder tags(List<String> tags) { this.tags = tags; return this; }
+          public Builder weight(Double weight) { this.weight = weight; return this; }
+
+          public Pet build() {
+            return new Pet(id, name, tags, weight);
+          }
+        }
+      }
+      """;
+
+  @TempDir
+  Path dir;
+
+  private ObjectMapper objectMapper;
+  private Class<?> pet;
+  private ClassLoader classLoader;
+
+  @BeforeEach
+  void compileCodec() throws Exception {
+    var target = new SpecTarget(null, null, "Demo", "demo.Demo", PACKAGE, "", false, SharedModels.none());
+    var generator = new CodecGenerator(target);
+    List<FieldSpec> fields = List.of(
+        FieldSpec.builder(TypeName.LONG, "id", Modifier.PRIVATE).build(),
+        FieldSpec.builder(String.class, "name", Modifier.PRIVATE).build(),
+        FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), ClassName.get(String.class)), "tags",
+            Modifier.PRIVATE).build(),
+        FieldSpec.builder(Double.class, "weight", Modifier.PRIVATE).build());
+
+    classLoader = new TestCompiler(dir)
+        .add(PACKAGE + ".Pet", PET)
+        .add(PACKAGE, generator.generateCodec("Pet", true, fields))
+        .add(PACKAGE, generator.generateModule(List.of("Pet")))
+        .compile();
+    pet = classLoader.loadClass(PACKAGE + ".Pet");
+    objectMapper = new ObjectMapper().registerModule((Module) classLoader.loadClass(PACKAGE + ".DemoJsonModule")
+        .getConstructor().newInstance());
+  }
+
+  @Test
+  void registersGeneratedCodec() throws Exception {
+    assertThat(objectMapper.getSerializerProviderInstance().findValueSerializer(pet).getClass().getName())
+        .isEqualTo(PACKAGE + ".PetJsonCodec$Serializer");
+  }
+
+  @Test
+  void roundTripsModel() throws Exception {
+    String json = "{\"id\":7,\"name\":\"Rex\",\"tags\":[\"a\",\"b\"],\"weight\":4.5}";
+
+    Object value = objectMapper.readValue(json, pet);
+
+    assertThat(value).hasToString("Pet[id=7, name=Rex, tags=[a, b], weight=4.5]");
+    assertThat(objectMapper.readTree(objectMapper.writeValueAsString(value))).isEqualTo(objectMapper.readTree(json));
+  }
+
+  @Test
+  void coercesScalarsLikeJackson() throws Exception {
+    Object value = objectMapper.readValue("{\"id\":\"8\",\"weight\":3}", pet);
+
+    assertThat(value).hasToString("Pet[id=8, name=null, tags=null, weight=3.0]");
+  }
+
+  @Test
+  void defaultsMissingPrimitivesAndFollowsNullInclusion() throws Exception {
+    Object value = objectMapper.readValue("{\"name\":null}", pet);
+    JsonNode always = objectMapper.valueToTree(value);
+    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    JsonNode nonNull = objectMapper.valueToTree(value);
+
+    assertThat(value).hasToString("Pet[id=0, name=null, tags=null, weight=null]");
+    assertThat(always.has("name")).isTrue();
+    assertThat(nonNull.has("name")).isFalse();
+    assertThat(nonNull.get("id").asLong()).isZero();
+  }
+
+  @Test
+  void rejectsUnknownProperties() {
+    assertThatExceptionOfType(UnrecognizedPropertyException.class)
+        .isThrownBy(() -> objectMapper.readValue("{\"id\":1,\"color\":\"red\"}", pet));
+  }
+}
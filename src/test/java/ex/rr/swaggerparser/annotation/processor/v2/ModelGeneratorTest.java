@@ -0,0 +1,155 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.lang.reflect.RecordComponent;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.ModelStyle;
+import ex.rr.swaggerparser.annotation.Type;
+import ex.rr.swaggerparser.annotation.processor.GenerationResult;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.TestCompiler;
+import ex.rr.swaggerparser.annotation.processor.TestTargets;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.IntegerProperty;
+import io.swagger.models.properties.LongProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.StringProperty;
+import lombok.Builder;
+
+class ModelGeneratorTest {
+
+  private static final SpecTarget TARGET = TestTargets.target("demo.Demo", Map.of("type", Type.SWAGGER,
+      "location", "demo", "modelStyle", ModelStyle.RECORD));
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @TempDir
+  Path dir;
+
+  private List<TypeSpec> types;
+  private Class<?> pet;
+
+  private static <P extends Property> P required(P property) {
+    property.setRequired(true);
+    return property;
+  }
+
+  private static IntegerProperty int64() {
+    IntegerProperty property = new IntegerProperty();
+    property.setFormat("int64");
+    return property;
+  }
+
+  @BeforeEach
+  void generate() throws Exception {
+    ArrayProperty tags = new ArrayProperty(new StringProperty());
+    tags.setUniqueItems(true);
+    ModelImpl model = new ModelImpl()
+        .property("id", required(int64()))
+        .property("age", required(new IntegerProperty()))
+        .property("weight", int64())
+        .property("litter", new LongProperty())
+        .property("name", required(new StringProperty()))
+        .property("photoUrls", new ArrayProperty(new StringProperty()))
+        .property("tags", tags)
+        .property("attributes", new MapProperty(new StringProperty()))
+        .property("status", new StringProperty()._enum(List.of("available", "sold")));
+
+    types = new ModelGenerator(TARGET, new GenerationResult(TARGET, null), "Pet").generateModelDefinitions(model);
+    TestCompiler compiler = new TestCompiler(dir);
+    types.forEach(type -> compiler.add(TARGET.packageName(), type));
+    pet = compiler.compile().loadClass(TARGET.packageName() + ".Pet");
+  }
+
+  private Map<String, Class<?>> components() {
+    return Arrays.stream(pet.getRecordComponents())
+        .collect(Collectors.toMap(RecordComponent::getName, RecordComponent::getType));
+  }
+
+  private Object read(String json) throws Exception {
+    return MAPPER.readValue(json, pet);
+  }
+
+  private static Object component(Object record, String name) throws Exception {
+    return record.getClass().getMethod(name).invoke(record);
+  }
+
+  @Test
+  void generatesRecordAfterItsEnums() {
+    assertThat(types).extracting(TypeSpec::name).containsExactly("PetStatus", "Pet");
+    assertThat(pet.isRecord()).isTrue();
+    assertThat(types.get(1).annotations()).anyMatch(a -> a.type().equals(ClassName.get(Builder.class)));
+  }
+
+  @Test
+  void unboxesRequiredPropertiesOnly() {
+    assertThat(components()).containsEntry("id", long.class)
+        .containsEntry("age", int.class)
+        .containsEntry("weight", Long.class)
+        .containsEntry("litter", Long.class)
+        .containsEntry("name", String.class);
+  }
+
+  @Test
+  void mapsCollections() {
+    assertThat(components()).containsEntry("photoUrls", List.class)
+        .containsEntry("tags", Set.class)
+        .containsEntry("attributes", Map.class);
+  }
+
+  @Test
+  void roundTripsThroughJackson() throws Exception {
+    String json = """
+        {"id":1,"age":3,"weight":5000000000,"litter":null,"name":"doggie","photoUrls":["a"],"tags":["t"],\
+        "attributes":{"color":"brown"},"status":"sold"}""";
+
+    Object read = read(json);
+
+    assertThat(component(read, "id")).isEqualTo(1L);
+    assertThat(component(read, "weight")).isEqualTo(5_000_000_000L);
+    assertThat(component(read, "status")).hasToString("sold");
+    assertThat(MAPPER.readTree(MAPPER.writeValueAsString(read))).isEqualTo(MAPPER.readTree(json));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void keepsNullElements() throws Exception {
+    Object read = read("""
+        {"id":1,"age":3,"name":"doggie","photoUrls":["a",null],"tags":[null],"attributes":{"color":null}}""");
+
+    assertThat((List<Object>) component(read, "photoUrls")).containsExactly("a", null);
+    assertThat((Set<Object>) component(read, "tags")).containsExactly((Object) null);
+    assertThat((Map<String, Object>) component(read, "attributes")).containsEntry("color", null);
+    JsonNode written = MAPPER.valueToTree(read);
+    assertThat(written.get("photoUrls")).hasSize(2);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void copiesCollectionsUnmodifiable() throws Exception {
+    Object read = read("""
+        {"id":1,"age":3,"name":"doggie","photoUrls":["a"]}""");
+
+    assertThatExceptionOfType(UnsupportedOperationException.class)
+        .isThrownBy(() -> ((List<Object>) component(read, "photoUrls")).add("b"));
+    assertThat(component(read, "tags")).isNull();
+  }
+}
@@ -0,0 +1,119 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.JavaFile;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+import com.palantir.javapoet.TypeSpec;
+
+import ex.rr.swaggerparser.annotation.Type;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import ex.rr.swaggerparser.annotation.processor.TestCompiler;
+import ex.rr.swaggerparser.annotation.processor.TestTargets;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.Endpoint;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.EndpointParameter;
+import ex.rr.swaggerparser.annotation.processor.v2.ClientGenerator.In;
+import ex.rr.swaggerparser.apiclient.StubServer;
+import ex.rr.swaggerparser.demo.generated.petstore.Pet;
+import io.swagger.models.HttpMethod;
+
+class StubServerGeneratorTest {
+
+  private static final SpecTarget TARGET = TestTargets.target("demo.Demo", Map.of("type", Type.SWAGGER,
+      "location", "demo", "stubServer", true));
+  private static final ClassName PET = ClassName.get(Pet.class);
+  private static final List<String> JSON = List.of("application/json");
+
+  @TempDir
+  Path dir;
+
+  private static Endpoint endpoint(HttpMethod method, String path, String operationId,
+      TypeName returnType) {
+    return new Endpoint(path, method, operationId,
+        List.of(new EndpointParameter(In.PATH, "petId", ClassName.get(String.class), false, null)), returnType,
+        List.of(), JSON);
+  }
+
+  private static TypeSpec generate(String baseUrl, Endpoint... endpoints) {
+    var generator = new StubServerGenerator(TARGET, baseUrl);
+    for (Endpoint endpoint : endpoints) {
+      generator.addEndpoint(endpoint);
+    }
+    return generator.build();
+  }
+
+  private static String source(TypeSpec type) {
+    return JavaFile.builder(TARGET.packageName(), type).build().toString();
+  }
+
+  @Test
+  void routesEveryOperationUnderBasePath() {
+    String source = source(generate("http://petstore.test/v2",
+        endpoint(HttpMethod.GET, "/pet/{petId}", "getPetById", PET),
+        endpoint(HttpMethod.GET, "/pet/findByTags", "findPetsByTags",
+            ParameterizedTypeName.get(ClassName.get(List.class), PET)),
+        endpoint(HttpMethod.POST, "/pet/{petId}", "updatePet", ClassName.get(HttpStatus.class))));
+
+    assertThat(source).contains("public final class DemoStubServer",
+        "var server = new StubServer(settings, objectMapper, \"/v2\");",
+        "server.route(\"GET\", \"/pet/{petId}\", PET_TYPE, List.of(\"application/json\"));",
+        "server.route(\"GET\", \"/pet/findByTags\", LIST_OF_PET_TYPE, List.of(\"application/json\"));",
+        "server.route(\"POST\", \"/pet/{petId}\", null, List.of(\"application/json\"));");
+  }
+
+  @Test
+  void sharesResponseTypeConstants() {
+    String source = source(generate("http://petstore.test",
+        endpoint(HttpMethod.GET, "/pet/{petId}", "getPetById", PET),
+        endpoint(HttpMethod.GET, "/pets/{petId}", "getPet", PET)));
+
+    assertThat(source).containsOnlyOnce("PET_TYPE =")
+        .contains("new StubServer(settings, objectMapper, \"\")");
+  }
+
+  @Test
+  void splitsRoutesOfLargeSpecs() {
+    Endpoint[] endpoints = new Endpoint[450];
+    for (int i = 0; i < endpoints.length; i++) {
+      endpoints[i] = endpoint(HttpMethod.GET, "/pet" + i + "/{petId}", "getPet" + i, PET);
+    }
+
+    assertThat(source(generate("http://petstore.test", endpoints)))
+        .contains("addRoutes0(server);", "addRoutes1(server);", "addRoutes2(server);")
+        .doesNotContain("addRoutes3(");
+  }
+
+  @Test
+  void servesSamplesReadingBackIntoGeneratedModels() throws Exception {
+    ClassLoader classes = new TestCompiler(dir).add(TARGET.packageName(), generate("http://localhost/v2",
+        endpoint(HttpMethod.GET, "/pet/{petId}", "getPetById", PET))).compile();
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    try (StubServer server = ((StubServer) classes.loadClass(TARGET.packageName() + ".DemoStubServer")
+        .getMethod("create", StubServer.Settings.class, ObjectMapper.class)
+        .invoke(null, StubServer.Settings.DEFAULT, objectMapper)).start();
+        HttpClient http = HttpClient.newHttpClient()) {
+      HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create(server.baseUrl() + "/pet/1"))
+          .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+      assertThat(server.baseUrl()).endsWith("/v2");
+      assertThat(response.statusCode()).isEqualTo(200);
+      assertThat(objectMapper.readValue(response.body(), Pet.class).getName()).isEqualTo("string");
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package ex.rr.swaggerparser.annotation.processor.v2;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import ex.rr.swaggerparser.annotation.processor.ProcessorOptions;
+import ex.rr.swaggerparser.annotation.processor.SwaggerClientProcessor;
+
+/**
+ * Runs the processor over the same spec with and without
+ * {@link ProcessorOptions#STREAMING}, streaming goes through
+ * {@link SwaggerProcessor#stream} instead of parsing the whole document.
+ */
+class SwaggerProcessorTest {
+
+  private static final String SPEC = """
+      {
+        "swagger": "2.0",
+        "info": {"version": "1.0", "title": "Store"},
+        "host": "store.test",
+        "basePath": "/v1",
+        "produces": ["application/json"],
+        "parameters": {
+          "petId": {"name": "petId", "in": "path", "required": true, "type": "integer", "format": "int64"},
+          "limit": {"name": "limit", "in": "query", "required": false, "type": "integer", "format": "int32"}
+        },
+        "paths": {
+          "/pet": {
+            "get": {
+              "operationId": "listPets",
+              "parameters": [{"$ref": "#/parameters/limit"}],
+              "responses": {"200": {"description": "ok",
+                  "schema": {"type": "array", "items": {"$ref": "#/definitions/Pet"}}}}
+            },
+            "post": {
+              "operationId": "addPet",
+              "consumes": ["application/json"],
+              "parameters": [{"in": "body", "name": "body", "required": true, "schema": {"$ref": "#/definitions/Pet"}}],
+              "responses": {"200": {"description": "ok", "schema": {"$ref": "#/definitions/Pet"}}}
+            }
+          },
+          "/pet/{petId}": {
+            "get": {
+              "operationId": "getPetById",
+              "parameters": [{"$ref": "#/parameters/petId"}],
+              "responses": {"200": {"description": "ok", "schema": {"$ref": "#/definitions/Pet"}}}
+            },
+            "delete": {
+              "operationId": "deletePet",
+              "parameters": [{"$ref": "#/parameters/petId"},
+                  {"name": "api_key", "in": "header", "required": false, "type": "string"}],
+              "responses": {"200": {"description": "ok"}}
+            }
+          },
+          "/store/inventory": {
+            "get": {
+              "operationId": "getInventory",
+              "responses": {"200": {"description": "ok",
+                  "schema": {"type": "object", "additionalProperties": {"type": "integer", "format": "int32"}}}}
+            }
+          }
+        },
+        "definitions": {
+          "Category": {
+            "type": "object",
+            "properties": {"id": {"type": "integer", "format": "int64"}, "name": {"type": "string"}}
+          },
+          "Tag": {
+            "type": "object",
+            "properties": {"id": {"type": "integer", "format": "int64"}, "name": {"type": "string"}}
+          },
+          "Pet": {
+            "type": "object",
+            "required": ["name", "photoUrls"],
+            "properties": {
+              "id": {"type": "integer", "format": "int64"},
+              "category": {"$ref": "#/definitions/Category"},
+              "name": {"type": "string"},
+              "photoUrls": {"type": "array", "items": {"type": "string"}},
+              "tags": {"type": "array", "items": {"$ref": "#/definitions/Tag"}},
+              "status": {"type": "string", "enum": ["available", "pending", "sold"]}
+            }
+          }
+        }
+      }
+      """;
+
+  @TempDir
+  Path dir;
+
+  private static String client(String location) {
+    return """
+        package demo;
+
+        import ex.rr.swaggerparser.annotation.SwaggerClient;
+        import ex.rr.swaggerparser.annotation.Type;
+
+        @SwaggerClient(type = Type.SWAGGER, location = "%s", async = true, batching = true, codecs = true,
+            stubServer = true)
+        public class Store {
+        }
+        """.formatted(location.replace("\\", "\\\\"));
+  }
+
+  /**
+   * Runs only the processor over {@code demo.Store} in a build directory of
+   * its own.
+   *
+   * @return generated sources by path
+   */
+  private Map<String, String> generate(String build, Path spec, boolean streaming) throws IOException {
+    Path root = dir.resolve(build);
+    Path source = Files.createDirectories(root.resolve("src/demo")).resolve("Store.java");
+    Files.writeString(source, client(spec.toAbsolutePath().toString()));
+    Path generated = Files.createDirectories(root.resolve("generated"));
+    Path classes = Files.createDirectories(root.resolve("classes"));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StringWriter output = new StringWriter();
+    List<String> arguments = List.of("-proc:only", "-processor", SwaggerClientProcessor.class.getName(),
+        "-A" + ProcessorOptions.STREAMING + "=" + streaming,
+        "-A" + ProcessorOptions.CACHE_DIR + "=" + root.resolve("cache"),
+        "-classpath", System.getProperty("java.class.path"), "-s", generated.toString(), "-d", classes.toString());
+    boolean processed = compiler.getTask(output, null, null, arguments, null,
+        compiler.getStandardFileManager(null, null, null).getJavaFileObjects(source)).call();
+    assertThat(processed).as(output.toString()).isTrue();
+    assertThat(output.toString()).contains(streaming ? "Streaming spec" : "Store:");
+
+    Map<String, String> sources = new TreeMap<>();
+    try (Stream<Path> files = Files.walk(generated)) {
+      for (Path file : files.filter(Files::isRegularFile).toList()) {
+        sources.put(generated.relativize(file).toString().replace(File.separatorChar, '/'), Files.readString(file));
+      }
+    }
+    return sources;
+  }
+
+  private Path json() throws IOException {
+    return Files.writeString(dir.resolve("store.json"), SPEC);
+  }
+
+  private Path yaml() throws IOException {
+    return Files.writeString(dir.resolve("store.yaml"),
+        new YAMLMapper().writeValueAsString(new ObjectMapper().readTree(SPEC)));
+  }
+
+  @Test
+  void streamsJsonToSameSources() throws IOException {
+    Map<String, String> parsed = generate("parsed", json(), false);
+
+    Map<String, String> streamed = generate("streamed", json(), true);
+
+    assertThat(parsed).containsKeys("demo/generated/store/Pet.java", "demo/generated/store/StoreApiClient.java");
+    assertThat(streamed).isEqualTo(parsed);
+  }
+
+  @Test
+  void streamsYamlToSameSources() throws IOException {
+    Map<String, String> parsed = generate("parsed", yaml(), false);
+
+    Map<String, String> streamed = generate("streamed", yaml(), true);
+
+    assertThat(streamed).isEqualTo(parsed).isEqualTo(generate("json", json(), true));
+  }
+
+  @Test
+  void resolvesParameterRefsWhenStreaming() throws IOException {
+    String client = generate("streamed", json(), true).get("demo/generated/store/StoreApiClient.java");
+
+    assertThat(client).contains("listPets(String limit)", "ApiUris.query(uri, \"limit\", limit);",
+        "getPetById(String petId)", "ApiUris.encodePath(petId)");
+  }
+}
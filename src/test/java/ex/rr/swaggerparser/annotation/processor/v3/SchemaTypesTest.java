@@ -0,0 +1,142 @@
+package ex.rr.swaggerparser.annotation.processor.v3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.ParameterizedTypeName;
+import com.palantir.javapoet.TypeName;
+
+import ex.rr.swaggerparser.annotation.processor.SharedModels;
+import ex.rr.swaggerparser.annotation.processor.SpecTarget;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.IntegerSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+
+@SuppressWarnings("rawtypes")
+class SchemaTypesTest {
+
+  private static final String PACKAGE = "demo.generated.demo";
+  private static final SpecTarget TARGET = new SpecTarget(null, null, "Demo", "demo.Demo", PACKAGE, "", false,
+      SharedModels.none());
+
+  private static Schema<?> ref(String name) {
+    return new Schema<>().$ref("#/components/schemas/" + name);
+  }
+
+  private static Schema<?> object(Map<String, Schema> properties, String... required) {
+    Schema<?> schema = new Schema<>().type("object");
+    schema.setProperties(new LinkedHashMap<>(properties));
+    schema.setRequired(required.length == 0 ? null : List.of(required));
+    return schema;
+  }
+
+  private static Schema<?> arrayOf(Schema<?> items) {
+    return new ArraySchema().items(items);
+  }
+
+  private static TypeName listOf(TypeName type) {
+    return ParameterizedTypeName.get(ClassName.get(List.class), type);
+  }
+
+  private static SchemaTypes types(Map<String, Schema> schemas) {
+    return new SchemaTypes(TARGET, new LinkedHashMap<>(schemas));
+  }
+
+  @Test
+  void refsToModelsAndEnumsResolveToTheirClasses() {
+    StringSchema status = new StringSchema();
+    status.setEnum(List.of("available", "sold"));
+    SchemaTypes types = types(Map.of(
+        "Pet", object(Map.of("status", ref("Status"), "tags", arrayOf(ref("Tag")))),
+        "Tag", object(Map.of("name", new StringSchema())),
+        "Status", status));
+
+    assertThat(types.kind("Pet")).isEqualTo(SchemaTypes.Kind.MODEL);
+    assertThat(types.kind("Status")).isEqualTo(SchemaTypes.Kind.ENUM);
+    assertThat(types.resolve(ref("Status"))).isEqualTo(ClassName.get(PACKAGE, "Status"));
+    assertThat(types.resolve(types.shape("Pet").properties().get("tags")))
+        .isEqualTo(listOf(ClassName.get(PACKAGE, "Tag")));
+  }
+
+  @Test
+  void aliasesResolveToTheAliasedType() {
+    SchemaTypes types = types(Map.of(
+        "Names", arrayOf(new StringSchema()),
+        "Ids", ref("Names"),
+        "Count", new IntegerSchema()));
+
+    assertThat(types.kind("Names")).isEqualTo(SchemaTypes.Kind.ALIAS);
+    assertThat(types.resolve(ref("Ids"))).isEqualTo(listOf(ClassName.get(String.class)));
+    assertThat(types.resolve(ref("Count"))).isEqualTo(ClassName.get(Integer.class));
+    assertThat(types.resolve(ref("Missing"))).isEqualTo(ClassName.get(Object.class));
+  }
+
+  @Test
+  void aliasCyclesResolveToObject() {
+    SchemaTypes types = types(Map.of(
+        "Tree", arrayOf(ref("Tree")),
+        "A", ref("B"),
+        "B", arrayOf(ref("A"))));
+
+    assertThat(types.resolve(ref("Tree"))).isEqualTo(listOf(ClassName.get(Object.class)));
+    assertThat(types.resolve(ref("B"))).isEqualTo(listOf(ClassName.get(Object.class)));
+    assertThat(types.resolve(ref("A"))).isIn(ClassName.get(Object.class), listOf(ClassName.get(Object.class)));
+    assertThat(types.table()).containsOnlyKeys("Tree", "A", "B");
+  }
+
+  @Test
+  void modelsMayReferToThemselves() {
+    SchemaTypes types = types(Map.of("Node", object(Map.of("children", arrayOf(ref("Node"))))));
+
+    assertThat(types.resolve(types.shape("Node").properties().get("children")))
+        .isEqualTo(listOf(ClassName.get(PACKAGE, "Node")));
+  }
+
+  @Test
+  void allOfMergesPropertiesOfAllParts() {
+    ComposedSchema dog = new ComposedSchema();
+    dog.setAllOf(List.of(ref("Pet"), object(Map.of("bark", new StringSchema()), "bark")));
+    dog.setProperties(new LinkedHashMap<>(Map.of("breed", new StringSchema())));
+    SchemaTypes types = types(Map.of(
+        "Pet", object(Map.of("name", new StringSchema()), "name"),
+        "Dog", dog));
+
+    SchemaTypes.Shape shape = types.shape("Dog");
+
+    assertThat(types.kind("Dog")).isEqualTo(SchemaTypes.Kind.MODEL);
+    assertThat(shape.properties()).containsOnlyKeys("name", "bark", "breed");
+    assertThat(shape.required()).containsExactly("bark", "name");
+    assertThat(types.modelProperties()).containsEntry("Dog", Set.of("bark", "breed", "name"));
+  }
+
+  @Test
+  void allOfCyclesTerminate() {
+    ComposedSchema a = new ComposedSchema();
+    a.setAllOf(List.of(ref("B"), object(Map.of("a", new StringSchema()))));
+    ComposedSchema b = new ComposedSchema();
+    b.setAllOf(List.of(ref("A"), object(Map.of("b", new StringSchema()))));
+
+    SchemaTypes types = types(Map.of("A", a, "B", b));
+
+    assertThat(types.shape("A").properties()).containsKey("a");
+    assertThat(types.shape("B").properties()).containsKey("b");
+  }
+
+  @Test
+  void openApi31TypesIgnoreNull() {
+    Schema<?> nullableName = new Schema<>();
+    nullableName.setTypes(new LinkedHashSet<>(List.of("null", "string")));
+
+    assertThat(types(Map.of()).resolve(nullableName)).isEqualTo(ClassName.get(String.class));
+  }
+}
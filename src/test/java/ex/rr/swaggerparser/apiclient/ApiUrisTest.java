@@ -0,0 +1,67 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ApiUrisTest {
+
+  @Test
+  void returnsSafeValuesAsIs() {
+    String value = "pet-42_a.b~c";
+
+    assertThat(ApiUris.encodePath(value)).isSameAs(value);
+    assertThat(ApiUris.encodeQuery(value)).isSameAs(value);
+  }
+
+  @Test
+  void encodesPathSegmentIncludingSlashes() {
+    assertThat(ApiUris.encodePath("a/b c?d#e%f")).isEqualTo("a%2Fb%20c%3Fd%23e%25f");
+    assertThat(ApiUris.encodePath("k=v;x:y@z")).isEqualTo("k=v;x:y@z");
+  }
+
+  @Test
+  void encodesQueryDelimiters() {
+    assertThat(ApiUris.encodeQuery("a&b=c+d e")).isEqualTo("a%26b%3Dc%2Bd%20e");
+    assertThat(ApiUris.encodeQuery("/path?x")).isEqualTo("/path?x");
+  }
+
+  @Test
+  void encodesUtf8IncludingSupplementaryCharacters() {
+    String value = "é€😀";
+
+    String encoded = ApiUris.encodePath(value);
+
+    assertThat(encoded).isEqualTo("%C3%A9%E2%82%AC%F0%9F%98%80");
+    assertThat(encoded).isEqualTo(URLEncoder.encode(value, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void appendsQueryParameters() {
+    StringBuilder uri = new StringBuilder("http://host/pets");
+
+    ApiUris.query(uri, "status", List.of("sold", "on hold"));
+    ApiUris.query(uri, "skipped", null);
+    ApiUris.query(uri, "tags", List.of("a", "b&c"), ",");
+
+    assertThat(uri).hasToString("http://host/pets?status=sold&status=on%20hold&tags=a,b%26c");
+    assertThat(URI.create(uri.toString()).getQuery()).isEqualTo("status=sold&status=on hold&tags=a,b&c");
+  }
+
+  @Test
+  void encodesPipeDelimiter() {
+    assertThat(ApiUris.query(new StringBuilder("/p"), "ids", List.of(1, 2), "|")).hasToString("/p?ids=1%7C2");
+  }
+
+  @Test
+  void normalizesBaseUrl() {
+    assertThat(ApiUris.baseUrl(" http://host/v2// ")).isEqualTo("http://host/v2");
+    assertThatIllegalArgumentException().isThrownBy(() -> ApiUris.baseUrl("/v2"));
+  }
+}
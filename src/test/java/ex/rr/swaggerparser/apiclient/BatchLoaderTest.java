@@ -0,0 +1,137 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class BatchLoaderTest {
+
+  private static final Duration WINDOW = Duration.ofMillis(50);
+
+  private final List<Integer> single = new CopyOnWriteArrayList<>();
+  private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+  private String loadOne(Integer key) {
+    single.add(key);
+    return "pet" + key;
+  }
+
+  private Map<Integer, String> loadAll(List<Integer> keys) {
+    batches.add(keys);
+    return keys.stream().collect(Collectors.toMap(Function.identity(), key -> "pet" + key));
+  }
+
+  private static <V> V await(CompletableFuture<V> future) throws Exception {
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void coalescesLoadsOfKeyInFlight() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    var loader = new BatchLoader<Integer, String>(key -> {
+      loads.incrementAndGet();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "pet" + key;
+    }, null, Duration.ZERO, 10);
+
+    CompletableFuture<String> first = loader.load(1);
+    CompletableFuture<String> second = loader.load(1);
+    release.countDown();
+
+    assertThat(second).isSameAs(first);
+    assertThat(await(first)).isEqualTo("pet1");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void loadsKeysOfWindowInOneBatch() throws Exception {
+    var loader = new BatchLoader<Integer, String>(this::loadOne, this::loadAll, WINDOW, 100);
+
+    CompletableFuture<String> one = loader.load(1);
+    CompletableFuture<String> two = loader.load(2);
+    CompletableFuture<String> three = loader.load(3);
+
+    assertThat(await(one)).isEqualTo("pet1");
+    assertThat(await(two)).isEqualTo("pet2");
+    assertThat(await(three)).isEqualTo("pet3");
+    assertThat(batches).containsExactly(List.of(1, 2, 3));
+    assertThat(single).isEmpty();
+  }
+
+  @Test
+  void dispatchesFullBatchWithoutWaitingForWindow() throws Exception {
+    var loader = new BatchLoader<Integer, String>(this::loadOne, this::loadAll, Duration.ofHours(1), 2);
+
+    CompletableFuture<String> one = loader.load(1);
+    CompletableFuture<String> two = loader.load(2);
+
+    assertThat(await(one)).isEqualTo("pet1");
+    assertThat(await(two)).isEqualTo("pet2");
+    assertThat(batches).containsExactly(List.of(1, 2));
+  }
+
+  @Test
+  void loadsKeysMissingFromBatchOneByOne() throws Exception {
+    var loader = new BatchLoader<Integer, String>(this::loadOne, keys -> {
+      batches.add(keys);
+      return Map.of(1, "pet1");
+    }, WINDOW, 100);
+
+    CompletableFuture<String> one = loader.load(1);
+    CompletableFuture<String> two = loader.load(2);
+
+    assertThat(await(one)).isEqualTo("pet1");
+    assertThat(await(two)).isEqualTo("pet2");
+    assertThat(single).containsExactly(2);
+  }
+
+  @Test
+  void failsAllKeysOfFailedBatch() {
+    var loader = new BatchLoader<Integer, String>(this::loadOne, keys -> {
+      throw new IllegalStateException("down");
+    }, WINDOW, 100);
+
+    CompletableFuture<String> one = loader.load(1);
+    CompletableFuture<String> two = loader.load(2);
+
+    for (CompletableFuture<String> future : List.of(one, two)) {
+      assertThat(future).failsWithin(Duration.ofSeconds(5)).withThrowableOfType(ExecutionException.class)
+          .withCauseInstanceOf(IllegalStateException.class);
+    }
+    assertThat(single).isEmpty();
+  }
+
+  @Test
+  void getRethrowsFailureOfLoad() {
+    var loader = new BatchLoader<Integer, String>(key -> {
+      throw new IllegalStateException("not found");
+    }, null, Duration.ZERO, 1);
+
+    assertThatIllegalStateException().isThrownBy(() -> loader.get(1)).withMessage("not found");
+  }
+
+  @Test
+  void indexesValuesByKey() {
+    assertThat(BatchLoader.index(List.of("a", "bb"), String::length)).isEqualTo(Map.of(1, "a", 2, "bb"));
+    assertThat(BatchLoader.index(null, String::length)).isEqualTo(Collections.emptyMap());
+  }
+}
@@ -0,0 +1,179 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+class ConcurrencyLimitingApiClientTest {
+
+  private static final URI PET = URI.create("http://petstore.test/v2/pet/1");
+  private static final String ORIGIN = "http://petstore.test";
+  private static final TypeReference<Object> TYPE = new TypeReference<>() {
+  };
+  /** Cached, so its latencies are not sampled and timing does not matter. */
+  private static final ApiOperation CACHED = ApiOperation.builder().id("getPetById")
+      .cache(CachePolicy.of(60, 0)).build();
+
+  private final ScriptedApiClient delegate = new ScriptedApiClient();
+
+  private ConcurrencyLimitingApiClient client(int initialLimit) {
+    var settings = new ApiClientProperties.ConcurrencyLimit();
+    settings.setInitialLimit(initialLimit);
+    settings.setBackoffRatio(0.5);
+    return new ConcurrencyLimitingApiClient(delegate, settings);
+  }
+
+  @Test
+  void rejectsRequestsBeyondLimit() {
+    var client = client(1);
+    CompletableFuture<Object> pending = new CompletableFuture<>();
+    delegate.getAsync = () -> pending;
+
+    client.getAsync(PET, Map.of(), TYPE, CACHED);
+
+    assertThatThrownBy(() -> client.get(PET, Map.of(), TYPE))
+        .isInstanceOf(ConcurrencyLimitingApiClient.LimitExceededException.class);
+    assertThat(delegate.calls).hasValue(1);
+
+    pending.complete("pet");
+    client.get(PET, Map.of(), TYPE);
+    assertThat(delegate.calls).hasValue(2);
+  }
+
+  @Test
+  void limitsByOrigin() {
+    var client = client(1);
+    delegate.getAsync = CompletableFuture::new;
+
+    client.getAsync(PET, Map.of(), TYPE);
+    client.getAsync(URI.create("http://store.test/v2/store/inventory"), Map.of(), TYPE);
+
+    assertThat(delegate.calls).hasValue(2);
+  }
+
+  @Test
+  void backsOffWhenDropped() {
+    var client = client(10);
+    delegate.get = () -> {
+      throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+    };
+
+    assertThatThrownBy(() -> client.get(PET, Map.of(), TYPE)).isInstanceOf(HttpServerErrorException.class);
+
+    assertThat(client.limits()).containsEntry(ORIGIN, 5);
+  }
+
+  @Test
+  void ignoresErrorsOtherThanOverload() {
+    var client = client(10);
+    delegate.get = () -> {
+      throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+    };
+
+    assertThatThrownBy(() -> client.get(PET, Map.of(), TYPE)).isInstanceOf(HttpServerErrorException.class);
+
+    assertThat(client.limits()).containsEntry(ORIGIN, 10);
+  }
+
+  @Test
+  void growsWhileBusy() {
+    var client = client(2);
+    CompletableFuture<Object> first = new CompletableFuture<>();
+    CompletableFuture<Object> second = new CompletableFuture<>();
+    Iterator<CompletableFuture<Object>> attempts = List.of(first, second).iterator();
+    delegate.getAsync = attempts::next;
+
+    client.getAsync(PET, Map.of(), TYPE, CACHED);
+    client.getAsync(PET, Map.of(), TYPE, CACHED);
+    first.complete("pet");
+    second.complete("pet");
+
+    assertThat(client.limits()).containsEntry(ORIGIN, 4);
+  }
+
+  @Test
+  void keepsLimitWhenIdle() {
+    var client = client(10);
+
+    client.get(PET, Map.of(), TYPE);
+
+    assertThat(client.limits()).containsEntry(ORIGIN, 10);
+  }
+
+  @Test
+  void releasesStreamPermitWhenExhausted() {
+    var client = client(1);
+    delegate.getStream = () -> Stream.of(1, 2, 3);
+
+    assertThat(client.getStream(PET, Map.of(), TYPE).toList()).containsExactly(1, 2, 3);
+
+    assertThat(client.getStream(PET, Map.of(), TYPE).toList()).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  void releasesStreamPermitWhenIteratedToEnd() {
+    var client = client(1);
+    delegate.getStream = () -> Stream.of(1, 2);
+
+    Iterator<Object> elements = client.getStream(PET, Map.of(), TYPE).iterator();
+    elements.next();
+    elements.next();
+    assertThat(elements.hasNext()).isFalse();
+
+    client.get(PET, Map.of(), TYPE);
+  }
+
+  @Test
+  void releasesStreamPermitWhenFailed() {
+    var client = client(1);
+    delegate.getStream = () -> Stream.of(1, 2).map(i -> {
+      throw new UncheckedIOException(new IOException("connection reset"));
+    });
+
+    Stream<Object> stream = client.getStream(PET, Map.of(), TYPE);
+    assertThatThrownBy(stream::toList).isInstanceOf(UncheckedIOException.class);
+
+    client.get(PET, Map.of(), TYPE);
+  }
+
+  @Test
+  void releasesStreamPermitWhenClosed() {
+    var client = client(1);
+    boolean[] closed = { false };
+    delegate.getStream = () -> Stream.of(1, 2).onClose(() -> closed[0] = true);
+
+    client.getStream(PET, Map.of(), TYPE).close();
+
+    assertThat(closed[0]).isTrue();
+    client.get(PET, Map.of(), TYPE);
+  }
+
+  @Test
+  void releasesStreamPermitOnce() {
+    var client = client(1);
+    delegate.getStream = () -> Stream.of(1, 2);
+    try (Stream<Object> stream = client.getStream(PET, Map.of(), TYPE)) {
+      stream.toList();
+    }
+
+    delegate.getAsync = CompletableFuture::new;
+    client.getAsync(PET, Map.of(), TYPE);
+
+    assertThatThrownBy(() -> client.get(PET, Map.of(), TYPE))
+        .isInstanceOf(ConcurrencyLimitingApiClient.LimitExceededException.class);
+  }
+}
@@ -0,0 +1,51 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import ex.rr.swaggerparser.demo.generated.petstore.Pet;
+import ex.rr.swaggerparser.demo.generated.petstore.PetStoreApiClient;
+import ex.rr.swaggerparser.demo.generated.petstore.PetStoreRuntimeHints;
+
+class GeneratedRuntimeHintsTest {
+
+  private static RuntimeHints petStoreHints() {
+    RuntimeHints hints = new RuntimeHints();
+    new PetStoreRuntimeHints().registerHints(hints, GeneratedRuntimeHintsTest.class.getClassLoader());
+    return hints;
+  }
+
+  @Test
+  void registersGeneratedClasses() {
+    RuntimeHints hints = petStoreHints();
+
+    assertThat(RuntimeHintsPredicates.reflection().onType(Pet.class)
+        .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(PetStoreApiClient.class)
+        .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+        .accepts(hints);
+  }
+
+  @Test
+  void registersNestedClasses() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(Pet.PetBuilder.class)
+        .withMemberCategories(MemberCategory.INVOKE_DECLARED_METHODS))
+        .accepts(petStoreHints());
+  }
+
+  @Test
+  void registersTypeReferences() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(JavaTypeReference.class)).accepts(petStoreHints());
+  }
+
+  @Test
+  void registersNothingElse() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(HttpApiClient.class)).rejects(petStoreHints());
+  }
+}
@@ -0,0 +1,140 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+class HedgingApiClientTest {
+
+  private static final URI PET = URI.create("http://petstore.test/v2/pet/1");
+  private static final TypeReference<Object> TYPE = new TypeReference<>() {
+  };
+  private static final ApiOperation GET_PET = ApiOperation.builder().id("getPetById").hedgeable(true).build();
+  private static final Duration DELAY = Duration.ofMillis(20);
+
+  private final ScriptedApiClient delegate = new ScriptedApiClient();
+  private final HedgingApiClient client;
+
+  HedgingApiClientTest() {
+    var settings = new ApiClientProperties.Hedging();
+    settings.setMinSamples(1);
+    settings.setMinDelay(DELAY);
+    client = new HedgingApiClient(delegate, settings);
+  }
+
+  /** Records a fast call, so the operation is hedged after {@link #DELAY}. */
+  private void warmUp(ApiOperation operation) {
+    delegate.get = () -> "pet";
+    client.get(PET, Map.of(), TYPE, operation);
+    delegate.calls.set(0);
+  }
+
+  private static void script(ScriptedApiClient delegate, List<CompletableFuture<Object>> attempts) {
+    Iterator<CompletableFuture<Object>> next = attempts.iterator();
+    delegate.getAsync = next::next;
+  }
+
+  @Test
+  void hedgesSlowCallAndCancelsLoser() throws Exception {
+    warmUp(GET_PET);
+    CompletableFuture<Object> slow = new CompletableFuture<>();
+    script(delegate, List.of(slow, CompletableFuture.completedFuture("hedged")));
+
+    Object result = client.getAsync(PET, Map.of(), TYPE, GET_PET).get(5, TimeUnit.SECONDS);
+
+    assertThat(result).isEqualTo("hedged");
+    assertThat(delegate.calls).hasValue(2);
+    assertThat(slow).isCancelled();
+  }
+
+  @Test
+  void usesPrimaryCompletingFirst() throws Exception {
+    warmUp(GET_PET);
+    CompletableFuture<Object> hedge = new CompletableFuture<>();
+    CompletableFuture<Object> primary = new CompletableFuture<>();
+    script(delegate, List.of(primary, hedge));
+
+    CompletableFuture<Object> result = client.getAsync(PET, Map.of(), TYPE, GET_PET);
+    Thread.sleep(DELAY.toMillis() * 3);
+    primary.complete("primary");
+
+    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("primary");
+    assertThat(hedge).isCancelled();
+  }
+
+  @Test
+  void doesNotHedgeFailures() throws Exception {
+    warmUp(GET_PET);
+    script(delegate, List.of(CompletableFuture.failedFuture(
+        new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))));
+
+    CompletableFuture<Object> result = client.getAsync(PET, Map.of(), TYPE, GET_PET);
+
+    assertThat(result).failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(HttpServerErrorException.class);
+    Thread.sleep(DELAY.toMillis() * 3);
+    assertThat(delegate.calls).hasValue(1);
+  }
+
+  @Test
+  void failsWithPrimaryErrorOnceAllAttemptsFailed() {
+    warmUp(GET_PET);
+    CompletableFuture<Object> primary = new CompletableFuture<>();
+    CompletableFuture<Object> hedge = new CompletableFuture<>();
+    script(delegate, List.of(primary, hedge));
+
+    CompletableFuture<Object> result = client.getAsync(PET, Map.of(), TYPE, GET_PET);
+    await(() -> delegate.calls.get() == 2);
+    hedge.completeExceptionally(new IllegalStateException("hedge"));
+    primary.completeExceptionally(new IllegalArgumentException("primary"));
+
+    assertThat(result).failsWithin(Duration.ofSeconds(5))
+        .withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void doesNotHedgeWithoutSamples() throws Exception {
+    script(delegate, List.of(new CompletableFuture<>()));
+
+    client.getAsync(PET, Map.of(), TYPE, GET_PET);
+    Thread.sleep(DELAY.toMillis() * 3);
+
+    assertThat(delegate.calls).hasValue(1);
+  }
+
+  @Test
+  void doesNotHedgeCachedOperations() throws Exception {
+    ApiOperation cached = ApiOperation.builder().id("getPetById").hedgeable(true)
+        .cache(CachePolicy.of(60, 0)).build();
+    warmUp(cached);
+    script(delegate, List.of(new CompletableFuture<>()));
+
+    client.getAsync(PET, Map.of(), TYPE, cached);
+    Thread.sleep(DELAY.toMillis() * 3);
+
+    assertThat(delegate.calls).hasValue(1);
+  }
+
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+
+class HttpApiClientCacheTest {
+
+  private final List<Headers> requests = new CopyOnWriteArrayList<>();
+  private volatile String cacheControl = "max-age=60";
+  private HttpServer server;
+  private HttpApiClient client;
+
+  record Pet(long id, String name) {
+  }
+
+  @BeforeEach
+  void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/pet", exchange -> {
+      requests.add(exchange.getRequestHeaders());
+      if ("\"1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        byte[] body = "{\"id\":1,\"name\":\"Rex\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.getResponseHeaders().set("ETag", "\"1\"");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      }
+      exchange.close();
+    });
+    server.start();
+    client = new HttpApiClient(HttpClient.newHttpClient(), new ObjectMapper(), Duration.ofSeconds(5),
+        new HttpResponseCache(1 << 20));
+  }
+
+  @AfterEach
+  void stop() {
+    client.close();
+    server.stop(0);
+  }
+
+  private URI uri() {
+    return URI.create("http://localhost:" + server.getAddress().getPort() + "/pet");
+  }
+
+  private static ApiOperation operation(CachePolicy policy) {
+    return ApiOperation.builder().client("petstore").id("getPet").method("GET").path("/pet").cache(policy)
+        .build();
+  }
+
+  @Test
+  void asyncCallsUseTheCache() throws Exception {
+    ApiOperation operation = operation(CachePolicy.of(0, 0));
+
+    Pet first = client.getAsync(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation)
+        .get(5, TimeUnit.SECONDS);
+    Pet second = client.getAsync(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation)
+        .get(5, TimeUnit.SECONDS);
+    Pet third = client.get(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation);
+
+    assertThat(first).isEqualTo(new Pet(1, "Rex")).isEqualTo(second).isEqualTo(third);
+    assertThat(requests).hasSize(1);
+  }
+
+  @Test
+  void asyncCallsRevalidateStaleEntries() throws Exception {
+    cacheControl = "no-cache";
+    ApiOperation operation = operation(CachePolicy.of(0, 0));
+
+    client.get(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation);
+    Pet revalidated = client.getAsync(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation)
+        .get(5, TimeUnit.SECONDS);
+
+    assertThat(revalidated).isEqualTo(new Pet(1, "Rex"));
+    assertThat(requests).hasSize(2);
+    assertThat(requests.get(1).getFirst("If-None-Match")).isEqualTo("\"1\"");
+  }
+
+  @Test
+  void operationsWithoutPolicyAreNotCached() throws Exception {
+    ApiOperation operation = operation(null);
+
+    client.getAsync(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation).get(5, TimeUnit.SECONDS);
+    client.getAsync(uri(), Map.of(), JavaTypeReference.of(Pet.class), operation).get(5, TimeUnit.SECONDS);
+
+    assertThat(requests).hasSize(2);
+  }
+}
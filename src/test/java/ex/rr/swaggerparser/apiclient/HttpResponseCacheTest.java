@@ -0,0 +1,145 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class HttpResponseCacheTest {
+
+  private static final URI PET = URI.create("http://host/pet/1");
+  private static final CachePolicy POLICY = CachePolicy.of(0, 0);
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+  private static final byte[] BODY = "{}".getBytes();
+
+  private static HttpHeaders headers(String... namesAndValues) {
+    Map<String, List<String>> map = new LinkedHashMap<>();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      map.put(namesAndValues[i], List.of(namesAndValues[i + 1]));
+    }
+    return HttpHeaders.of(map, (name, value) -> true);
+  }
+
+  @Test
+  void keyIncludesAuthorizationByDefault() {
+    String alice = HttpResponseCache.key(PET, Map.of("authorization", "Bearer alice"), List.of());
+    String bob = HttpResponseCache.key(PET, Map.of("Authorization", "Bearer bob"), List.of());
+
+    assertThat(alice).isNotEqualTo(bob).isNotEqualTo(HttpResponseCache.key(PET, Map.of(), List.of()));
+    assertThat(HttpResponseCache.key(PET, null, List.of("Authorization"))).isEqualTo(PET.toString());
+  }
+
+  @Test
+  void keyIncludesPolicyVaryHeaders() {
+    List<String> vary = List.of("Accept-Language", "Authorization");
+
+    String german = HttpResponseCache.key(PET, Map.of("accept-language", "de", "Authorization", "t"), vary);
+    String english = HttpResponseCache.key(PET, Map.of("accept-language", "en", "Authorization", "t"), vary);
+
+    assertThat(german).isNotEqualTo(english);
+    assertThat(german.split("Authorization", -1)).hasSize(2);
+  }
+
+  @Test
+  void entryOnlyMatchesRequestsWithSameVariedHeaders() {
+    var cache = new HttpResponseCache(1 << 20);
+    HttpResponseCache.Entry entry = HttpResponseCache.Entry.of(headers("Cache-Control", "max-age=60",
+        "Vary", "Accept-Language, X-Tenant"), BODY, POLICY, NOW, Map.of("Accept-Language", "de", "x-tenant", "a"));
+    cache.put("key", entry);
+
+    assertThat(cache.get("key", Map.of("accept-language", "de", "X-Tenant", "a"))).isSameAs(entry);
+    assertThat(cache.get("key", Map.of("Accept-Language", "en", "X-Tenant", "a"))).isNull();
+    assertThat(cache.get("key", Map.of("Accept-Language", "de"))).isNull();
+  }
+
+  @Test
+  void doesNotStoreVaryStar() {
+    assertThat(HttpResponseCache.Entry.of(headers("Cache-Control", "max-age=60", "Vary", "*"), BODY, POLICY, NOW,
+        Map.of())).isNull();
+  }
+
+  @Test
+  void storesPrivateResponsesOnlyWhenPolicyAllows() {
+    HttpHeaders headers = headers("Cache-Control", "private, max-age=60");
+
+    assertThat(HttpResponseCache.Entry.of(headers, BODY, POLICY, NOW, Map.of())).isNull();
+    assertThat(HttpResponseCache.Entry.of(headers, BODY, POLICY.withCachePrivate(true), NOW, Map.of()))
+        .isNotNull();
+  }
+
+  @Test
+  void doesNotStoreNoStoreOrUnvalidatableResponses() {
+    assertThat(HttpResponseCache.Entry.of(headers("Cache-Control", "no-store, max-age=60"), BODY, POLICY, NOW,
+        Map.of())).isNull();
+    assertThat(HttpResponseCache.Entry.of(headers("Cache-Control", "no-cache"), BODY, POLICY, NOW, Map.of()))
+        .isNull();
+    assertThat(HttpResponseCache.Entry.of(headers("Cache-Control", "no-cache", "ETag", "\"1\""), BODY, POLICY,
+        NOW, Map.of())).isNotNull();
+  }
+
+  @Test
+  void freshnessFollowsMaxAgeMinusAge() {
+    HttpResponseCache.Entry entry = HttpResponseCache.Entry.of(headers("Cache-Control", "max-age=60", "Age", "50"),
+        BODY, POLICY, NOW, Map.of());
+
+    assertThat(entry.isFresh(NOW.plusSeconds(9))).isTrue();
+    assertThat(entry.isFresh(NOW.plusSeconds(10))).isFalse();
+  }
+
+  @Test
+  void policyTtlAppliesWithoutCachingHeaders() {
+    HttpResponseCache.Entry entry = HttpResponseCache.Entry.of(headers(), BODY, CachePolicy.of(30, 10), NOW,
+        Map.of());
+
+    assertThat(entry.isFresh(NOW.plusSeconds(29))).isTrue();
+    assertThat(entry.isFresh(NOW.plusSeconds(30))).isFalse();
+    assertThat(entry.isUsableStale(NOW.plusSeconds(39))).isTrue();
+    assertThat(entry.isUsableStale(NOW.plusSeconds(40))).isFalse();
+  }
+
+  @Test
+  void refreshKeepsBodyAndValidators() {
+    HttpResponseCache.Entry entry = HttpResponseCache.Entry.of(headers("Cache-Control", "no-cache", "ETag", "\"1\"",
+        "Content-Type", "application/cbor"), BODY, POLICY, NOW, Map.of());
+
+    HttpResponseCache.Entry refreshed = entry.refresh(headers("Cache-Control", "max-age=5"), POLICY, NOW);
+
+    assertThat(refreshed.body()).isSameAs(BODY);
+    assertThat(refreshed.etag()).isEqualTo("\"1\"");
+    assertThat(refreshed.contentType()).isEqualTo("application/cbor");
+    assertThat(refreshed.isFresh(NOW.plusSeconds(4))).isTrue();
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntries() {
+    HttpResponseCache.Entry entry = HttpResponseCache.Entry.of(headers("Cache-Control", "max-age=60"),
+        new byte[1000], POLICY, NOW, Map.of());
+    var cache = new HttpResponseCache(2500);
+
+    cache.put("a", entry);
+    cache.put("b", entry);
+    cache.get("a", Map.of());
+    cache.put("c", entry);
+
+    assertThat(cache.get("a", Map.of())).isNotNull();
+    assertThat(cache.get("b", Map.of())).isNull();
+    assertThat(cache.get("c", Map.of())).isNotNull();
+    assertThat(cache.weight()).isLessThanOrEqualTo(2500);
+  }
+
+  @Test
+  void staleWhileRevalidateOfResponseWinsWhenLonger() {
+    HttpResponseCache.Entry entry = HttpResponseCache.Entry.of(headers("Cache-Control",
+        "max-age=0, stale-while-revalidate=30", "ETag", "\"1\""), BODY,
+        POLICY.withStaleWhileRevalidate(Duration.ofSeconds(5)), NOW, Map.of());
+
+    assertThat(entry.isUsableStale(NOW.plusSeconds(29))).isTrue();
+  }
+}
@@ -0,0 +1,41 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+class JavaTypeReferenceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  record Pet(long id, String name) {
+  }
+
+  @Test
+  void readsConstructedParametricType() throws Exception {
+    TypeReference<Map<String, List<Pet>>> type = JavaTypeReference.of(TypeFactory.defaultInstance()
+        .constructParametricType(Map.class, TypeFactory.defaultInstance().constructType(String.class),
+            TypeFactory.defaultInstance().constructParametricType(List.class, Pet.class)));
+
+    Map<String, List<Pet>> pets = objectMapper.readValue("{\"sold\":[{\"id\":1,\"name\":\"Rex\"}]}", type);
+
+    assertThat(pets).containsEntry("sold", List.of(new Pet(1, "Rex")));
+    assertThat(objectMapper.constructType(type.getType()))
+        .isEqualTo(objectMapper.constructType(new TypeReference<Map<String, List<Pet>>>() {}));
+  }
+
+  @Test
+  void keepsClassOfPlainType() throws Exception {
+    TypeReference<Pet> type = JavaTypeReference.of(Pet.class);
+
+    assertThat(type.getType()).isEqualTo(Pet.class);
+    assertThat(objectMapper.readValue("{\"id\":2,\"name\":\"Tom\"}", type)).isEqualTo(new Pet(2, "Tom"));
+  }
+}
@@ -0,0 +1,55 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LatencyHistogramMetricsTest {
+
+  private static final ApiOperation GET_PET = ApiOperation.builder().client("petstore").id("getPetById")
+      .method("GET").path("/pet/{petId}").build();
+  private static final ApiOperation LIST_PETS = ApiOperation.builder().client("petstore").id("findPetsByStatus")
+      .method("GET").path("/pet/findByStatus").build();
+
+  private final LatencyHistograms histograms = new LatencyHistograms();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private double percentile(ApiOperation operation, String phi) {
+    return registry.get(LatencyHistogramMetrics.METER)
+        .tags("client", "petstore", "operation", operation.id(), "method", "GET", "path", operation.path(),
+            "phi", phi)
+        .gauge().value();
+  }
+
+  @Test
+  void publishesPercentilesOfExistingOperations() {
+    histograms.histogram(GET_PET).record(1_000_000);
+
+    new LatencyHistogramMetrics(histograms).bindTo(registry);
+
+    assertThat(percentile(GET_PET, "0.99")).isEqualTo(0.001);
+    assertThat(registry.find(LatencyHistogramMetrics.METER).gauges()).hasSize(4);
+  }
+
+  @Test
+  void publishesOperationsCalledLater() {
+    new LatencyHistogramMetrics(histograms).bindTo(registry);
+
+    histograms.histogram(LIST_PETS).record(1_000_000);
+
+    assertThat(percentile(LIST_PETS, "0.5")).isEqualTo(0.001);
+  }
+
+  @Test
+  void followsRecordedLatencies() {
+    new LatencyHistogramMetrics(histograms).bindTo(registry);
+    LatencyHistograms.Histogram histogram = histograms.histogram(GET_PET);
+
+    assertThat(percentile(GET_PET, "0.5")).isNaN();
+
+    histogram.record(1_000_000);
+    assertThat(percentile(GET_PET, "0.5")).isEqualTo(0.001);
+  }
+}
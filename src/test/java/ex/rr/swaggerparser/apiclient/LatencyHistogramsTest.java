@@ -0,0 +1,48 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramsTest {
+
+  private static final ApiOperation GET_PET = ApiOperation.builder().id("getPetById").build();
+
+  @Test
+  void reportsPercentilesWithinBucketBounds() {
+    var histogram = new LatencyHistograms.Histogram();
+    for (int millis = 1; millis <= 100; millis++) {
+      histogram.record(Duration.ofMillis(millis).toNanos());
+    }
+
+    assertThat(histogram.count()).isEqualTo(100);
+    assertThat(histogram.percentile(0.5)).isBetween(Duration.ofMillis(50), Duration.ofMillis(60));
+    assertThat(histogram.percentile(0.99)).isBetween(Duration.ofMillis(99), Duration.ofMillis(118));
+  }
+
+  @Test
+  void reportsNothingWhenEmpty() {
+    assertThat(new LatencyHistograms.Histogram().percentile(0.5)).isNull();
+  }
+
+  @Test
+  void reportsNothingAboveLargestBucket() {
+    var histogram = new LatencyHistograms.Histogram();
+    histogram.record(Duration.ofDays(1).toNanos());
+
+    assertThat(histogram.percentile(0.5)).isNull();
+    assertThat(histogram.count()).isEqualTo(1);
+  }
+
+  @Test
+  void keepsHistogramPerOperation() {
+    var histograms = new LatencyHistograms();
+
+    histograms.histogram(GET_PET).record(1_000_000);
+
+    assertThat(histograms.histogram(GET_PET).count()).isEqualTo(1);
+    assertThat(histograms.histograms()).containsOnlyKeys(GET_PET);
+  }
+}
@@ -0,0 +1,76 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class MediaFormatsTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ApiOperation BINARY = ApiOperation.builder()
+      .produces(List.of("application/json", MediaFormats.CBOR, MediaFormats.SMILE))
+      .consumes(List.of(MediaFormats.CBOR))
+      .build();
+  private static final ApiOperation JSON_ONLY = ApiOperation.builder()
+      .produces(List.of("application/json"))
+      .build();
+
+  @Test
+  void prefersSmileOverCborWithJsonFallback() {
+    var formats = new MediaFormats(MAPPER, true);
+
+    assertThat(formats.accept(BINARY)).isEqualTo(MediaFormats.SMILE + ", application/json;q=0.9");
+    assertThat(formats.request(BINARY).mediaType()).isEqualTo(MediaFormats.CBOR);
+  }
+
+  @Test
+  void usesJsonUnlessSpecListsBinaryFormat() {
+    var formats = new MediaFormats(MAPPER, true);
+
+    assertThat(formats.accept(JSON_ONLY)).isEqualTo("application/json");
+    assertThat(formats.accept(null)).isEqualTo("application/json");
+    assertThat(formats.request(null).mediaType()).isEqualTo("application/json");
+  }
+
+  @Test
+  void usesJsonWhenBinaryFormatsDisabled() {
+    var formats = new MediaFormats(MAPPER, false);
+
+    assertThat(formats.accept(BINARY)).isEqualTo("application/json");
+    assertThat(formats.response(MediaFormats.SMILE).mediaType()).isEqualTo("application/json");
+  }
+
+  @Test
+  void readsResponseInItsContentType() {
+    var formats = new MediaFormats(MAPPER, true);
+
+    assertThat(formats.response("Application/CBOR; charset=binary").mediaType()).isEqualTo(MediaFormats.CBOR);
+    assertThat(formats.response("text/plain").mediaType()).isEqualTo("application/json");
+    assertThat(formats.response(null).mediaType()).isEqualTo("application/json");
+  }
+
+  @Test
+  void roundTripsBinaryBodies() throws Exception {
+    var format = new MediaFormats(MAPPER, true).response(MediaFormats.SMILE);
+    Map<String, Object> pet = Map.of("name", "doggie", "id", 1);
+
+    byte[] bytes = format.writer(Map.class).writeValueAsBytes(pet);
+    Map<String, Object> read = format.reader(JavaTypeReference.of(Map.class)).readValue(bytes);
+
+    assertThat(bytes[0]).isEqualTo((byte) ':');
+    assertThat(read).isEqualTo(pet);
+  }
+
+  @Test
+  void reusesReadersPerType() {
+    var format = new MediaFormats(MAPPER, true).response(null);
+
+    assertThat(format.reader(JavaTypeReference.of(String.class)))
+        .isSameAs(format.reader(JavaTypeReference.of(String.class)));
+  }
+}
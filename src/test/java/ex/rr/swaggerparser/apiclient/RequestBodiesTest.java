@@ -0,0 +1,205 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+class RequestBodiesTest {
+
+  private static final String JSON = "application/json";
+  private static final ObjectWriter WRITER = new ObjectMapper().writer();
+
+  @TempDir
+  Path dir;
+
+  private static byte[] read(BodyPublisher publisher) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CompletableFuture<byte[]> done = new CompletableFuture<>();
+    publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(ByteBuffer item) {
+        byte[] chunk = new byte[item.remaining()];
+        item.get(chunk);
+        bytes.writeBytes(chunk);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        done.completeExceptionally(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        done.complete(bytes.toByteArray());
+      }
+    });
+    return done.get(5, TimeUnit.SECONDS);
+  }
+
+  private static String text(BodyPublisher publisher) throws Exception {
+    return new String(read(publisher), StandardCharsets.UTF_8);
+  }
+
+  private static String gunzip(byte[] bytes) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String boundary(RequestBodies.Body body) {
+    return body.contentType().substring(body.contentType().indexOf("boundary=") + "boundary=".length());
+  }
+
+  @Test
+  void sendsSmallJsonWithLength() throws Exception {
+    var body = new RequestBodies(Runnable::run, -1).json(WRITER, Map.of("name", "doggie"), JSON);
+
+    assertThat(body.publisher().contentLength()).isEqualTo(17);
+    assertThat(text(body.publisher())).isEqualTo("{\"name\":\"doggie\"}");
+    assertThat(body.contentEncoding()).isNull();
+  }
+
+  @Test
+  void streamsJsonLargerThanBuffer() throws Exception {
+    String name = "x".repeat(RequestBodies.CHUNK_SIZE * 3);
+
+    var body = new RequestBodies(Runnable::run, -1).json(WRITER, Map.of("name", name), JSON);
+
+    assertThat(body.publisher().contentLength()).isEqualTo(-1);
+    assertThat(text(body.publisher())).isEqualTo("{\"name\":\"" + name + "\"}");
+  }
+
+  @Test
+  void compressesJsonFromThreshold() throws Exception {
+    var bodies = new RequestBodies(Runnable::run, 64);
+
+    var small = bodies.json(WRITER, Map.of("name", "doggie"), JSON);
+    var large = bodies.json(WRITER, Map.of("name", "x".repeat(100)), JSON);
+
+    assertThat(small.contentEncoding()).isNull();
+    assertThat(large.contentEncoding()).isEqualTo("gzip");
+    assertThat(gunzip(read(large.publisher()))).isEqualTo("{\"name\":\"" + "x".repeat(100) + "\"}");
+  }
+
+  @Test
+  void compressesStreamedJson() throws Exception {
+    String name = "x".repeat(RequestBodies.CHUNK_SIZE * 3);
+
+    var body = new RequestBodies(Runnable::run, 1024 * 1024).json(WRITER, Map.of("name", name), JSON);
+
+    assertThat(body.contentEncoding()).isEqualTo("gzip");
+    assertThat(gunzip(read(body.publisher()))).isEqualTo("{\"name\":\"" + name + "\"}");
+  }
+
+  @Test
+  void sendsRawBodiesAsTheyAre() throws Exception {
+    byte[] image = { 1, 2, 3 };
+
+    var body = new RequestBodies(Runnable::run, 0).json(WRITER, image, "application/octet-stream");
+
+    assertThat(read(body.publisher())).containsExactly(1, 2, 3);
+    assertThat(body.contentEncoding()).isNull();
+  }
+
+  @Test
+  void encodesFormWithoutFiles() throws Exception {
+    Map<String, Object> form = new LinkedHashMap<>();
+    form.put("name", "doggie & co");
+    form.put("status", null);
+    form.put("age", 3);
+
+    var body = new RequestBodies(Runnable::run, -1).form(form);
+
+    assertThat(body.contentType()).isEqualTo("application/x-www-form-urlencoded");
+    assertThat(text(body.publisher())).isEqualTo("name=doggie+%26+co&age=3");
+  }
+
+  @Test
+  void sendsFilesAsMultipartWithLength() throws Exception {
+    Path photo = Files.writeString(dir.resolve("dog.png"), "png");
+    Map<String, Object> form = new LinkedHashMap<>();
+    form.put("additionalMetadata", "cute");
+    form.put("file", FormPart.of(photo, "image/png"));
+    form.put("thumbnail", "jpg".getBytes(StandardCharsets.UTF_8));
+    form.put("skipped", null);
+
+    var body = new RequestBodies(Runnable::run, -1).form(form);
+    String boundary = boundary(body);
+    String text = text(body.publisher());
+
+    assertThat(body.contentType()).startsWith("multipart/form-data; boundary=");
+    assertThat(text).isEqualTo("--" + boundary + "\r\n"
+        + "Content-Disposition: form-data; name=\"additionalMetadata\"\r\n\r\ncute\r\n"
+        + "--" + boundary + "\r\n"
+        + "Content-Disposition: form-data; name=\"file\"; filename=\"dog.png\"\r\n"
+        + "Content-Type: image/png\r\n\r\npng\r\n"
+        + "--" + boundary + "\r\n"
+        + "Content-Disposition: form-data; name=\"thumbnail\"; filename=\"thumbnail\"\r\n"
+        + "Content-Type: application/octet-stream\r\n\r\njpg\r\n"
+        + "--" + boundary + "--\r\n");
+    assertThat(body.publisher().contentLength()).isEqualTo(text.length());
+  }
+
+  @Test
+  void sendsStreamOfUnknownLengthWithoutLength() throws Exception {
+    var stream = new ByteArrayInputStream("data".getBytes(StandardCharsets.UTF_8));
+
+    var body = new RequestBodies(Runnable::run, -1).form(Map.of("file", stream));
+
+    assertThat(body.publisher().contentLength()).isEqualTo(-1);
+    assertThat(text(body.publisher())).contains("filename=\"file\"", "\r\n\r\ndata\r\n");
+  }
+
+  @Test
+  void sendsStreamOfKnownLengthWithLength() throws Exception {
+    var stream = new ByteArrayInputStream("data".getBytes(StandardCharsets.UTF_8));
+
+    var body = new RequestBodies(Runnable::run, -1)
+        .form(Map.of("file", FormPart.of("data.txt", "text/plain", stream, 4)));
+
+    assertThat(body.publisher().contentLength()).isEqualTo(text(body.publisher()).length());
+  }
+
+  @Test
+  void escapesNames() throws Exception {
+    var body = new RequestBodies(Runnable::run, -1)
+        .form(Map.of("file", FormPart.of("evil\"\r\n.txt", "text/plain", new byte[0])));
+
+    assertThat(text(body.publisher())).contains("filename=\"evil%22%0D%0A.txt\"");
+  }
+
+  @Test
+  void sendsEmptyForm() throws Exception {
+    var body = new RequestBodies(Runnable::run, -1).form(Collections.emptyMap());
+
+    assertThat(text(body.publisher())).isEmpty();
+  }
+}
@@ -0,0 +1,74 @@
+package ex.rr.swaggerparser.apiclient;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * ScriptedApiClient
+ *
+ * Answers every call with the result of a supplier set by the test, e.g. a
+ * future it completes itself, and counts the calls.
+ */
+@SuppressWarnings("unchecked")
+class ScriptedApiClient implements AsyncApiClient {
+
+  final AtomicInteger calls = new AtomicInteger();
+  volatile Supplier<?> get = () -> null;
+  volatile Supplier<CompletableFuture<?>> getAsync = () -> CompletableFuture.completedFuture(null);
+  volatile Supplier<Stream<?>> getStream = Stream::empty;
+
+  @Override
+  public <T> T get(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    calls.incrementAndGet();
+    return (T) get.get();
+  }
+
+  @Override
+  public <T, B> T post(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return get(uri, headers, type);
+  }
+
+  @Override
+  public <T> T post(URI uri, Map<String, Object> formData, Map<String, String> headers, TypeReference<T> type) {
+    return get(uri, headers, type);
+  }
+
+  @Override
+  public <T, B> T put(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return get(uri, headers, type);
+  }
+
+  @Override
+  public <T> Stream<T> getStream(URI uri, Map<String, String> headers, TypeReference<T> elementType) {
+    calls.incrementAndGet();
+    return (Stream<T>) getStream.get();
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getAsync(URI uri, Map<String, String> headers, TypeReference<T> type) {
+    calls.incrementAndGet();
+    return (CompletableFuture<T>) getAsync.get();
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> postAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return getAsync(uri, headers, type);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> postAsync(URI uri, Map<String, Object> formData, Map<String, String> headers,
+      TypeReference<T> type) {
+    return getAsync(uri, headers, type);
+  }
+
+  @Override
+  public <T, B> CompletableFuture<T> putAsync(URI uri, B body, Map<String, String> headers, TypeReference<T> type) {
+    return getAsync(uri, headers, type);
+  }
+}
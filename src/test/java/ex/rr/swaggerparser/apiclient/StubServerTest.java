@@ -0,0 +1,161 @@
+package ex.rr.swaggerparser.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import ex.rr.swaggerparser.demo.generated.petstore.Pet;
+
+class StubServerTest {
+
+  private static final List<String> JSON = List.of("application/json");
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private final HttpClient http = HttpClient.newHttpClient();
+  private StubServer server;
+
+  @AfterEach
+  void stop() {
+    if (server != null) {
+      server.close();
+    }
+    http.close();
+  }
+
+  private StubServer start(StubServer.Settings settings, String basePath) {
+    server = new StubServer(settings, objectMapper, basePath)
+        .route("GET", "/pet/{petId}", JavaTypeReference.of(Pet.class), JSON)
+        .route("GET", "/pet/findByStatus", JavaTypeReference.of(String.class), JSON)
+        .route("POST", "/pet", null, JSON)
+        .start();
+    return server;
+  }
+
+  private HttpResponse<byte[]> send(String method, String path, Map<String, String> headers) throws Exception {
+    var request = HttpRequest.newBuilder(URI.create(server.baseUrl() + path))
+        .method(method, HttpRequest.BodyPublishers.noBody());
+    headers.forEach(request::header);
+    return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  private HttpResponse<byte[]> get(String path) throws Exception {
+    return send("GET", path, Map.of());
+  }
+
+  @Test
+  void answersTemplateRoutesWithSampleOfGeneratedModel() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/v2");
+
+    HttpResponse<byte[]> response = get("/pet/42");
+    Pet pet = objectMapper.readValue(response.body(), Pet.class);
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue("Content-Type")).hasValue("application/json");
+    assertThat(pet.getName()).isEqualTo("string");
+    assertThat(pet.getCategory()).isNotNull();
+    assertThat(pet.getTags()).hasSize(1);
+  }
+
+  @Test
+  void prefersLiteralRoutesOverTemplates() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/v2");
+
+    assertThat(new String(get("/pet/findByStatus").body())).isEqualTo("\"string\"");
+  }
+
+  @Test
+  void matchesWholePathAndMethod() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/v2");
+
+    assertThat(get("/pet/42/photos").statusCode()).isEqualTo(404);
+    assertThat(get("/pet/").statusCode()).isEqualTo(404);
+    assertThat(send("PUT", "/pet/42", Map.of()).statusCode()).isEqualTo(404);
+  }
+
+  @Test
+  void answersWithoutBodyWhenOperationHasNone() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/v2");
+
+    HttpResponse<byte[]> response = send("POST", "/pet", Map.of());
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body()).isEmpty();
+  }
+
+  @Test
+  void servesUnderBasePath() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/v2/");
+
+    assertThat(server.baseUrl()).isEqualTo("http://localhost:" + server.port() + "/v2");
+    HttpResponse<byte[]> outside = http.send(HttpRequest.newBuilder(
+        URI.create("http://localhost:" + server.port() + "/pet/42")).build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    assertThat(outside.statusCode()).isEqualTo(404);
+  }
+
+  @Test
+  void servesAtRootWithoutBasePath() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/");
+
+    assertThat(server.baseUrl()).isEqualTo("http://localhost:" + server.port());
+    assertThat(get("/pet/42").statusCode()).isEqualTo(200);
+  }
+
+  @Test
+  void injectsErrors() throws Exception {
+    start(StubServer.Settings.DEFAULT.withErrorRate(1).withErrorStatus(HttpStatus.TOO_MANY_REQUESTS.value()),
+        "/v2");
+
+    assertThat(get("/pet/42").statusCode()).isEqualTo(429);
+  }
+
+  @Test
+  void injectsLatency() throws Exception {
+    start(StubServer.Settings.DEFAULT.withLatency(Duration.ofMillis(200)), "/v2");
+
+    long start = System.nanoTime();
+    get("/pet/42");
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+  }
+
+  @Test
+  void compressesWhenAccepted() throws Exception {
+    start(StubServer.Settings.DEFAULT, "/v2");
+
+    HttpResponse<byte[]> response = send("GET", "/pet/42", Map.of("Accept-Encoding", "gzip"));
+
+    assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+    assertThat(get("/pet/42").headers().firstValue("Content-Encoding")).isEmpty();
+  }
+
+  @Test
+  void encodesBinaryFormatOnlyWhenProduced() throws Exception {
+    server = new StubServer(StubServer.Settings.DEFAULT, objectMapper, "")
+        .route("GET", "/pet/{petId}", JavaTypeReference.of(Pet.class), List.of(MediaFormats.SMILE))
+        .route("GET", "/store/{orderId}", JavaTypeReference.of(Pet.class), JSON)
+        .start();
+    Map<String, String> accept = Map.of("Accept", MediaFormats.SMILE + ", application/json;q=0.9");
+
+    HttpResponse<byte[]> smile = send("GET", "/pet/42", accept);
+    HttpResponse<byte[]> json = send("GET", "/store/42", accept);
+
+    assertThat(smile.headers().firstValue("Content-Type")).hasValue(MediaFormats.SMILE);
+    assertThat(objectMapper.copyWith(new SmileFactory()).readValue(smile.body(), Pet.class).getName())
+        .isEqualTo("string");
+    assertThat(json.headers().firstValue("Content-Type")).hasValue("application/json");
+  }
+}